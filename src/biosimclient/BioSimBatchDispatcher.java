@@ -0,0 +1,279 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Split a list of locations into batches and process them in parallel. <br>
+ * <br>
+ * The batches are views of the original list so that no location is copied. The
+ * results are returned in the order of the batches. Each client instance has its own 
+ * dispatcher, whose threads are created on demand and released when they are idle.
+ * @author agent - October 2026
+ */
+final class BioSimBatchDispatcher {
+
+	/**
+	 * The processing of a single batch of locations.
+	 */
+	@FunctionalInterface
+	static interface BatchTask<T> {
+		T process(List<BioSimPlot> batch) throws BioSimClientException, BioSimServerException;
+	}
+
+	/**
+	 * The asynchronous processing of a single batch of locations.
+	 */
+	@FunctionalInterface
+	static interface AsyncBatchTask<T> {
+		CompletableFuture<T> process(List<BioSimPlot> batch);
+	}
+
+	/**
+	 * A Supplier-like interface whose method can throw the exceptions of the client.
+	 */
+	@FunctionalInterface
+	static interface BioSimSupplier<T> {
+		T get() throws BioSimClientException, BioSimServerException;
+	}
+
+	private static final AtomicInteger ThreadId = new AtomicInteger();
+
+	private final int nbThreads;
+	private ThreadPoolExecutor executor;	// lazily instantiated
+
+	/**
+	 * Constructor.
+	 * @param nbThreads the number of threads that process the batches
+	 */
+	BioSimBatchDispatcher(int nbThreads) {
+		this.nbThreads = nbThreads;
+	}
+
+	private synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(nbThreads,
+					nbThreads,
+					30,
+					TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					r -> {
+						Thread t = new Thread(r, "BioSimClient-batch-" + ThreadId.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	/**
+	 * Split the locations into batches and process them. <br>
+	 * <br>
+	 * If there is a single batch, it is processed in the calling thread. Otherwise, at most
+	 * maxNbParallelBatches batches are processed at the same time. If a batch fails, the
+	 * pending batches are cancelled and the original exception is thrown.
+	 *
+	 * @param locations a List of BioSimPlot instances
+	 * @param batchSize the maximum number of locations in a batch
+	 * @param maxNbParallelBatches the maximum number of batches processed at the same time
+	 * @param task the processing of a single batch
+	 * @return a List of results in the order of the batches
+	 * @throws BioSimClientException if the client fails
+	 * @throws BioSimServerException if the server fails
+	 */
+	<T> List<T> dispatch(List<BioSimPlot> locations,
+			int batchSize,
+			int maxNbParallelBatches,
+			BatchTask<T> task) throws BioSimClientException, BioSimServerException {
+		int nbBatches = (locations.size() + batchSize - 1) / batchSize;
+		List<T> results = new ArrayList<T>(nbBatches);
+		if (nbBatches <= 1) {
+			results.add(task.process(locations));
+			return results;
+		}
+		ThreadPoolExecutor executor = getExecutor();
+		List<Future<T>> futures = new ArrayList<Future<T>>(nbBatches);
+		int nextBatch = 0;
+		for (int k = 0; k < nbBatches; k++) {
+			while (nextBatch < nbBatches && nextBatch - k < maxNbParallelBatches) {	// sliding window
+				List<BioSimPlot> batch = getBatch(locations, nextBatch, batchSize);
+				futures.add(executor.submit(() -> task.process(batch)));
+				nextBatch++;
+			}
+			results.add(getResult(futures.get(k), futures));
+		}
+		return results;
+	}
+
+	/**
+	 * Split the locations into batches and process them asynchronously. <br>
+	 * <br>
+	 * At most maxNbParallelBatches batches are in progress at the same time. The next batch
+	 * is started when one of them is completed, so that no thread waits for the others. If a 
+	 * batch fails, the pending batches are not started and the returned CompletableFuture 
+	 * instance is completed exceptionally with a CompletionException that wraps the original 
+	 * exception.
+	 *
+	 * @param locations a List of BioSimPlot instances
+	 * @param batchSize the maximum number of locations in a batch
+	 * @param maxNbParallelBatches the maximum number of batches in progress at the same time
+	 * @param task the asynchronous processing of a single batch
+	 * @return a CompletableFuture instance that provides the results in the order of the batches
+	 */
+	static <T> CompletableFuture<List<T>> dispatchAsync(List<BioSimPlot> locations,
+			int batchSize,
+			int maxNbParallelBatches,
+			AsyncBatchTask<T> task) {
+		int nbBatches = Math.max(1, (locations.size() + batchSize - 1) / batchSize);
+		List<CompletableFuture<T>> futures = new ArrayList<CompletableFuture<T>>(nbBatches);
+		for (int k = 0; k < nbBatches; k++) {
+			futures.add(new CompletableFuture<T>());
+		}
+		AtomicInteger nextBatch = new AtomicInteger();
+		for (int k = 0; k < Math.min(nbBatches, maxNbParallelBatches); k++) {	// sliding window
+			startNextBatch(locations, batchSize, task, futures, nextBatch);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(v -> {
+			List<T> results = new ArrayList<T>(nbBatches);
+			for (CompletableFuture<T> f : futures) {
+				results.add(f.join());
+			}
+			return results;
+		});
+	}
+
+	private static <T> void startNextBatch(List<BioSimPlot> locations,
+			int batchSize,
+			AsyncBatchTask<T> task,
+			List<CompletableFuture<T>> futures,
+			AtomicInteger nextBatch) {
+		int k = nextBatch.getAndIncrement();
+		if (k >= futures.size()) {
+			return;
+		}
+		List<BioSimPlot> batch = futures.size() == 1 ? locations : getBatch(locations, k, batchSize);
+		CompletableFuture<T> result;
+		try {
+			result = task.process(batch);
+		} catch (RuntimeException e) {
+			result = new CompletableFuture<T>();
+			result.completeExceptionally(e);
+		}
+		result.whenComplete((r, failure) -> {
+			if (failure == null) {
+				futures.get(k).complete(r);
+				startNextBatch(locations, batchSize, task, futures, nextBatch);
+			} else {
+				futures.get(k).completeExceptionally(failure);
+				int pending;
+				while ((pending = nextBatch.getAndIncrement()) < futures.size()) {	// the pending batches are not started
+					futures.get(pending).completeExceptionally(failure);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Run a supplier asynchronously. The exceptions of the client are wrapped into a CompletionException.
+	 * @param supplier a BioSimSupplier instance
+	 * @param executor the Executor instance that runs the supplier
+	 * @return a CompletableFuture instance
+	 */
+	static <T> CompletableFuture<T> supplyAsync(BioSimSupplier<T> supplier, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return supplier.get();
+			} catch (BioSimClientException | BioSimServerException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Run several suppliers in parallel. If a supplier fails, the pending ones are 
+	 * cancelled and the original exception is thrown.
+	 * @param suppliers a List of BioSimSupplier instances
+	 * @return a List of results in the order of the suppliers
+	 * @throws BioSimClientException if the client fails
+	 * @throws BioSimServerException if the server fails
+	 */
+	<T> List<T> invokeAll(List<BioSimSupplier<T>> suppliers) throws BioSimClientException, BioSimServerException {
+		ThreadPoolExecutor executor = getExecutor();
+		List<Future<T>> futures = new ArrayList<Future<T>>(suppliers.size());
+		for (BioSimSupplier<T> supplier : suppliers) {
+			futures.add(executor.submit(() -> supplier.get()));
+		}
+		List<T> results = new ArrayList<T>(suppliers.size());
+		for (Future<T> f : futures) {
+			results.add(getResult(f, futures));
+		}
+		return results;
+	}
+
+	static List<BioSimPlot> getBatch(List<BioSimPlot> locations, int batchId, int batchSize) {
+		int fromIndex = batchId * batchSize;
+		return locations.subList(fromIndex, Math.min(fromIndex + batchSize, locations.size()));
+	}
+
+	/**
+	 * Wait for a result and throw the original exception if it failed. The other 
+	 * futures are cancelled if the result cannot be obtained.
+	 */
+	static <T> T getResult(Future<T> future, List<? extends Future<?>> allFutures) throws BioSimClientException, BioSimServerException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			cancel(allFutures);
+			throw new BioSimClientException("The request has been interrupted while waiting for the server reply!");
+		} catch (ExecutionException e) {
+			cancel(allFutures);
+			Throwable cause = e.getCause();
+			if (cause instanceof BioSimClientException) {
+				throw (BioSimClientException) cause;
+			} else if (cause instanceof BioSimServerException) {
+				throw (BioSimServerException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else {
+				throw new BioSimClientException("A batch failed: " + cause.getMessage());
+			}
+		}
+	}
+
+	private static void cancel(List<? extends Future<?>> futures) {
+		for (Future<?> f : futures) {
+			f.cancel(false);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+/**
+ * A snapshot of the counters of a client-side cache.
+ * @author agent - October 2026
+ */
+public final class BioSimCacheStatistics {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final int nbEntries;
+	private final long weight;
+	
+	BioSimCacheStatistics(long hitCount, long missCount, long evictionCount, int nbEntries, long weight) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.nbEntries = nbEntries;
+		this.weight = weight;
+	}
+	
+	/**
+	 * Provide the number of lookups that found their entry.
+	 * @return a long
+	 */
+	public long getHitCount() {return hitCount;}
+
+	/**
+	 * Provide the number of lookups that did not find their entry.
+	 * @return a long
+	 */
+	public long getMissCount() {return missCount;}
+
+	/**
+	 * Provide the number of entries that were evicted to respect the limits of the cache.
+	 * @return a long
+	 */
+	public long getEvictionCount() {return evictionCount;}
+
+	/**
+	 * Provide the current number of entries.
+	 * @return an integer
+	 */
+	public int getNbEntries() {return nbEntries;}
+
+	/**
+	 * Provide the current weight of the entries, typically their estimated size in bytes.
+	 * @return a long
+	 */
+	public long getWeight() {return weight;}
+	
+	/**
+	 * Provide the proportion of lookups that found their entry.
+	 * @return a double between 0 and 1 (NaN if there has been no lookup)
+	 */
+	public double getHitRate() {
+		long nbLookups = hitCount + missCount;
+		return nbLookups == 0 ? Double.NaN : (double) hitCount / nbLookups;
+	}
+	
+	@Override
+	public String toString() {
+		return "hits = " + hitCount + "; misses = " + missCount + "; evictions = " + evictionCount + "; entries = " + nbEntries + "; weight = " + weight;
+	}
+}
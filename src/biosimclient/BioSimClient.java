@@ -20,211 +20,92 @@
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 package biosimclient;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.File;
 import java.net.InetSocketAddress;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.UnknownHostException;
-import java.security.InvalidParameterException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.jar.Attributes;
-import java.util.jar.Manifest;
-
-import javax.net.ssl.SSLHandshakeException;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import biosimclient.BioSimEnums.ClimateModel;
+import biosimclient.BioSimEnums.LoadBalancingPolicy;
 import biosimclient.BioSimEnums.Month;
 import biosimclient.BioSimEnums.Period;
 import biosimclient.BioSimEnums.RCP;
-import biosimclient.BioSimEnums.Variable;
-import repicea.util.JarUtility;
 
 /**
  * A client for the BioSIM Web API.
+ * <br>
+ * <br>
+ * The static methods of this class rely on a default BioSimClientInstance instance. The 
+ * setters replace this instance by another one with the new configuration, which shares 
+ * the caches of the former. The calls in progress are then carried out with the former 
+ * configuration. Clients with different configurations can be used in parallel through 
+ * the BioSimClientInstance.Builder class.
  * 
  * @author Mathieu Fortin - October 2019
+ * @see BioSimClientInstance
  */
 public final class BioSimClient {
 
-//	private static final int REVIddSION = 1;
-	
-	private static int MAXIMUM_NB_LOCATIONS_PER_BATCH_WEATHER_GENERATION = -1; // not set yet
-	private static int MAXIMUM_NB_LOCATIONS_PER_BATCH_NORMALS = -1; // not set yet
-//	private static int MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST = 1000; // not set yet
-	private static Boolean IS_CLIENT_SUPPORTED = null;
-	private static String CLIENT_MESSAGE;
-	private static int LAST_DAILY_DATE;
-	
 	static final String FieldSeparator = ",";
 	
-	private static final InetSocketAddress REpiceaAddress = new InetSocketAddress("http://repicea.dynu.net", 80);
-	private static final String RoutingString = "/BioSIM/";
-//	private static final InetSocketAddress REpiceaAddress = new InetSocketAddress("http://localhost", 5166);
-//	private static final String RoutingString = "/";
-	
-	private static final String SPACE_IN_REQUEST = "%20";
-
 	static final List<Month> AllMonths = Arrays.asList(Month.values());
 
-	private static final String NORMAL_API = "BioSimNormals";
-	private static final String MODEL_LIST_API = "BioSimModelList";
-	private static final String BIOSIMSTATUS = "BioSimStatus";
-	private static final String BIOSIMMODELHELP = "BioSimModelHelp";
-	private static final String BIOSIMMODELDEFAULTPARAMETERS = "BioSimModelDefaultParameters";
-	private static final String BIOSIMWEATHER = "BioSimWeather";
-	
-	private static List<String> ReferenceModelList;
-
-	private static double totalServerRequestDuration = 0.0;
-
-//	static boolean IsLocal = false;		
-	static boolean IsTesting = false;
-
-	static boolean ForceClimateGenerationEnabled = false;  // default value
-	
-	static Integer NbNearestNeighbours = null;
+	private static volatile BioSimClientInstance DefaultInstance = new BioSimClientInstance.Builder().build();
 
-	
-	private static String addQueryIfAny(String urlString, String query) {
-		boolean isThereQuery = false;
-		String finalUrlString;
-		if (query != null && !query.isEmpty()) {
-			isThereQuery = true;
-			finalUrlString = urlString.trim() + "?" + query;
-		} else 
-			finalUrlString = urlString;
-		
-		if (BioSimClient.IsTesting) 
-			finalUrlString = isThereQuery ? finalUrlString + "&cid=testJava" : finalUrlString + "?cid=testJava";
-
-		return finalUrlString;
+	/**
+	 * Replace the default instance by another one whose configuration is changed.
+	 * @param change the change in the configuration
+	 */
+	private static synchronized void configure(Consumer<BioSimClientInstance.Builder> change) {
+		BioSimClientInstance.Builder builder = DefaultInstance.toBuilder();
+		change.accept(builder);
+		DefaultInstance = builder.build();
 	}
-	
-	
-	private static synchronized BioSimStringList getStringFromConnection(String api, String query) throws BioSimClientException, BioSimServerException {
-//		long initTime = System.currentTimeMillis();
-		InetSocketAddress address = BioSimClient.REpiceaAddress;
-		String urlString = address.getHostName() + ":" + address.getPort() + RoutingString + api;
-		urlString = addQueryIfAny(urlString, query);
-		try {
-			URL bioSimURL = new URL(urlString);
-			long requestInitTime = System.currentTimeMillis();
-			HttpURLConnection connection = (HttpURLConnection) bioSimURL.openConnection();
-			int code = connection.getResponseCode();
-			long requestEndTime = System.currentTimeMillis();
-			totalServerRequestDuration += (requestEndTime - requestInitTime) * 0.001;
-			
-			if (code >= 400 && code < 500) { // client error
-				String msg = getCompleteString(connection, true).toString();
-				throw new BioSimClientException("Code " + code + ": " + msg);
-			}
-			if (code >= 500 && code < 600) { // server error
-				String msg = getCompleteString(connection, true).toString();
-				throw new BioSimServerException("Code " + code + ": " + msg);
-			}
-			// TODO MF2022-01-18 Handle other codes here
-//			System.out.println("Time for server to process request: " + (System.currentTimeMillis() - initTime) + " ms");
-			return getCompleteString(connection, false);
-		} catch (MalformedURLException e) {
-			throw new BioSimClientException("Malformed URL: " + e.getMessage());
-		} catch (UnknownHostException e) {
-			throw new BioSimClientException("Unknown host: " + e.getMessage());
-		} catch (SSLHandshakeException e) {
-			throw new BioSimClientException("Unable to confirm certificate for secure connection!" + System.lineSeparator() + e.getMessage());
-		} catch (IOException e) {
-			throw new BioSimClientException("Unable to connect to the server!");
-		} 
-	}
-
-
-	private static BioSimStringList getCompleteString(HttpURLConnection connection, boolean isError) {
-//		long initTime = System.currentTimeMillis();
-		BioSimStringList stringList = new BioSimStringList();
-		try {
-			InputStream is;
-			if (isError) { 
-				is = connection.getErrorStream();
-			} else {
-				is = connection.getInputStream();
-			}
-			BufferedReader br = new BufferedReader(new InputStreamReader(is));
-			String lineStr;
-			while ((lineStr = br.readLine()) != null) {
-				stringList.add(lineStr);
-			}
-			br.close();
-//			System.out.println("Time to make the complete string: " + (System.currentTimeMillis() - initTime) + " ms.");
-		} catch (IOException e) {
-			stringList.add(e.getMessage());
-		}
-		return stringList;
+
+	/**
+	 * Provide the instance the static methods rely on. <br>
+	 * <br>
+	 * Its toBuilder method makes it possible to create clients with other settings 
+	 * that share its caches.
+	 * @return a BioSimClientInstance instance
+	 */
+	public static BioSimClientInstance getDefaultInstance() {
+		return DefaultInstance;
 	}
-	
-	
-	private static LinkedHashMap<BioSimPlot, BioSimDataSet> internalCalculationForNormals(Period period,
+
+	/**
+	 * Retrieve the normals and compile the mean or sum over some months.
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param averageOverTheseMonths A List of Month enums over which the mean or sum is to be
+	 *                               calculated. If empty or null the method returns
+	 *                               the monthly averages.
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public static LinkedHashMap<BioSimPlot, BioSimDataSet> getNormals(
+			Period period,
 			List<BioSimPlot> locations,
 			RCP rcp,
 			ClimateModel climModel,
 			List<Month> averageOverTheseMonths) throws BioSimClientException, BioSimServerException {
-		LinkedHashMap<BioSimPlot, BioSimDataSet> outputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
-
-		StringBuilder query = constructCoordinatesQuery(locations);
-		query.append("&" + period.parsedQuery);
-
-		if (rcp != null) {
-			query.append("&rcp=" + rcp.getURLString());
-		}
-		
-		if(climModel != null) {
-			query.append("&climMod=" + climModel.name());
-		}
-		
-		BioSimStringList serverReply = BioSimClient.getStringFromConnection(NORMAL_API, query.toString());
-		
-		readLines(serverReply, "month", locations, outputMap);
-
-		if (averageOverTheseMonths == null || averageOverTheseMonths.isEmpty()) {
-			List<Integer> fieldsToBeRemoved = null;
-			for (BioSimDataSet bioSimDataSet : outputMap.values()) {
-				if (fieldsToBeRemoved == null) {
-					fieldsToBeRemoved = new ArrayList<Integer>();
-					for (int i = bioSimDataSet.getFieldNames().size() - 1; i > 0; i--) {	// reverse order
-						if (!Variable.getFieldNamesForNormals().contains(bioSimDataSet.getFieldNames().get(i))) {
-							fieldsToBeRemoved.add(i);
-						}
-					}
-				}
-				for (Integer fieldId : fieldsToBeRemoved) {
-					bioSimDataSet.removeField(fieldId);
-				}
-			}
-			return outputMap;
-		} else {
-			LinkedHashMap<BioSimPlot, BioSimDataSet> formattedOutputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
-			for (BioSimPlot location : outputMap.keySet()) {
-				BioSimDataSet ds = outputMap.get(location);
-				BioSimMonthMap bsmm = new BioSimMonthMap(ds);
-				formattedOutputMap.put(location, bsmm.getMeanForTheseMonths(averageOverTheseMonths));
-			}
-			return formattedOutputMap;
-		}
+		return DefaultInstance.getNormals(period, locations, rcp, climModel, averageOverTheseMonths);
 	}
 
-	
 	/**
-	 * Retrieve the normals and compile the mean or sum over some months.
+	 * Retrieve some fields of the normals and compile the mean or sum over some months.
+	 * <br> <br>
+	 * The fields are those of the monthly normals, e.g. TMIN_MN. The fields that are not 
+	 * selected are skipped while parsing the server reply. The mean or sum is only compiled 
+	 * for the selected fields. The month is always retrieved in the monthly normals.
+	 * 
 	 * @param period A Period enum variable
 	 * @param locations A List of BioSimPlot instances
 	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
@@ -232,6 +113,8 @@ public final class BioSimClient {
 	 * @param averageOverTheseMonths A List of Month enums over which the mean or sum is to be
 	 *                               calculated. If empty or null the method returns
 	 *                               the monthly averages.
+	 * @param selectedFields The names of the fields to be retrieved (if null the minimum and maximum 
+	 *                       temperatures and the precipitation are retrieved)
 	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
 	 * @throws BioSimClientException If the client fails 
 	 * @throws BioSimServerException If the server fails 
@@ -241,30 +124,45 @@ public final class BioSimClient {
 			List<BioSimPlot> locations,
 			RCP rcp,
 			ClimateModel climModel,
-			List<Month> averageOverTheseMonths) throws BioSimClientException, BioSimServerException {
-		isClientSupported();
-//		if (locations.size() > BioSimClient.MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST) {
-//			throw new BioSimClientException("The maximum number of locations for a single request is " + MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST);
-//		}
-		if (locations.size() > BioSimClient.getMaximumNbLocationsPerBatchNormals()) {
-			LinkedHashMap<BioSimPlot, BioSimDataSet> resultingMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
-			List<BioSimPlot> copyList = new ArrayList<BioSimPlot>();
-			copyList.addAll(locations);
-			List<BioSimPlot> subList = new ArrayList<BioSimPlot>();
-			while (!copyList.isEmpty()) {
-				while (!copyList.isEmpty() && subList.size() < BioSimClient.getMaximumNbLocationsPerBatchNormals()) {
-					subList.add(copyList.remove(0));
-				}
-				resultingMap.putAll(internalCalculationForNormals(period, subList, rcp, climModel, averageOverTheseMonths));
-				subList.clear();
-			}
-			return resultingMap;
-		} else {
-			return internalCalculationForNormals(period, locations, rcp, climModel, averageOverTheseMonths);
-		}
+			List<Month> averageOverTheseMonths,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		return DefaultInstance.getNormals(period, locations, rcp, climModel, averageOverTheseMonths, selectedFields);
 	}
-	
-	
+
+	/**
+	 * Retrieve the normals and compile the mean or sum over some months without blocking 
+	 * the calling thread.
+	 * <br> <br>
+	 * This method is the asynchronous counterpart of the getNormals method. It relies on the same 
+	 * cache and the same limits on the number of parallel batches and concurrent requests. The 
+	 * executor retrieves the server settings first if they have not been yet. Then, it sends the 
+	 * batches and parses the replies. No thread waits for a permit: a batch that exceeds the limits 
+	 * is sent once a previous request has been completed. The returned CompletableFuture instance 
+	 * is completed once all the batches have been merged. Should the request fail, the CompletableFuture 
+	 * instance is completed exceptionally with a CompletionException whose cause is the BioSimClientException 
+	 * or BioSimServerException instance.
+	 * 
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param averageOverTheseMonths A List of Month enums over which the mean or sum is to be
+	 *                               calculated. If empty or null the method returns
+	 *                               the monthly averages.
+	 * @param executor The Executor instance that sends the requests and parses the replies
+	 * @return A CompletableFuture instance that provides a Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @see BioSimClient#getNormals(Period, List, RCP, ClimateModel, List)
+	 */
+	public static CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>> getNormalsAsync(
+			Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<Month> averageOverTheseMonths,
+			Executor executor) {
+		return DefaultInstance.getNormalsAsync(period, locations, rcp, climModel, averageOverTheseMonths, executor);
+	}
+
 	/**
 	 * Retrieve the monthly normals.
 	 * @param period A Period enum variable
@@ -280,10 +178,31 @@ public final class BioSimClient {
 			List<BioSimPlot> locations,
 			RCP rcp,
 			ClimateModel climModel) throws BioSimClientException, BioSimServerException {
-		return getNormals(period, locations, rcp, climModel, null);
+		return DefaultInstance.getMonthlyNormals(period, locations, rcp, climModel);
+	}
+
+	/**
+	 * Retrieve some fields of the monthly normals.
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param selectedFields The names of the fields to be retrieved besides the month (if null the 
+	 *                       minimum and maximum temperatures and the precipitation are retrieved)
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimClient#getNormals(Period, List, RCP, ClimateModel, List, List)
+	 */
+	public static LinkedHashMap<BioSimPlot, BioSimDataSet> getMonthlyNormals(
+			Period period, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		return DefaultInstance.getMonthlyNormals(period, locations, rcp, climModel, selectedFields);
 	}
 
-	
 	/**
 	 * Retrieve the yearly normals.
 	 * @param period A Period enum variable
@@ -299,232 +218,97 @@ public final class BioSimClient {
 			List<BioSimPlot> locations,
 			RCP rcp,
 			ClimateModel climModel) throws BioSimClientException, BioSimServerException {
-		return getNormals(period, locations, rcp, climModel, AllMonths);
-	}
-
-
-	private static StringBuilder constructCoordinatesQuery(List<BioSimPlot> locations) {
-		StringBuilder latStr = new StringBuilder();
-		StringBuilder longStr = new StringBuilder();
-		StringBuilder elevStr = new StringBuilder();
-		String latStrThisLoc, longStrThisLoc, elevStrThisLoc;
-		for (BioSimPlot location : locations) {
-			latStrThisLoc = latStr.length() == 0 ? "" + location.getLatitudeDeg() : SPACE_IN_REQUEST + location.getLatitudeDeg();
-			latStr.append(latStrThisLoc);
-			longStrThisLoc = longStr.length() == 0 ? "" + location.getLongitudeDeg() : SPACE_IN_REQUEST + location.getLongitudeDeg();
-			longStr.append(longStrThisLoc);
-			elevStrThisLoc = elevStr.length() == 0 ? "" + processElevationM(location) : SPACE_IN_REQUEST + processElevationM(location);
-			elevStr.append(elevStrThisLoc);
-		}
-
-		StringBuilder query = new StringBuilder();
-		query.append("lat=" + latStr.toString());
-		query.append("&long=" + longStr.toString());
-		if (elevStr.length() != 0) {
-			query.append("&elev=" + elevStr.toString());
-		}
-		return query;
+		return DefaultInstance.getAnnualNormals(period, locations, rcp, climModel);
 	}
 
-	private static String processElevationM(BioSimPlot location) {
-		if (Double.isNaN(location.getElevationM())) {
-			return "NaN";
-		} else {
-			return "" + location.getElevationM();
-		}
-	}
-	
-
 	/**
 	 * Provide the list of the available models. <br>
 	 * <br>
-	 * The method returns a clone of the true list to avoid any unintended changes.
+	 * The method returns a clone of the true list to avoid any unintended changes. The 
+	 * list is retrieved once and then refreshed after the time to live of the model catalog.
 	 * 
 	 * @return A List of String instances
   	 * @throws BioSimClientException If the client fails 
 	 * @throws BioSimServerException If the server fails 
 	 */
 	public static List<String> getModelList() throws BioSimClientException, BioSimServerException {
-		isClientSupported();
-		List<String> copy = new ArrayList<String>();
-		copy.addAll(getReferenceModelList());
-		return copy;
+		return DefaultInstance.getModelList();
 	}
-	
+
 	/**
-	 * Provide a description of a particular model.
+	 * Provide a description of a particular model. <br>
+	 * <br>
+	 * The description is retrieved once and then kept in the model catalog.
 	 * @param modelName The name of the model
 	 * @return A String instance
   	 * @throws BioSimClientException If the client fails 
 	 * @throws BioSimServerException If the server fails 
 	 */
 	public static String getModelHelp(String modelName) throws BioSimClientException, BioSimServerException {
-		isClientSupported();
-		if (modelName == null) {
-			throw new InvalidParameterException("THe modelName parameter cannot be set to null!");
-		}
-		String serverReply = getStringFromConnection(BIOSIMMODELHELP, "model=" + modelName).toString();
-		return serverReply;
+		return DefaultInstance.getModelHelp(modelName);
 	}
 
 	/**
-	 * Provide the default parameters of a particular model.
+	 * Provide the default parameters of a particular model. <br>
+	 * <br>
+	 * The parameters are retrieved once and then kept in the model catalog. The method 
+	 * returns a copy that can be changed without affecting the catalog.
 	 * @param modelName The name of the model
 	 * @return A BioSimParameterMap instance that contains the parameters.
   	 * @throws BioSimClientException If the client fails 
 	 * @throws BioSimServerException If the server fails 
 	 */
 	public static BioSimParameterMap getModelDefaultParameters(String modelName) throws BioSimClientException, BioSimServerException {
-		isClientSupported();
-		if (modelName == null) {
-			throw new InvalidParameterException("THe modelName parameter cannot be set to null!");
-		}
-		String serverReply = getStringFromConnection(BIOSIMMODELDEFAULTPARAMETERS, "model=" + modelName).toString();
-		String[] parms = serverReply.split("\\*");
-		BioSimParameterMap parmMap = new BioSimParameterMap();
-		for (String parm : parms) {
-			String[] keyValue = parm.split(":");
-			if (keyValue.length > 1) {
-				parmMap.addParameter(keyValue[0], keyValue[1]);
-			} else {
-				parmMap.addParameter(keyValue[0], ""); 
-			}
-		}
-		return parmMap;
+		return DefaultInstance.getModelDefaultParameters(modelName);
 	}
-	
 
-	private static List<String> getReferenceModelList() throws BioSimClientException, BioSimServerException {
-		if (ReferenceModelList == null) {
-			List<String> myList = new ArrayList<String>();
-			BioSimStringList modelList = BioSimClient.getStringFromConnection(BioSimClient.MODEL_LIST_API, null);
-			for (String model : modelList) {
-				myList.add(model);
-			}
-			ReferenceModelList = new ArrayList<String>();
-			ReferenceModelList.addAll(myList);
-		}
-		return ReferenceModelList;
-	}
- 	
-		
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private static void readLines(BioSimStringList serverReply,
-			String fieldLineStarter,
-			List<BioSimPlot> refListForLocations,
-			LinkedHashMap outputMap) throws BioSimClientException, BioSimServerException {
-//		long initTime;
-//		long totalTime = 0;
-		BioSimDataSet dataSet = null;
-		int locationId = 0;
-		BioSimPlot location = null;
-		boolean isDataSetProperlyInitialized = false;
-		String modName = null;
-		LinkedHashMap<BioSimPlot, BioSimDataSet> resultMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
-		for (String line : serverReply) {
-			if (line.toLowerCase().startsWith("error")) {
-				throw new BioSimServerException(line);
-			} else if (BioSimClient.getModelList().contains(line.trim())) {
-				resultMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
-				modName = line.trim();
-				outputMap.put(modName, resultMap);
-				locationId = 0;
-				isDataSetProperlyInitialized = false;		// reset to false until we get the header
-			} else if (line.toLowerCase().startsWith(fieldLineStarter)) { // means it is a new location
-				if (dataSet != null) {	// must be indexed before instantiating a new DataSet
-//					initTime = System.currentTimeMillis();
-					dataSet.indexFieldType();
-//					totalTime += System.currentTimeMillis() - initTime;
-				}
-				location = refListForLocations.get(locationId);
-				String[] fields = line.split(FieldSeparator);
-				List<String> fieldNames = Arrays.asList(fields);
-				dataSet = new BioSimDataSet(fieldNames);
-				resultMap.put(location, dataSet);
-				locationId++;
-				isDataSetProperlyInitialized = true;
-			} else {
-				if (!isDataSetProperlyInitialized) {
-					if (modName != null) {
-						outputMap.put(modName, new BioSimClientException(line)); // this happens if we are using the Weather route
-					} else {
-						throw new BioSimClientException(serverReply.toString());	// this happens with normals or in case of severe exception with the weather route
-					}
-				} else {
-					Object[] fields = Arrays.asList(line.split(FieldSeparator)).toArray(new Object[]{});
-//					initTime = System.currentTimeMillis();
-					dataSet.addObservation(fields);
-//					totalTime += System.currentTimeMillis() - initTime;
-				}
-			}
-		}
-		if (dataSet != null) {
-//			initTime = System.currentTimeMillis();
-			dataSet.indexFieldType();	// last DataSet has not been instantiated so it needs to be here.
-//			totalTime += System.currentTimeMillis() - initTime;
-		}
-		if (outputMap.isEmpty()) {
-			outputMap.putAll(resultMap);
-		}
-//		System.out.println("Time to create observations: " + totalTime + " ms");
+	/**
+	 * Retrieve the help and the default parameters of all the models. <br>
+	 * <br>
+	 * The requests are sent in parallel. Afterwards, the getModelHelp and getModelDefaultParameters 
+	 * methods do not send any request until the model catalog expires.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimClient#setModelCatalogTimeToLive(long)
+	 */
+	public static void loadModelCatalog() throws BioSimClientException, BioSimServerException {
+		DefaultInstance.loadModelCatalog();
 	}
-	
-	private static LinkedHashMap<String, Object> internalCalculationForClimateVariables(int fromYr, 
-			int toYr, 
-			List<BioSimPlot> locations,
-			RCP rcp,
-			ClimateModel climMod,
-			List<String> modelNames, 
-			int rep,
-			int repModel,
-			List<BioSimParameterMap> additionalParms) throws BioSimClientException, BioSimServerException {
-		StringBuilder query = constructCoordinatesQuery(locations);
-		query.append("&from=" + fromYr);
-		query.append("&to=" + toYr);
-		if (rcp != null) {
-			query.append("&rcp=" + rcp.getURLString());
-		}
-		if(climMod != null) {
-			query.append("&climMod=" + climMod.name());
-		}
-		if (ForceClimateGenerationEnabled) {
-			System.out.println("Warning: past climate is generated instead of being compiled from observations!");
-			query.append("&source=FromNormals");
-		}
-		if (NbNearestNeighbours != null) {
-			query.append("&nb_nearest_neighbor=" + NbNearestNeighbours.toString());
-		}
-		if (rep > 1) {
-			query.append("&rep=" + rep);
-		}
-		for (int i = 0; i < modelNames.size(); i++) {
-			if (i == 0)
-				query.append("&model=" + modelNames.get(i));
-			else 
-				query.append(BioSimClient.SPACE_IN_REQUEST + modelNames.get(i));
-		}
-		if (repModel >  1) {
-			query.append("&repmodel=" + repModel);
-		}
-		if (additionalParms != null) {
-			StringBuilder sbParms = new StringBuilder();
-//			int i = 0;
-			for (BioSimParameterMap oMap : additionalParms) {
-				String strForThisMap = oMap == null || oMap.isEmpty() ? "null" : oMap.toString();
-				if (sbParms.length() == 0)
-					sbParms.append(strForThisMap);
-				else 
-					sbParms.append(SPACE_IN_REQUEST + strForThisMap);
-			}
-			query.append("&Parameters=" + sbParms.toString());
-		}
-//		System.out.println("Constructing request: " + (System.currentTimeMillis() - initTime) + " ms");
-		BioSimStringList serverReply = getStringFromConnection(BIOSIMWEATHER, query.toString());
-		LinkedHashMap<String, Object> outputMap = new LinkedHashMap<String, Object>();
-//		long initTime = System.currentTimeMillis();
-		readLines(serverReply, "rep", locations, outputMap);
-//		System.out.println("Total time to convert string into biosim dataset: " + (System.currentTimeMillis() - initTime) + " ms.");
-		return outputMap;
+
+	/**
+	 * Retrieve the status of the server and the model list in parallel. <br>
+	 * <br>
+	 * Otherwise, the first request retrieves them one after the other. Calling this method 
+	 * at startup, possibly in another thread, makes it possible to send the first requests 
+	 * without waiting for these metadata. If the persistent cache is enabled, the metadata 
+	 * are read from a snapshot that a former JVM has stored, unless it has expired.
+	 * @throws BioSimClientException If the client fails or is not supported
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimClient#enablePersistentCache(File, long)
+	 * @see BioSimClient#setMetadataSnapshotTimeToLive(long)
+	 */
+	public static void warmUp() throws BioSimClientException, BioSimServerException {
+		DefaultInstance.warmUp();
+	}
+
+	/**
+	 * Set the time to live of the snapshot of the server status and the model list in the 
+	 * persistent cache. Once it has expired, these metadata are retrieved from the server
+	 * and the snapshot is replaced. By default, the time to live is one hour. 
+	 * @param timeToLiveMs the time to live (ms), which must be greater than 0
+	 */
+	public static void setMetadataSnapshotTimeToLive(long timeToLiveMs) {
+		configure(builder -> builder.setMetadataSnapshotTimeToLive(timeToLiveMs));
+	}
+
+	/**
+	 * Set the time to live of the model catalog. Once it has expired, the model list is
+	 * retrieved anew on the next request, as well as the help and the default parameters 
+	 * of the models. By default, the time to live is 24 hours.
+	 * @param timeToLiveMs the time to live (ms), which must be greater than 0
+	 */
+	public static void setModelCatalogTimeToLive(long timeToLiveMs) {
+		configure(builder -> builder.setModelCatalogTimeToLive(timeToLiveMs));
 	}
 
 	/**
@@ -554,10 +338,9 @@ public final class BioSimClient {
 			List<String> modelNames,
 			int rep,
 			List<BioSimParameterMap> additionalParms)	throws BioSimClientException, BioSimServerException {
-		return BioSimClient.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, 1, additionalParms); 
+		return DefaultInstance.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, additionalParms);
 	}
 
-	
 	/**
 	 * Generate meteorological time series and apply one or many models on them.
 	 * <br> <br>
@@ -585,18 +368,19 @@ public final class BioSimClient {
 			List<String> modelNames,
 			List<BioSimParameterMap> additionalParms)
 			throws BioSimClientException, BioSimServerException {
-		return BioSimClient.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, 1, 1, additionalParms);
+		return DefaultInstance.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, additionalParms);
 	}
 
-	
-	
-
 	/**
 	 * Generate meteorological time series and apply one or many models on them.
 	 * <br> <br>
 	 * The "modelnames" argument sets the models to be applied on the generated meteorological 
 	 * time series, which should be contained in the list returned by the 
 	 * getModelList method. 
+	 * <br> <br>
+	 * If the number of locations exceeds the maximum number of locations per request, the
+	 * locations are split into batches that are sent in parallel. The results are merged
+	 * in the original order of the locations.
 	 * 
 	 * @param fromYr The start date (yr) of the period (inclusive)
 	 * @param toYr The end date (yr) of the period (inclusive)
@@ -611,7 +395,6 @@ public final class BioSimClient {
 	 * @throws BioSimClientException If the client fails 
 	 * @throws BioSimServerException If the server fails 
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static LinkedHashMap<String, Object> generateWeather(int fromYr, 
 			int toYr,
 			List<BioSimPlot> locations, 
@@ -621,132 +404,397 @@ public final class BioSimClient {
 			int rep,
 			int repModel,
 			List<BioSimParameterMap> additionalParms) throws BioSimClientException, BioSimServerException {
-		isClientSupported();
-		if (rep < 1 || repModel < 1) {
-			throw new InvalidParameterException("The rep and repModel parameters should be equal to or greater than 1!");
-		} 
-//		if (locations.size() > MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST) {
-//			throw new BioSimClientException("The maximum number of locations for a single request is " + MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST);
-//		}
-
-		totalServerRequestDuration = 0.0;
-
-		if (locations.size() > BioSimClient.getMaximumNbLocationsPerBatchWeatherGeneration()) {
-			LinkedHashMap<String, Object> resultingMap = null;
-			List<BioSimPlot> copyList = new ArrayList<BioSimPlot>();
-			copyList.addAll(locations);
-			List<BioSimPlot> subList = new ArrayList<BioSimPlot>();
-			while (!copyList.isEmpty()) {
-				while (!copyList.isEmpty() && subList.size() < BioSimClient.getMaximumNbLocationsPerBatchWeatherGeneration()) {
-					subList.add(copyList.remove(0));
-				}
-				LinkedHashMap<String, Object> intermediateMap = internalCalculationForClimateVariables(fromYr, toYr, subList, rcp, climMod, modelNames, rep, repModel, additionalParms);
-				if (resultingMap == null) 
-					resultingMap = intermediateMap;
-				else {
-					Set<String> keys = resultingMap.keySet();
-					for (String key : keys) {
-						Object there = resultingMap.get(key);
-						Object incomingResult = intermediateMap.get(key);
-						if (incomingResult instanceof LinkedHashMap && there instanceof LinkedHashMap) {
-							((LinkedHashMap) there).putAll((LinkedHashMap) incomingResult);
-						} else if (incomingResult instanceof Exception) {
-							resultingMap.put(key, incomingResult);
-						}
-					}
-				}
-				subList.clear();
-			}
-			return resultingMap;
-		} else {
-			return internalCalculationForClimateVariables(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms);
-		}
+		return DefaultInstance.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms);
 	}
-	
-	
-	private static int getMaximumNbLocationsPerBatchWeatherGeneration() throws BioSimClientException, BioSimServerException {
-		return MAXIMUM_NB_LOCATIONS_PER_BATCH_WEATHER_GENERATION;
-	}
-
-	private static String getRevision() {
-		String filePath = JarUtility.getJarFileImInIfAny(BioSimClient.class);
-		if (filePath != null) {
-			try {
-				Manifest m = JarUtility.getManifestFromThisJarFile(filePath);
-				return m.getMainAttributes().get(Attributes.Name.SPECIFICATION_VERSION).toString();				
-			} catch (IOException e) {
-				throw new InvalidParameterException("Cannot retrieve manifest from jar file: " + filePath);
-			}
-		} else {
-			return "NotWrappedIntoJar";			
-		}
+
+	/**
+	 * Generate meteorological time series, apply one or many models on them and retrieve
+	 * some fields of the model outputs.
+	 * <br> <br>
+	 * The fields that are not selected are skipped while parsing the server reply. They are
+	 * never stored in memory. The data sets contain the selected fields in the order of the 
+	 * model outputs. The selected fields that a model does not provide are ignored.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param selectedFields The names of the fields to be retrieved (if null all the fields are retrieved)
+	 * @return A LinkedHashMap with the model names as keys
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public static LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		return DefaultInstance.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields);
 	}
-	
-	
+
 	/**
-	 * Check if the status of the server has been retrieved and set the IS_CLIENT_SUPPORTED and CLIENT_MESSAGE static
-	 * members. Then check if the client is supported. 
-	 * @return The warning message
+	 * Generate meteorological time series, apply one or many models on them and retrieve
+	 * some fields and some rows of the model outputs.
+	 * <br> <br>
+	 * The row filter is evaluated on each line of the server reply before it is parsed. The 
+	 * rows that are filtered out are never stored in memory. The filter can involve fields 
+	 * that are not selected.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param selectedFields The names of the fields to be retrieved (if null all the fields are retrieved)
+	 * @param rowFilter A BioSimRowFilter instance (if null all the rows are retrieved)
+	 * @return A LinkedHashMap with the model names as keys
 	 * @throws BioSimClientException If the client fails 
 	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimRowFilter
 	 */
-	@SuppressWarnings("rawtypes")
-	public static synchronized String isClientSupported() throws BioSimClientException, BioSimServerException {
-		if (IS_CLIENT_SUPPORTED == null) {
-			String revision = getRevision();
-			String query = "crev=" + revision;
-			String serverReply = getStringFromConnection(BIOSIMSTATUS, query).toString();	// is returned in JSON format
-			Map statusMap = null;
-			try {
-//				statusMap = JsonReader.jsonToMaps(serverReply);
-				ObjectMapper om = new ObjectMapper();
-				statusMap = om.readValue(serverReply, Map.class);
-			} catch (Exception e) {
-				throw new BioSimClientException("Something wrong happened while retrieving the server status: " + e.getMessage());
-			}
-			
-			if (!(Boolean)statusMap.get("IsInitCompleted")) {
-				throw new BioSimClientException("The server initialization is not completed!");
-			}
-			if (!statusMap.containsKey("settings")) {
-				throw new BioSimClientException("The status map does not contain the entry settings!");
-			}
-			
-			try {
-				Map settingsMap = (Map) statusMap.get("settings");
-				MAXIMUM_NB_LOCATIONS_PER_BATCH_NORMALS = ((Number) settingsMap.get("NbMaxCoordinatesNormals")).intValue();
-				MAXIMUM_NB_LOCATIONS_PER_BATCH_WEATHER_GENERATION = ((Number) settingsMap.get("NbMaxCoordinatesWG")).intValue();
-				IS_CLIENT_SUPPORTED = settingsMap.containsKey("IsClientSupported") ? (Boolean) settingsMap.get("IsClientSupported") : true;
-				CLIENT_MESSAGE = settingsMap.containsKey("ClientMessage") ? (String) settingsMap.get("ClientMessage") : "";
-				LAST_DAILY_DATE = ((Number) settingsMap.get("LastDailyDate")).intValue(); 
-			} catch (Exception e) {
-				throw new BioSimClientException("The server reply could not be parsed: " + e.getMessage());
-			}
-			if (IS_CLIENT_SUPPORTED && !CLIENT_MESSAGE.isEmpty()) {
-				System.err.println(CLIENT_MESSAGE);
-			}
-		}
-		if (!IS_CLIENT_SUPPORTED) 
-			throw new BioSimClientException(CLIENT_MESSAGE);
-		return CLIENT_MESSAGE;
+	public static LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter) throws BioSimClientException, BioSimServerException {
+		return DefaultInstance.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter);
 	}
-	
-	private static int getMaximumNbLocationsPerBatchNormals() throws BioSimClientException, BioSimServerException {
-		return MAXIMUM_NB_LOCATIONS_PER_BATCH_NORMALS;
+
+	/**
+	 * Generate meteorological time series, apply one or many models on them and pass the 
+	 * data set of each plot to a consumer as soon as it is parsed.
+	 * <br> <br>
+	 * The client does not keep the data sets once they have been passed to the consumer, 
+	 * so that the memory footprint does not depend on the number of locations. The calls 
+	 * to the consumer are serialized. The errors the server sends for a particular model
+	 * are passed to the acceptError method of the consumer.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param selectedFields The names of the fields to be retrieved (if null all the fields are retrieved)
+	 * @param rowFilter A BioSimRowFilter instance (if null all the rows are retrieved)
+	 * @param consumer A BioSimResultConsumer instance
+	 * @throws BioSimClientException If the client or the consumer fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimResultConsumer
+	 */
+	public static void generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer) throws BioSimClientException, BioSimServerException {
+		DefaultInstance.generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter, consumer);
+	}
+
+	/**
+	 * Generate meteorological time series and apply one or many models on them without blocking
+	 * the calling thread.
+	 * <br> <br>
+	 * This method is the asynchronous counterpart of the generateWeather method. It relies on the 
+	 * same observed weather cache and the same limits on the number of parallel batches and concurrent 
+	 * requests. The executor retrieves the server settings first if they have not been yet. Then, it 
+	 * sends the batches and parses the replies. No thread waits for a permit: a batch that exceeds 
+	 * the limits is sent once a previous request has been completed. The requests are not hedged. 
+	 * The returned CompletableFuture instance is completed once all the batches have been merged. 
+	 * Should the request fail or should the rep or repModel argument be smaller than 1, the 
+	 * CompletableFuture instance is completed exceptionally with a CompletionException whose cause 
+	 * is the BioSimClientException, BioSimServerException or InvalidParameterException instance.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param executor The Executor instance that sends the requests and parses the replies
+	 * @return A CompletableFuture instance that provides a LinkedHashMap with the model names as keys
+	 * @see BioSimClient#generateWeather(int, int, List, RCP, ClimateModel, List, int, int, List)
+	 */
+	public static CompletableFuture<LinkedHashMap<String, Object>> generateWeatherAsync(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			Executor executor) {
+		return DefaultInstance.generateWeatherAsync(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, executor);
+	}
+
+	/**
+	 * Check if the status of the server has been retrieved and retrieve it if needs be. Then 
+	 * check if the client is supported. <br>
+	 * <br>
+	 * Once the status has been retrieved, this method does not take any lock.
+	 * @return The warning message
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public static String isClientSupported() throws BioSimClientException, BioSimServerException {
+		return DefaultInstance.isClientSupported();
 	}
 
 	/**
 	 * Reset the configuration to its initial values.
 	 */
 	public static void resetClientConfiguration() {
-		NbNearestNeighbours = null;
-		ForceClimateGenerationEnabled = false;
-//		IsLocal = false;
-		IsTesting = false;
+		configure(builder -> builder.restoreDefaults());
 	}
-	
-	
-	
+
+	/**
+	 * Cache the normals in memory. <br>
+	 * <br>
+	 * Once enabled, the getNormals, getMonthlyNormals, getAnnualNormals and getNormalsAsync
+	 * methods look up the cache first and send a single request for the locations that 
+	 * are not in it. The entries are keyed by plot, that is by coordinates and elevation, 
+	 * and by the period, the RCP, the climate model and the months. The least recently 
+	 * used entries are evicted when one of the limits is reached. The cache is disabled 
+	 * by default.
+	 * @param maximumNbEntries the maximum number of plots in the cache (must be greater than 0)
+	 * @param maximumNbBytes the maximum estimated size of the cache in bytes (must be greater than 0)
+	 */
+	public static void enableNormalsCache(int maximumNbEntries, long maximumNbBytes) {
+		configure(builder -> builder.enableNormalsCache(maximumNbEntries, maximumNbBytes));
+	}
+
+	/**
+	 * Disable the normals cache and release its entries.
+	 */
+	public static void disableNormalsCache() {
+		configure(builder -> builder.disableNormalsCache());
+	}
+
+	/**
+	 * Provide the counters of the normals cache.
+	 * @return a BioSimCacheStatistics instance or null if the cache is disabled
+	 */
+	public static BioSimCacheStatistics getNormalsCacheStatistics() {
+		return DefaultInstance.getNormalsCacheStatistics();
+	}
+
+	/**
+	 * Keep the replies that never change on disk so that other JVMs can reuse them. <br>
+	 * <br>
+	 * Once enabled, the normals and the observed weather are looked up in the directory 
+	 * after the in-memory caches and before sending a request to the server. The observed 
+	 * weather is stored only if its cache is enabled. The directory also holds a snapshot
+	 * of the server status and the model list. Several processes can share the same 
+	 * directory. The entries are stored in a subdirectory that depends on the format version 
+	 * of the cache. The least recently used entries are deleted once the size of the cache 
+	 * exceeds the maximum. The persistent cache is disabled by default.
+	 * @param directory the directory of the cache, which is created if needs be
+	 * @param maximumNbBytes the maximum size of the cache in bytes (must be greater than 0)
+	 * @throws BioSimClientException if the directory cannot be created
+	 */
+	public static void enablePersistentCache(File directory, long maximumNbBytes) throws BioSimClientException {
+		synchronized(BioSimClient.class) {
+			DefaultInstance = DefaultInstance.toBuilder().enablePersistentCache(directory, maximumNbBytes).build();
+		}
+	}
+
+	/**
+	 * Stop using the persistent cache. The files are left in the directory.
+	 */
+	public static void disablePersistentCache() {
+		configure(builder -> builder.disablePersistentCache());
+	}
+
+	/**
+	 * Provide the counters of the persistent cache. The number of entries and the size
+	 * are estimates since other processes may share the directory.
+	 * @return a BioSimCacheStatistics instance or null if the cache is disabled
+	 */
+	public static BioSimCacheStatistics getPersistentCacheStatistics() {
+		return DefaultInstance.getPersistentCacheStatistics();
+	}
+
+	/**
+	 * Keep the outputs of some models for the years compiled from observations. <br>
+	 * <br>
+	 * The years prior to the last daily date of the server do not change from a call to the
+	 * generateWeather method to another. Once the cache is enabled, these years are stored
+	 * for each location and model and only the years that are missing are requested, 
+	 * typically the last ones. The year of the last daily date is only partly observed and 
+	 * it is always requested. The cache only applies if the climate generation is not 
+	 * forced, if there is a single replicate in the climate generation and in the models, 
+	 * if all the fields and all the rows are retrieved and if all the models of the request 
+	 * are in the modelNames argument. The outputs of a model are cached only if they have a 
+	 * Year field. <br>
+	 * <br>
+	 * The outputs of a year must not depend on the former years. The models that carry over 
+	 * some state from a year to the next must then be left out of the modelNames argument. 
+	 * The cache is disabled by default.
+	 * @param maximumNbEntries the maximum number of years in the cache, considering each location 
+	 * and each model (must be greater than 0)
+	 * @param maximumNbBytes the maximum estimated size of the cache in bytes (must be greater than 0)
+	 * @param modelNames the names of the models whose outputs can be cached
+	 * @see BioSimClient#enablePersistentCache(File, long)
+	 */
+	public static void enableObservedWeatherCache(int maximumNbEntries, long maximumNbBytes, List<String> modelNames) {
+		configure(builder -> builder.enableObservedWeatherCache(maximumNbEntries, maximumNbBytes, modelNames));
+	}
+
+	/**
+	 * Disable the cache of the observed weather and release its entries.
+	 */
+	public static void disableObservedWeatherCache() {
+		configure(builder -> builder.disableObservedWeatherCache());
+	}
+
+	/**
+	 * Provide the counters of the in-memory cache of the observed weather.
+	 * @return a BioSimCacheStatistics instance or null if the cache is disabled
+	 */
+	public static BioSimCacheStatistics getObservedWeatherCacheStatistics() {
+		return DefaultInstance.getObservedWeatherCacheStatistics();
+	}
+
+	/**
+	 * Send a duplicate of the weather requests that are slower than most of the recent ones. <br>
+	 * <br>
+	 * The latencies of the last weather requests are recorded, from the time they are sent 
+	 * to the time the server replies. Once there are enough of them, a batch that has been 
+	 * sent and has not been completed within the given percentile of these latencies is sent 
+	 * a second time, to another replica of the server if any. The first reply is kept and the 
+	 * other request is aborted. A duplicate is sent only if a connection permit is available 
+	 * right away and at most a tenth of the requests are duplicated. The requests whose data 
+	 * sets are passed to a consumer are never duplicated. The hedging is disabled by default.
+	 * @param percentile the percentile of the recent latencies beyond which a duplicate request 
+	 * is sent (must be greater than 0 and smaller than 100), typically 95
+	 * @see BioSimClient#getHedgingStatistics()
+	 */
+	public static void enableRequestHedging(double percentile) {
+		configure(builder -> builder.enableRequestHedging(percentile));
+	}
+
+	/**
+	 * Stop sending duplicate requests.
+	 */
+	public static void disableRequestHedging() {
+		configure(builder -> builder.disableRequestHedging());
+	}
+
+	/**
+	 * Provide the counters of the request hedging, that is how many duplicate requests 
+	 * were sent and how many of them replied first.
+	 * @return a BioSimHedgingStatistics instance or null if the hedging is disabled
+	 */
+	public static BioSimHedgingStatistics getHedgingStatistics() {
+		return DefaultInstance.getHedgingStatistics();
+	}
+
+	/**
+	 * Set the transport that sends the requests to the server.
+	 * <br>
+	 * <br>
+	 * By default, the requests are sent through HttpURLConnection instances and the 
+	 * connections are kept alive between the requests.
+	 * 
+	 * @param transport A BioSimTransport instance (null to restore the default transport)
+	 */
+	public static void setTransport(BioSimTransport transport) {
+		configure(builder -> builder.setTransport(transport));
+	}
+
+	/**
+	 * Set the timeouts of the connections.
+	 * @param connectTimeoutMs The timeout (ms) for establishing a connection. The default is 30 s.
+	 * @param readTimeoutMs The timeout (ms) for reading the server reply. By default, there is no timeout.
+	 * A value of 0 means no timeout.
+	 */
+	public static void setTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+		configure(builder -> builder.setTimeouts(connectTimeoutMs, readTimeoutMs));
+	}
+
+	/**
+	 * Set the maximum number of requests that can be sent concurrently to the server.
+	 * <br>
+	 * <br>
+	 * Requests issued by different threads are sent in parallel up to this limit. Beyond
+	 * this limit, the calling threads wait until a pending request is completed. This limit
+	 * also sets the number of threads that send the batches of a large request. It should not 
+	 * exceed the number of idle connections that the JVM keeps per server, which is set by the 
+	 * http.maxConnections system property.
+	 * 
+	 * @param maximumNbConcurrentRequests An integer equal to or greater than 1. The default is the 
+	 * value of the http.maxConnections system property, i.e. 5 if it is not set.
+	 * @see BioSimClientInstance.Builder#setMaximumNbConcurrentRequests(int)
+	 */
+	public static void setMaximumNbConcurrentRequests(int maximumNbConcurrentRequests) {
+		configure(builder -> builder.setMaximumNbConcurrentRequests(maximumNbConcurrentRequests));
+	}
+
+	/**
+	 * Return the maximum number of requests that can be sent concurrently to the server.
+	 * @return An integer
+	 */
+	public static int getMaximumNbConcurrentRequests() {
+		return DefaultInstance.getMaximumNbConcurrentRequests();
+	}
+
+	/**
+	 * Set the maximum number of batches that a single call to the getNormals or generateWeather 
+	 * methods can send in parallel.
+	 * <br>
+	 * <br>
+	 * This limit makes it possible to leave some room for other threads when a large request
+	 * is being processed. In any case, the number of batches sent in parallel cannot exceed 
+	 * the maximum number of concurrent requests.
+	 * 
+	 * @param maximumNbParallelBatches An integer equal to or greater than 1. By default, there is no 
+	 * limit other than the maximum number of concurrent requests.
+	 */
+	public static void setMaximumNbParallelBatches(int maximumNbParallelBatches) {
+		configure(builder -> builder.setMaximumNbParallelBatches(maximumNbParallelBatches));
+	}
+
+	/**
+	 * Return the maximum number of batches that a single call can send in parallel.
+	 * @return An integer
+	 */
+	public static int getMaximumNbParallelBatches() {
+		return DefaultInstance.getMaximumNbParallelBatches();
+	}
+
 	/**
 	 * Force the climate generation through the disaggregation of 30-year normals 
 	 * for past date. 
@@ -760,7 +808,7 @@ public final class BioSimClient {
 	 * @param bool A boolean true to enable or false to disable
 	 */
 	public static void setForceClimateGenerationEnabled(boolean bool) {
-		ForceClimateGenerationEnabled = bool;
+		configure(builder -> builder.setForceClimateGenerationEnabled(bool));
 	}
 
 	/**
@@ -768,7 +816,7 @@ public final class BioSimClient {
 	 * @return a boolean 
 	 */
 	public static boolean isForceClimateGenerationEnabled() {
-		return BioSimClient.ForceClimateGenerationEnabled;
+		return DefaultInstance.isForceClimateGenerationEnabled();
 	}
 
 	/**
@@ -776,10 +824,7 @@ public final class BioSimClient {
 	 * @param nbNearestNeighbours An integer between 1 and 35. The default is 4 stations.
 	 */
 	public static void setNbNearestNeighbours(int nbNearestNeighbours) {
-		if (nbNearestNeighbours < 1 || nbNearestNeighbours > 35) {
-			throw new InvalidParameterException("The number of nearest neighbours must be an integer between 1 and 35!");
-		}
-		NbNearestNeighbours = nbNearestNeighbours;
+		configure(builder -> builder.setNbNearestNeighbours(nbNearestNeighbours));
 	}
 
 	/**
@@ -787,13 +832,9 @@ public final class BioSimClient {
 	 * @return An integer
 	 */
 	public static int getNbNearestNeighbours() {
-		if (NbNearestNeighbours == null) {
-			return 4; // default value
-		} else {
-			return NbNearestNeighbours;
-		}
+		return DefaultInstance.getNbNearestNeighbours();
 	}
-	
+
 //	/**
 //	 * For test purpose only.
 //	 * @return a boolean
@@ -805,28 +846,77 @@ public final class BioSimClient {
 //	 * @param b a boolean
 //	 */
 //	public static void setLocalConnectionEnabled(boolean b) {IsLocal = b;}
-	
+
 	/**
 	 * For test purpose only.
 	 * @return a boolean
 	 */
-	public static boolean isTestModeEnabled() {return IsTesting;}
+	public static boolean isTestModeEnabled() {return DefaultInstance.isTestModeEnabled();}
 
 	/**
 	 * For test purpose only.
 	 * @param b a boolean
 	 */
-	public static void setTestModeEnabled(boolean b) {IsTesting = b;}
+	public static void setTestModeEnabled(boolean b) {configure(builder -> builder.setTestModeEnabled(b));}
+
+	/**
+	 * For test purpose only. <br>
+	 * <br>
+	 * Redirect the requests to another server. The server status and the model list
+	 * are retrieved anew on the next request.
+	 * @param address an InetSocketAddress instance (null to restore the default server)
+	 * @param routingString the routing string of the API (e.g. "/BioSIM/")
+	 */
+	static void setServerAddress(InetSocketAddress address, String routingString) {
+		configure(builder -> builder.setServerAddress(address, routingString));
+	}
 
+	/**
+	 * Spread the requests over several replicas of the server. <br>
+	 * <br>
+	 * The replicas are expected to provide the same data. The server status and the model 
+	 * list are retrieved anew on the next request. The entries of the caches are keyed by 
+	 * server so that those of the former server are no longer used.
+	 * @param addresses the addresses of the replicas, whose host names include the protocol
+	 * (e.g. new InetSocketAddress("http://myserver", 80))
+	 * @param routingString the routing string of the API (e.g. "/BioSIM/")
+	 * @see BioSimClient#setLoadBalancingPolicy(LoadBalancingPolicy)
+	 */
+	public static void setServerAddresses(List<InetSocketAddress> addresses, String routingString) {
+		configure(builder -> builder.setServerAddresses(addresses, routingString));
+	}
+
+	/**
+	 * Set the way the requests are spread over the replicas of the server. 
+	 * <br>
+	 * <br>
+	 * By default, a request is sent to the replica with the fewest requests in progress. 
+	 * The replicas that fail several times in a row are ejected for some time. 
+	 * 
+	 * @param policy a LoadBalancingPolicy enum
+	 * @see BioSimClient#setServerAddresses(List, String)
+	 */
+	public static void setLoadBalancingPolicy(LoadBalancingPolicy policy) {
+		configure(builder -> builder.setLoadBalancingPolicy(policy));
+	}
+
+	/**
+	 * Set the time during which a replica does not receive any request after failing 
+	 * several times in a row.
+	 * @param ejectionTimeMs the time (ms), which must be greater than 0. The default is 30 s.
+	 */
+	public static void setEndpointEjectionTime(long ejectionTimeMs) {
+		configure(builder -> builder.setEndpointEjectionTime(ejectionTimeMs));
+	}
 
 	/**
 	 * For test purpose only.
 	 * @return a double
 	 */
 	public static double getLastServerRequestDuration() {
-		return totalServerRequestDuration;
+		return DefaultInstance.getLastServerRequestDuration();
 	}
-	
+
 	/**
 	 * Provide the latest year date of the daily.
 	 * @return an integer
@@ -834,7 +924,6 @@ public final class BioSimClient {
 	 * @throws BioSimServerException
 	 */
 	public static int getLastDailyDateYr() throws BioSimClientException, BioSimServerException {
-		isClientSupported();
-		return LAST_DAILY_DATE;
+		return DefaultInstance.getLastDailyDateYr();
 	}
 }
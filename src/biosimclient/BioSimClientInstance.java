@@ -0,0 +1,2231 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import javax.net.ssl.SSLHandshakeException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import biosimclient.BioSimBatchDispatcher.BioSimSupplier;
+import biosimclient.BioSimEnums.ClimateModel;
+import biosimclient.BioSimEnums.LoadBalancingPolicy;
+import biosimclient.BioSimEnums.Month;
+import biosimclient.BioSimEnums.Period;
+import biosimclient.BioSimEnums.RCP;
+import biosimclient.BioSimEnums.Variable;
+import biosimclient.BioSimLineClassifier.LineType;
+import repicea.util.JarUtility;
+
+/**
+ * A client for the BioSIM Web API whose configuration cannot change. <br>
+ * <br>
+ * An instance is configured through a Builder instance. It has its own transport, its 
+ * own caches and its own limit on the number of concurrent requests. Several instances
+ * with different settings can then send requests at the same time without any lock. An 
+ * instance that is derived from another one through the toBuilder method shares the 
+ * caches and the server metadata of the former, unless they are changed in the builder. 
+ * The static methods of the BioSimClient class rely on a default instance.
+ * 
+ * @author agent - October 2026
+ * @see BioSimClient#getDefaultInstance()
+ */
+public final class BioSimClientInstance {
+
+	/**
+	 * The metadata of a server, which are shared by the instances that send their
+	 * requests to this server.
+	 */
+	private static final class ServerState {
+		private volatile BioSimServerSettings settings;	// null means that the status has not been retrieved yet
+		private final Object settingsLock = new Object();
+		private volatile BioSimModelCatalog modelCatalog;	// lazily instantiated
+		private final Object modelCatalogLock = new Object();
+		private final BioSimSchemaCache schemaCache = new BioSimSchemaCache();
+		
+		private ServerState(BioSimServerSettings settings) {
+			this.settings = settings;
+		}
+	}
+	
+	/**
+	 * Set the configuration of a BioSimClientInstance instance. <br>
+	 * <br>
+	 * The builder is not thread safe. The instances it builds are. 
+	 */
+	public static final class Builder {
+		
+		private final BioSimClientInstance source;
+		private List<InetSocketAddress> serverAddresses;
+		private String routingString;
+		private LoadBalancingPolicy loadBalancingPolicy;
+		private long endpointEjectionTimeMs;
+		private BioSimTransport transport;
+		private int connectTimeoutMs;
+		private int readTimeoutMs;
+		private int maximumNbConcurrentRequests;
+		private int maximumNbParallelBatches;
+		private boolean forceClimateGenerationEnabled;
+		private Integer nbNearestNeighbours;
+		private boolean testModeEnabled;
+		private long modelCatalogTimeToLiveMs;
+		private long metadataSnapshotTimeToLiveMs;
+		private BioSimLRUCache<String, BioSimDataSet> normalsMemoryCache;
+		private BioSimDiskCache persistentCache;
+		private BioSimLRUCache<String, BioSimWeatherCache.Entry> observedWeatherMemoryCache;
+		private Set<String> observedWeatherModelNames;
+		private double requestHedgingPercentile;
+		private BioSimRequestHedger requestHedger;	// null means that a new one is created if the hedging is enabled
+		private boolean isServerStateDropped;
+		private boolean isEndpointSelectorDropped;
+		private boolean isModelCatalogDropped;
+		
+		/**
+		 * Constructor for a client with the default configuration.
+		 */
+		public Builder() {
+			source = null;
+			serverAddresses = Collections.singletonList(REpiceaAddress);
+			routingString = RoutingString;
+			restoreDefaults();
+		}
+
+		private Builder(BioSimClientInstance source) {
+			this.source = source;
+			serverAddresses = source.serverAddresses;
+			routingString = source.routingString;
+			loadBalancingPolicy = source.loadBalancingPolicy;
+			endpointEjectionTimeMs = source.endpointEjectionTimeMs;
+			transport = source.transport;
+			connectTimeoutMs = source.connectTimeoutMs;
+			readTimeoutMs = source.readTimeoutMs;
+			maximumNbConcurrentRequests = source.maximumNbConcurrentRequests;
+			maximumNbParallelBatches = source.maximumNbParallelBatches;
+			forceClimateGenerationEnabled = source.forceClimateGenerationEnabled;
+			nbNearestNeighbours = source.nbNearestNeighbours;
+			testModeEnabled = source.testModeEnabled;
+			modelCatalogTimeToLiveMs = source.modelCatalogTimeToLiveMs;
+			metadataSnapshotTimeToLiveMs = source.metadataSnapshotTimeToLiveMs;
+			normalsMemoryCache = source.normalsMemoryCache;
+			persistentCache = source.persistentCache;
+			observedWeatherMemoryCache = source.observedWeatherMemoryCache;
+			observedWeatherModelNames = source.observedWeatherModelNames;
+			requestHedger = source.requestHedger;
+			requestHedgingPercentile = requestHedger == null ? Double.NaN : requestHedger.getPercentile();
+		}
+		
+		/**
+		 * Restore the default configuration except for the server addresses. The caches are 
+		 * disabled.
+		 * @return this builder
+		 */
+		Builder restoreDefaults() {
+			transport = DefaultTransport;
+			connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+			readTimeoutMs = 0;	// no timeout by default since some requests take several minutes
+			maximumNbConcurrentRequests = DEFAULT_MAXIMUM_NB_CONCURRENT_REQUESTS;
+			maximumNbParallelBatches = -1;	// -1 means that it is bounded by the maximum number of concurrent requests
+			forceClimateGenerationEnabled = false;
+			nbNearestNeighbours = null;
+			testModeEnabled = false;
+			modelCatalogTimeToLiveMs = DEFAULT_MODEL_CATALOG_TIME_TO_LIVE_MS;
+			metadataSnapshotTimeToLiveMs = DEFAULT_METADATA_SNAPSHOT_TIME_TO_LIVE_MS;
+			normalsMemoryCache = null;
+			persistentCache = null;
+			observedWeatherMemoryCache = null;
+			observedWeatherModelNames = null;
+			requestHedgingPercentile = Double.NaN;
+			requestHedger = null;
+			loadBalancingPolicy = LoadBalancingPolicy.LeastOutstandingRequests;
+			endpointEjectionTimeMs = DEFAULT_ENDPOINT_EJECTION_TIME_MS;
+			isModelCatalogDropped = true;
+			isEndpointSelectorDropped = true;
+			return this;
+		}
+
+		/**
+		 * For test purpose only. <br>
+		 * <br>
+		 * Redirect the requests to another server. The server status and the model list
+		 * are retrieved anew by the instance, even if the server is the same.
+		 * @param address an InetSocketAddress instance (null to restore the default server)
+		 * @param routingString the routing string of the API (e.g. "/BioSIM/")
+		 * @return this builder
+		 */
+		Builder setServerAddress(InetSocketAddress address, String routingString) {
+			return address == null ? 
+					setServerAddresses(Collections.singletonList(REpiceaAddress), RoutingString) :
+						setServerAddresses(Collections.singletonList(address), routingString);
+		}
+
+		/**
+		 * Spread the requests over several replicas of the server. <br>
+		 * <br>
+		 * The replicas are expected to provide the same data. The first one identifies the 
+		 * server in the keys of the caches. The server status and the model list are retrieved 
+		 * anew by the instance. 
+		 * @param addresses the addresses of the replicas, whose host names include the protocol
+		 * (e.g. new InetSocketAddress("http://myserver", 80))
+		 * @param routingString the routing string of the API (e.g. "/BioSIM/")
+		 * @return this builder
+		 * @see Builder#setLoadBalancingPolicy(LoadBalancingPolicy)
+		 */
+		public Builder setServerAddresses(List<InetSocketAddress> addresses, String routingString) {
+			if (addresses == null || addresses.isEmpty() || addresses.contains(null)) {
+				throw new InvalidParameterException("The addresses argument must contain at least one non null address!");
+			}
+			if (routingString == null) {
+				throw new InvalidParameterException("The routingString argument cannot be null!");
+			}
+			serverAddresses = Collections.unmodifiableList(new ArrayList<InetSocketAddress>(addresses));
+			this.routingString = routingString;
+			isServerStateDropped = true;
+			isEndpointSelectorDropped = true;
+			return this;
+		}
+
+		/**
+		 * Set the way the requests are spread over the replicas of the server. By default, 
+		 * a request is sent to the replica with the fewest requests in progress.
+		 * @param policy a LoadBalancingPolicy enum
+		 * @return this builder
+		 */
+		public Builder setLoadBalancingPolicy(LoadBalancingPolicy policy) {
+			if (policy == null) {
+				throw new InvalidParameterException("The policy argument cannot be null!");
+			}
+			loadBalancingPolicy = policy;
+			isEndpointSelectorDropped = true;
+			return this;
+		}
+
+		/**
+		 * Set the time during which a replica does not receive any request after failing 
+		 * several times in a row. The replica is then given another chance. A failure is a
+		 * connection that cannot be established or read, or a server error. The default 
+		 * is 30 s. 
+		 * @param ejectionTimeMs the time (ms), which must be greater than 0
+		 * @return this builder
+		 */
+		public Builder setEndpointEjectionTime(long ejectionTimeMs) {
+			if (ejectionTimeMs < 1) {
+				throw new InvalidParameterException("The ejection time must be greater than 0!");
+			}
+			endpointEjectionTimeMs = ejectionTimeMs;
+			isEndpointSelectorDropped = true;
+			return this;
+		}
+		
+		/**
+		 * Set the transport that sends the requests to the server. By default, the requests 
+		 * are sent through HttpURLConnection instances and the connections are kept alive 
+		 * between the requests.
+		 * @param transport A BioSimTransport instance (null to restore the default transport)
+		 * @return this builder
+		 */
+		public Builder setTransport(BioSimTransport transport) {
+			this.transport = transport == null ? DefaultTransport : transport;
+			return this;
+		}
+
+		/**
+		 * Set the timeouts of the connections.
+		 * @param connectTimeoutMs The timeout (ms) for establishing a connection. The default is 30 s.
+		 * @param readTimeoutMs The timeout (ms) for reading the server reply. By default, there is no timeout.
+		 * A value of 0 means no timeout.
+		 * @return this builder
+		 */
+		public Builder setTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+			if (connectTimeoutMs < 0 || readTimeoutMs < 0) {
+				throw new InvalidParameterException("The timeouts must be equal to or greater than 0!");
+			}
+			this.connectTimeoutMs = connectTimeoutMs;
+			this.readTimeoutMs = readTimeoutMs;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of requests that the instance can send concurrently to the server.
+		 * This limit also sets the number of threads that send the batches of a large request. <br>
+		 * <br>
+		 * The JVM keeps at most http.maxConnections idle connections per server (5 unless the 
+		 * system property is set on the command line). With a greater limit, the connections in 
+		 * excess are closed after each burst of requests and opened anew on the next one. A 
+		 * warning is then printed.
+		 * @param maximumNbConcurrentRequests An integer equal to or greater than 1. The default is the 
+		 * value of the http.maxConnections system property, i.e. 5 if it is not set.
+		 * @return this builder
+		 */
+		public Builder setMaximumNbConcurrentRequests(int maximumNbConcurrentRequests) {
+			if (maximumNbConcurrentRequests < 1) {
+				throw new InvalidParameterException("The maximum number of concurrent requests must be equal to or greater than 1!");
+			}
+			this.maximumNbConcurrentRequests = maximumNbConcurrentRequests;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of batches that a single call to the getNormals or generateWeather 
+		 * methods can send in parallel. In any case, the number of batches sent in parallel cannot 
+		 * exceed the maximum number of concurrent requests.
+		 * @param maximumNbParallelBatches An integer equal to or greater than 1. By default, there is no 
+		 * limit other than the maximum number of concurrent requests.
+		 * @return this builder
+		 */
+		public Builder setMaximumNbParallelBatches(int maximumNbParallelBatches) {
+			if (maximumNbParallelBatches < 1) {
+				throw new InvalidParameterException("The maximum number of parallel batches must be equal to or greater than 1!");
+			}
+			this.maximumNbParallelBatches = maximumNbParallelBatches;
+			return this;
+		}
+
+		/**
+		 * Force the climate generation through the disaggregation of 30-year normals 
+		 * for past date. By default, the climate generation retrieves the observations 
+		 * for the dates prior to the current date. 
+		 * @param bool A boolean true to enable or false to disable
+		 * @return this builder
+		 */
+		public Builder setForceClimateGenerationEnabled(boolean bool) {
+			forceClimateGenerationEnabled = bool;
+			return this;
+		}
+
+		/**
+		 * Set the number of stations in the imputation of the climate variables
+		 * @param nbNearestNeighbours An integer between 1 and 35. The default is 4 stations.
+		 * @return this builder
+		 */
+		public Builder setNbNearestNeighbours(int nbNearestNeighbours) {
+			if (nbNearestNeighbours < 1 || nbNearestNeighbours > 35) {
+				throw new InvalidParameterException("The number of nearest neighbours must be an integer between 1 and 35!");
+			}
+			this.nbNearestNeighbours = nbNearestNeighbours;
+			return this;
+		}
+
+		/**
+		 * For test purpose only.
+		 * @param b a boolean
+		 * @return this builder
+		 */
+		public Builder setTestModeEnabled(boolean b) {
+			testModeEnabled = b;
+			return this;
+		}
+
+		/**
+		 * Set the time to live of the model catalog. The catalog of the instance is 
+		 * retrieved anew on the next request. The time to live runs from the retrieval of 
+		 * the model list, which may have been read from the snapshot in the persistent cache. 
+		 * By default, the time to live is 24 hours.
+		 * @param timeToLiveMs the time to live (ms), which must be greater than 0
+		 * @return this builder
+		 */
+		public Builder setModelCatalogTimeToLive(long timeToLiveMs) {
+			if (timeToLiveMs < 1) {
+				throw new InvalidParameterException("The time to live must be greater than 0!");
+			}
+			modelCatalogTimeToLiveMs = timeToLiveMs;
+			isModelCatalogDropped = true;
+			return this;
+		}
+
+		/**
+		 * Set the time to live of the snapshot of the server status and the model list in the 
+		 * persistent cache. By default, the time to live is one hour. 
+		 * @param timeToLiveMs the time to live (ms), which must be greater than 0
+		 * @return this builder
+		 */
+		public Builder setMetadataSnapshotTimeToLive(long timeToLiveMs) {
+			if (timeToLiveMs < 1) {
+				throw new InvalidParameterException("The time to live must be greater than 0!");
+			}
+			metadataSnapshotTimeToLiveMs = timeToLiveMs;
+			return this;
+		}
+
+		/**
+		 * Cache the normals in memory. The instance gets a new cache that is shared with 
+		 * the instances derived from it.
+		 * @param maximumNbEntries the maximum number of plots in the cache (must be greater than 0)
+		 * @param maximumNbBytes the maximum estimated size of the cache in bytes (must be greater than 0)
+		 * @return this builder
+		 * @see BioSimClient#enableNormalsCache(int, long)
+		 */
+		public Builder enableNormalsCache(int maximumNbEntries, long maximumNbBytes) {
+			normalsMemoryCache = BioSimNormalsCache.createMemoryCache(maximumNbEntries, maximumNbBytes);
+			return this;
+		}
+
+		/**
+		 * Disable the normals cache.
+		 * @return this builder
+		 */
+		public Builder disableNormalsCache() {
+			normalsMemoryCache = null;
+			return this;
+		}
+
+		/**
+		 * Keep the replies that never change on disk so that other JVMs can reuse them. 
+		 * @param directory the directory of the cache, which is created if needs be
+		 * @param maximumNbBytes the maximum size of the cache in bytes (must be greater than 0)
+		 * @return this builder
+		 * @throws BioSimClientException if the directory cannot be created
+		 * @see BioSimClient#enablePersistentCache(File, long)
+		 */
+		public Builder enablePersistentCache(File directory, long maximumNbBytes) throws BioSimClientException {
+			try {
+				persistentCache = new BioSimDiskCache(directory, maximumNbBytes);
+			} catch (IOException e) {
+				throw new BioSimClientException(e.getMessage());
+			}
+			return this;
+		}
+
+		/**
+		 * Stop using the persistent cache. The files are left in the directory.
+		 * @return this builder
+		 */
+		public Builder disablePersistentCache() {
+			persistentCache = null;
+			return this;
+		}
+
+		/**
+		 * Keep the outputs of some models for the years compiled from observations. The
+		 * instance gets a new cache that is shared with the instances derived from it.
+		 * @param maximumNbEntries the maximum number of years in the cache, considering each location 
+		 * and each model (must be greater than 0)
+		 * @param maximumNbBytes the maximum estimated size of the cache in bytes (must be greater than 0)
+		 * @param modelNames the names of the models whose outputs can be cached
+		 * @return this builder
+		 * @see BioSimClient#enableObservedWeatherCache(int, long, List)
+		 */
+		public Builder enableObservedWeatherCache(int maximumNbEntries, long maximumNbBytes, List<String> modelNames) {
+			if (modelNames == null || modelNames.isEmpty()) {
+				throw new InvalidParameterException("The modelNames argument cannot be null or empty!");
+			}
+			observedWeatherMemoryCache = BioSimWeatherCache.createMemoryCache(maximumNbEntries, maximumNbBytes);
+			observedWeatherModelNames = Collections.unmodifiableSet(new HashSet<String>(modelNames));
+			return this;
+		}
+
+		/**
+		 * Disable the cache of the observed weather.
+		 * @return this builder
+		 */
+		public Builder disableObservedWeatherCache() {
+			observedWeatherMemoryCache = null;
+			observedWeatherModelNames = null;
+			return this;
+		}
+		
+		/**
+		 * Send a duplicate of the weather requests that are slower than most of the recent ones. 
+		 * The instance gets new counters that are shared with the instances derived from it.
+		 * @param percentile the percentile of the recent latencies beyond which a duplicate request 
+		 * is sent (must be greater than 0 and smaller than 100)
+		 * @return this builder
+		 * @see BioSimClient#enableRequestHedging(double)
+		 */
+		public Builder enableRequestHedging(double percentile) {
+			if (percentile <= 0 || percentile >= 100) {
+				throw new InvalidParameterException("The percentile must be greater than 0 and smaller than 100!");
+			}
+			requestHedgingPercentile = percentile;
+			requestHedger = null;
+			return this;
+		}
+
+		/**
+		 * Disable the request hedging.
+		 * @return this builder
+		 */
+		public Builder disableRequestHedging() {
+			requestHedgingPercentile = Double.NaN;
+			requestHedger = null;
+			return this;
+		}
+		
+		/**
+		 * Create the client instance.
+		 * @return a BioSimClientInstance instance
+		 */
+		public BioSimClientInstance build() {
+			return new BioSimClientInstance(this);
+		}
+	}
+	
+	private static final InetSocketAddress REpiceaAddress = new InetSocketAddress("http://repicea.dynu.net", 80);
+	private static final String RoutingString = "/BioSIM/";
+	
+	private static final String SPACE_IN_REQUEST = "%20";
+
+	private static final String NORMAL_API = "BioSimNormals";
+	private static final String MODEL_LIST_API = "BioSimModelList";
+	private static final String BIOSIMSTATUS = "BioSimStatus";
+	private static final String BIOSIMMODELHELP = "BioSimModelHelp";
+	private static final String BIOSIMMODELDEFAULTPARAMETERS = "BioSimModelDefaultParameters";
+	private static final String BIOSIMWEATHER = "BioSimWeather";
+	
+	private static final long DEFAULT_MODEL_CATALOG_TIME_TO_LIVE_MS = 24 * 3600 * 1000L;
+	private static final long DEFAULT_METADATA_SNAPSHOT_TIME_TO_LIVE_MS = 3600 * 1000L;
+	private static final int DEFAULT_CONNECT_TIMEOUT_MS = 30000;
+	private static final int DEFAULT_MAXIMUM_NB_CONCURRENT_REQUESTS = BioSimHttpTransport.getMaximumNbIdleConnections();	// so that the connections are all kept alive
+	private static final long DEFAULT_ENDPOINT_EJECTION_TIME_MS = 30000;
+	private static final BioSimTransport DefaultTransport = new BioSimHttpTransport(true);
+	private static volatile String Revision;	// lazily instantiated
+	private static final ObjectMapper JsonMapper = new ObjectMapper();	// thread safe once configured
+
+	private final List<InetSocketAddress> serverAddresses;
+	private final String routingString;
+	private final LoadBalancingPolicy loadBalancingPolicy;
+	private final long endpointEjectionTimeMs;
+	private final BioSimTransport transport;
+	private final int connectTimeoutMs;
+	private final int readTimeoutMs;
+	private final int maximumNbConcurrentRequests;
+	private final int maximumNbParallelBatches;
+	private final boolean forceClimateGenerationEnabled;
+	private final Integer nbNearestNeighbours;
+	private final boolean testModeEnabled;
+	private final long modelCatalogTimeToLiveMs;
+	private final long metadataSnapshotTimeToLiveMs;
+	private final BioSimLRUCache<String, BioSimDataSet> normalsMemoryCache;	// null means that the normals are not cached in memory
+	private final BioSimDiskCache persistentCache;	// null means that there is no persistent cache
+	private final BioSimLRUCache<String, BioSimWeatherCache.Entry> observedWeatherMemoryCache;	// null means that the observed weather is not cached
+	private final Set<String> observedWeatherModelNames;	// the models whose outputs do not depend on the former years
+	private final BioSimRequestHedger requestHedger;	// null means that the requests are not hedged
+
+	private final ServerState serverState;
+	private final BioSimEndpointSelector endpointSelector;
+	private final BioSimRequestPermits requestPermits;
+	private final BioSimBatchDispatcher dispatcher;
+	private final DoubleAdder totalServerRequestDuration;
+	
+	private BioSimClientInstance(Builder builder) {
+		serverAddresses = builder.serverAddresses;
+		routingString = builder.routingString;
+		loadBalancingPolicy = builder.loadBalancingPolicy;
+		endpointEjectionTimeMs = builder.endpointEjectionTimeMs;
+		transport = builder.transport;
+		connectTimeoutMs = builder.connectTimeoutMs;
+		readTimeoutMs = builder.readTimeoutMs;
+		maximumNbConcurrentRequests = builder.maximumNbConcurrentRequests;
+		maximumNbParallelBatches = builder.maximumNbParallelBatches;
+		forceClimateGenerationEnabled = builder.forceClimateGenerationEnabled;
+		nbNearestNeighbours = builder.nbNearestNeighbours;
+		testModeEnabled = builder.testModeEnabled;
+		modelCatalogTimeToLiveMs = builder.modelCatalogTimeToLiveMs;
+		metadataSnapshotTimeToLiveMs = builder.metadataSnapshotTimeToLiveMs;
+		normalsMemoryCache = builder.normalsMemoryCache;
+		persistentCache = builder.persistentCache;
+		observedWeatherMemoryCache = builder.observedWeatherMemoryCache;
+		observedWeatherModelNames = builder.observedWeatherModelNames;
+		if (builder.requestHedger != null) {
+			requestHedger = builder.requestHedger;
+		} else if (Double.isNaN(builder.requestHedgingPercentile)) {
+			requestHedger = null;
+		} else {
+			requestHedger = new BioSimRequestHedger(builder.requestHedgingPercentile, 2 * maximumNbConcurrentRequests);	// the requests and their duplicates
+		}
+		
+		BioSimClientInstance source = builder.source;
+		if (source == null || source.maximumNbConcurrentRequests != maximumNbConcurrentRequests || source.transport != transport) {
+			checkMaximumNbIdleConnections();
+		}
+		if (source == null || builder.isServerStateDropped) {
+			serverState = new ServerState(null);
+		} else if (builder.isModelCatalogDropped) {
+			serverState = new ServerState(source.serverState.settings);
+		} else {
+			serverState = source.serverState;
+		}
+		if (source == null || builder.isEndpointSelectorDropped) {
+			List<String> urls = new ArrayList<String>();
+			for (InetSocketAddress address : serverAddresses) {
+				urls.add(address.getHostName() + ":" + address.getPort() + routingString);
+			}
+			endpointSelector = new BioSimEndpointSelector(urls, loadBalancingPolicy, endpointEjectionTimeMs);
+		} else {
+			endpointSelector = source.endpointSelector;	// the latencies and the failures of the replicas are preserved
+		}
+		if (source != null && source.maximumNbConcurrentRequests == maximumNbConcurrentRequests) {	// the limit applies to the derived instances as well
+			requestPermits = source.requestPermits;
+			dispatcher = source.dispatcher;
+		} else {
+			requestPermits = new BioSimRequestPermits(maximumNbConcurrentRequests);
+			dispatcher = new BioSimBatchDispatcher(maximumNbConcurrentRequests);
+		}
+		totalServerRequestDuration = new DoubleAdder();
+	}
+
+	private void checkMaximumNbIdleConnections() {
+		if (transport instanceof BioSimHttpTransport && ((BioSimHttpTransport) transport).isKeepAliveEnabled()) {
+			int maximumNbIdleConnections = BioSimHttpTransport.getMaximumNbIdleConnections();
+			if (maximumNbConcurrentRequests > maximumNbIdleConnections) {
+				System.err.println("Warning: the maximum number of concurrent requests (" + maximumNbConcurrentRequests 
+						+ ") exceeds the number of idle connections the JVM keeps per server (" + maximumNbIdleConnections 
+						+ "). Some connections will be opened anew after each burst of requests. Consider setting the http.maxConnections system property.");
+			}
+		}
+	}
+	
+	/**
+	 * Provide a builder whose configuration is that of this instance. The instances it 
+	 * builds share the caches, the server metadata and the limit on the number of concurrent
+	 * requests of this instance, unless they are changed in the builder.
+	 * @return a Builder instance
+	 */
+	public Builder toBuilder() {
+		return new Builder(this);
+	}
+
+	private String addQueryIfAny(String urlString, String query) {
+		boolean isThereQuery = false;
+		String finalUrlString;
+		if (query != null && !query.isEmpty()) {
+			isThereQuery = true;
+			finalUrlString = urlString.trim() + "?" + query;
+		} else 
+			finalUrlString = urlString;
+		
+		if (testModeEnabled) 
+			finalUrlString = isThereQuery ? finalUrlString + "&cid=testJava" : finalUrlString + "?cid=testJava";
+
+		return finalUrlString;
+	}
+	
+	
+	/**
+	 * Parse the server reply as it is being received.
+	 */
+	@FunctionalInterface
+	private static interface ReplyParser<T> {
+		T parse(BufferedReader reader) throws IOException, BioSimClientException, BioSimServerException;
+	}
+	
+	private BioSimStringList getStringFromConnection(String api, String query) throws BioSimClientException, BioSimServerException {
+		return sendRequest(api, query, BioSimClientInstance::readAllLines);
+	}
+	
+	private <T> T sendRequest(String api, String query, ReplyParser<T> parser) throws BioSimClientException, BioSimServerException {
+		return sendRequest(api, query, null, parser);
+	}
+
+	/**
+	 * Send a request to one of the replicas of the server.
+	 * @param api the API
+	 * @param query the query (can be null)
+	 * @param attempt the attempt of a hedged request (null if the request is not hedged)
+	 * @param parser the parser of the reply
+	 * @return the parsed reply or null if the attempt is a duplicate that has been skipped
+	 */
+	private <T> T sendRequest(String api, 
+			String query, 
+			BioSimRequestHedger.Attempt attempt, 
+			ReplyParser<T> parser) throws BioSimClientException, BioSimServerException {
+		if (attempt != null && attempt.isHedge()) {
+			if (!requestPermits.tryAcquire()) {	// otherwise the duplicate would be sent after the request it should beat
+				attempt.skip();
+				return null;
+			}
+			if (attempt.isOriginalReplied()) {	// the permit may have been released by the original request itself
+				requestPermits.release();
+				attempt.skip();
+				return null;
+			}
+		} else {
+			try {
+				requestPermits.acquire();
+			} catch (InterruptedException e) {
+				throw new BioSimClientException("The request has been interrupted while waiting for a connection!");
+			}
+		}
+		try {
+			T parsedReply = sendRequestWithPermit(api, query, attempt, parser);
+			if (attempt != null) {
+				attempt.reportReply();	// before the release so that a pending duplicate does not take the permit
+			}
+			return parsedReply;
+		} finally {
+			requestPermits.release();
+		}
+	}
+	
+	/**
+	 * Send a request without blocking. The request waits for a permit in a queue and it is 
+	 * sent by the executor once the permit has been granted.
+	 * @param api the API
+	 * @param query the query (can be null)
+	 * @param parser the parser of the reply
+	 * @param executor the Executor instance that sends the request and parses the reply
+	 * @return a CompletableFuture instance that provides the parsed reply
+	 */
+	private <T> CompletableFuture<T> sendRequestAsync(String api, String query, ReplyParser<T> parser, Executor executor) {
+		CompletableFuture<T> parsedReply = new CompletableFuture<T>();
+		requestPermits.acquireAsync().thenRun(() -> {
+			try {
+				executor.execute(() -> {
+					try {
+						parsedReply.complete(sendRequestWithPermit(api, query, null, parser));
+					} catch (Throwable e) {
+						parsedReply.completeExceptionally(e);
+					} finally {
+						requestPermits.release();
+					}
+				});
+			} catch (RuntimeException e) {	// typically a RejectedExecutionException
+				requestPermits.release();
+				parsedReply.completeExceptionally(e);
+			}
+		});
+		return parsedReply;
+	}
+
+	private <T> T sendRequestWithPermit(String api, 
+			String query, 
+			BioSimRequestHedger.Attempt attempt, 
+			ReplyParser<T> parser) throws BioSimClientException, BioSimServerException {
+		try {
+			List<BioSimEndpointSelector.Endpoint> failedEndpoints = new ArrayList<BioSimEndpointSelector.Endpoint>();
+			while (true) {
+				BioSimEndpointSelector.Endpoint endpoint = null;
+				if (attempt != null) {
+					List<BioSimEndpointSelector.Endpoint> excludedEndpoints = new ArrayList<BioSimEndpointSelector.Endpoint>(failedEndpoints);
+					excludedEndpoints.addAll(attempt.getEndpointsInUse());
+					endpoint = endpointSelector.acquire(excludedEndpoints);
+				}
+				if (endpoint == null) {		// all the replicas are in use
+					endpoint = endpointSelector.acquire(failedEndpoints);
+				}
+				if (attempt != null) {
+					attempt.start(endpoint);
+				}
+				try {
+					return sendRequest(endpoint, api, query, attempt, parser);
+				} catch (ConnectException | UnknownHostException e) {	// including connect timeouts, the request has not reached the server so that it can be sent to another replica
+					failedEndpoints.add(endpoint);
+					if (failedEndpoints.size() == endpointSelector.getEndpoints().size()) {
+						throw e;
+					}
+				}
+			}
+		} catch (MalformedURLException e) {
+			throw new BioSimClientException("Malformed URL: " + e.getMessage());
+		} catch (UnknownHostException e) {
+			throw new BioSimClientException("Unknown host: " + e.getMessage());
+		} catch (SSLHandshakeException e) {
+			throw new BioSimClientException("Unable to confirm certificate for secure connection!" + System.lineSeparator() + e.getMessage());
+		} catch (SocketTimeoutException e) {
+			throw new BioSimClientException("The server did not reply in time: " + e.getMessage());
+		} catch (IOException e) {
+			throw new BioSimClientException("Unable to connect to the server!");
+		}
+	}
+
+	private <T> T sendRequest(BioSimEndpointSelector.Endpoint endpoint, 
+			String api, 
+			String query, 
+			BioSimRequestHedger.Attempt attempt, 
+			ReplyParser<T> parser) throws IOException, BioSimClientException, BioSimServerException {
+//		long initTime = System.currentTimeMillis();
+		String urlString = addQueryIfAny(endpoint.getURL() + api, query);
+		BioSimTransport.Reply reply = null;
+		long latencyNanos = 0;
+		boolean isEndpointHealthy = false;
+		try {
+			URL bioSimURL = new URL(urlString);
+			long requestInitTime = System.nanoTime();
+			try {
+				reply = transport.send(bioSimURL, connectTimeoutMs, readTimeoutMs);
+			} catch (SocketTimeoutException e) {	// the replica may be down without refusing the connection
+				ConnectException connectException = new ConnectException("Connect timed out: " + bioSimURL.getHost() + ":" + bioSimURL.getPort());
+				connectException.initCause(e);
+				throw connectException;
+			}
+			if (attempt != null) {
+				attempt.setReply(reply);
+			}
+			int code = reply.getResponseCode();
+			latencyNanos = System.nanoTime() - requestInitTime;
+			totalServerRequestDuration.add(latencyNanos * 1E-9);
+			if (attempt != null) {
+				attempt.recordLatency(latencyNanos);
+			}
+			isEndpointHealthy = code < 500;
+			
+			if (code >= 400 && code < 500) { // client error
+				String msg = getCompleteString(reply).toString();
+				throw new BioSimClientException("Code " + code + ": " + msg);
+			}
+			if (code >= 500 && code < 600) { // server error
+				String msg = getCompleteString(reply).toString();
+				throw new BioSimServerException("Code " + code + ": " + msg);
+			}
+			// TODO MF2022-01-18 Handle other codes here
+//			System.out.println("Time for server to process request: " + (System.currentTimeMillis() - initTime) + " ms");
+			return parser.parse(new BufferedReader(new InputStreamReader(reply.getInputStream())));
+		} catch (IOException e) {
+			isEndpointHealthy = false;
+			throw e;
+		} finally {
+			if (reply != null) {
+				reply.close();
+			}
+			if (attempt != null && attempt.isAborted()) {	// the other attempt replied first
+				endpointSelector.cancel(endpoint);
+			} else {
+				endpointSelector.release(endpoint, latencyNanos, isEndpointHealthy);
+			}
+		}
+	}
+
+
+	private static BioSimStringList getCompleteString(BioSimTransport.Reply reply) {
+//		long initTime = System.currentTimeMillis();
+		try {
+			return readAllLines(new BufferedReader(new InputStreamReader(reply.getInputStream())));
+//			System.out.println("Time to make the complete string: " + (System.currentTimeMillis() - initTime) + " ms.");
+		} catch (IOException e) {
+			BioSimStringList stringList = new BioSimStringList();
+			stringList.add(e.getMessage());
+			return stringList;
+		}
+	}
+	
+	private static BioSimStringList readAllLines(BufferedReader br) throws IOException {
+		BioSimStringList stringList = new BioSimStringList();
+		String lineStr;
+		while ((lineStr = br.readLine()) != null) {
+			stringList.add(lineStr);
+		}
+		return stringList;
+	}
+	
+	
+	private LinkedHashMap<BioSimPlot, BioSimDataSet> internalCalculationForNormals(Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<Month> averageOverTheseMonths,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		LinkedHashMap<BioSimPlot, BioSimDataSet> outputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+		BioSimFieldSelection selection = getNormalsFieldSelection(selectedFields);
+		BioSimLineClassifier classifier = new BioSimLineClassifier(getModelIndex(), "month");	// the index must be retrieved before the request since the parser cannot send another request
+		return sendRequest(NORMAL_API, getNormalsQuery(period, locations, rcp, climModel), reader -> {
+			readLines(reader, serverState.schemaCache, NORMAL_API, classifier, selection, null, null, locations, outputMap);
+			return averageNormals(outputMap, averageOverTheseMonths);
+		});
+	}
+
+	private CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>> internalCalculationForNormalsAsync(Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<Month> averageOverTheseMonths,
+			BioSimLineClassifier classifier,
+			Executor executor) {
+		LinkedHashMap<BioSimPlot, BioSimDataSet> outputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+		BioSimFieldSelection selection = getNormalsFieldSelection(null);
+		return sendRequestAsync(NORMAL_API, 
+				getNormalsQuery(period, locations, rcp, climModel), 
+				reader -> {
+					readLines(reader, serverState.schemaCache, NORMAL_API, classifier, selection, null, null, locations, outputMap);
+					return averageNormals(outputMap, averageOverTheseMonths);
+				},
+				executor);
+	}
+
+	/*
+	 * The first field, i.e. the month, is always kept since the monthly normals are averaged 
+	 * from it. The other fields are skipped while parsing.
+	 */
+	private static BioSimFieldSelection getNormalsFieldSelection(List<String> selectedFields) {
+		return new BioSimFieldSelection(selectedFields == null ? Variable.getFieldNamesForNormals() : selectedFields, true); 
+	}
+	
+	private static String getNormalsQuery(Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel) {
+		StringBuilder query = constructCoordinatesQuery(locations);
+		query.append("&" + period.parsedQuery);
+
+		if (rcp != null) {
+			query.append("&rcp=" + rcp.getURLString());
+		}
+		
+		if(climModel != null) {
+			query.append("&climMod=" + climModel.name());
+		}
+		return query.toString();
+	}
+	
+	private static LinkedHashMap<BioSimPlot, BioSimDataSet> averageNormals(LinkedHashMap<BioSimPlot, BioSimDataSet> outputMap, List<Month> averageOverTheseMonths) throws BioSimClientException {
+		boolean isMonthly = averageOverTheseMonths == null || averageOverTheseMonths.isEmpty();
+		if (isMonthly) {
+			return outputMap;
+		} else {
+			LinkedHashMap<BioSimPlot, BioSimDataSet> formattedOutputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+			for (BioSimPlot location : outputMap.keySet()) {
+				BioSimDataSet ds = outputMap.get(location);
+				BioSimMonthMap bsmm = new BioSimMonthMap(ds);
+				formattedOutputMap.put(location, bsmm.getMeanForTheseMonths(averageOverTheseMonths));
+			}
+			return formattedOutputMap;
+		}
+	}
+
+	
+	/**
+	 * Retrieve the normals and compile the mean or sum over some months.
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param averageOverTheseMonths A List of Month enums over which the mean or sum is to be
+	 *                               calculated. If empty or null the method returns
+	 *                               the monthly averages.
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<BioSimPlot, BioSimDataSet> getNormals(
+			Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<Month> averageOverTheseMonths) throws BioSimClientException, BioSimServerException {
+		return getNormals(period, locations, rcp, climModel, averageOverTheseMonths, null);
+	}
+
+	/**
+	 * Retrieve some fields of the normals and compile the mean or sum over some months.
+	 * <br> <br>
+	 * The fields are those of the monthly normals, e.g. TMIN_MN. The fields that are not 
+	 * selected are skipped while parsing the server reply. The mean or sum is only compiled 
+	 * for the selected fields. The month is always retrieved in the monthly normals.
+	 * 
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param averageOverTheseMonths A List of Month enums over which the mean or sum is to be
+	 *                               calculated. If empty or null the method returns
+	 *                               the monthly averages.
+	 * @param selectedFields The names of the fields to be retrieved (if null the minimum and maximum 
+	 *                       temperatures and the precipitation are retrieved)
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<BioSimPlot, BioSimDataSet> getNormals(
+			Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<Month> averageOverTheseMonths,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		isClientSupported();
+//		if (locations.size() > MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST) {
+//			throw new BioSimClientException("The maximum number of locations for a single request is " + MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST);
+//		}
+		BioSimNormalsCache cache = getNormalsCache();
+		BioSimNormalsCache.Lookup lookup = cache == null ? null : cache.lookUp(locations, period, rcp, climModel, averageOverTheseMonths, selectedFields);
+		List<BioSimPlot> locationsToBeRequested = lookup == null ? locations : lookup.getMissingLocations();	// the cache misses are sent together
+		LinkedHashMap<BioSimPlot, BioSimDataSet> outputMap;
+		if (locationsToBeRequested.isEmpty() && lookup != null) {
+			outputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+		} else {
+			List<LinkedHashMap<BioSimPlot, BioSimDataSet>> batchResults = dispatcher.dispatch(locationsToBeRequested, 
+					getMaximumNbLocationsPerBatchNormals(), 
+					getMaximumNbParallelBatches(), 
+					batch -> internalCalculationForNormals(period, batch, rcp, climModel, averageOverTheseMonths, selectedFields));
+			outputMap = mergeNormalsBatches(batchResults);
+		}
+		return lookup == null ? outputMap : lookup.complete(outputMap);
+	}
+	
+	/**
+	 * Retrieve the normals and compile the mean or sum over some months without blocking 
+	 * the calling thread.
+	 * <br> <br>
+	 * This method is the asynchronous counterpart of the getNormals method. It relies on the same 
+	 * cache and the same limits on the number of parallel batches and concurrent requests. The 
+	 * executor retrieves the server settings first if they have not been yet and looks up the 
+	 * cache, which may read from the disk. Then, it sends the batches and parses the replies. No thread waits for a permit: a batch that exceeds the limits 
+	 * is sent once a previous request has been completed. The returned CompletableFuture instance 
+	 * is completed once all the batches have been merged. Should the request fail, the CompletableFuture 
+	 * instance is completed exceptionally with a CompletionException whose cause is the BioSimClientException 
+	 * or BioSimServerException instance.
+	 * 
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param averageOverTheseMonths A List of Month enums over which the mean or sum is to be
+	 *                               calculated. If empty or null the method returns
+	 *                               the monthly averages.
+	 * @param executor The Executor instance that sends the requests and parses the replies
+	 * @return A CompletableFuture instance that provides a Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @see BioSimClientInstance#getNormals(Period, List, RCP, ClimateModel, List)
+	 */
+	public CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>> getNormalsAsync(
+			Period period,
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<Month> averageOverTheseMonths,
+			Executor executor) {
+		return BioSimBatchDispatcher.supplyAsync(() -> {
+					isClientSupported();
+					BioSimNormalsCache cache = getNormalsCache();	// the persistent cache reads its entries from the disk
+					BioSimNormalsCache.Lookup lookup = cache == null ? null : cache.lookUp(locations, period, rcp, climModel, averageOverTheseMonths, null);
+					List<BioSimPlot> locationsToBeRequested = lookup == null ? locations : lookup.getMissingLocations();	// the cache misses are sent together
+					if (locationsToBeRequested.isEmpty() && lookup != null) {
+						return CompletableFuture.completedFuture(lookup.complete(new LinkedHashMap<BioSimPlot, BioSimDataSet>()));
+					}
+					BioSimLineClassifier classifier = new BioSimLineClassifier(getModelIndex(), "month");	// the index must be retrieved before the requests since the parser cannot send another request
+					return BioSimBatchDispatcher.dispatchAsync(locationsToBeRequested, 
+							getMaximumNbLocationsPerBatchNormals(), 
+							getMaximumNbParallelBatches(),
+							batch -> internalCalculationForNormalsAsync(period, batch, rcp, climModel, averageOverTheseMonths, classifier, executor))
+							.thenApply(BioSimClientInstance::mergeNormalsBatches)
+							.thenApply(outputMap -> lookup == null ? outputMap : lookup.complete(outputMap));
+				}, executor)
+				.thenCompose(outputMap -> outputMap);
+	}
+
+	private static LinkedHashMap<BioSimPlot, BioSimDataSet> mergeNormalsBatches(List<LinkedHashMap<BioSimPlot, BioSimDataSet>> batchResults) {
+		if (batchResults.size() == 1) {
+			return batchResults.get(0);
+		} else {
+			LinkedHashMap<BioSimPlot, BioSimDataSet> resultingMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+			for (LinkedHashMap<BioSimPlot, BioSimDataSet> batchResult : batchResults) {
+				resultingMap.putAll(batchResult);
+			}
+			return resultingMap;
+		}
+	}
+	
+	
+	/**
+	 * Retrieve the monthly normals.
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<BioSimPlot, BioSimDataSet> getMonthlyNormals(
+			Period period, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel) throws BioSimClientException, BioSimServerException {
+		return getNormals(period, locations, rcp, climModel, null, null);
+	}
+
+	/**
+	 * Retrieve some fields of the monthly normals.
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @param selectedFields The names of the fields to be retrieved besides the month (if null the 
+	 *                       minimum and maximum temperatures and the precipitation are retrieved)
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimClientInstance#getNormals(Period, List, RCP, ClimateModel, List, List)
+	 */
+	public LinkedHashMap<BioSimPlot, BioSimDataSet> getMonthlyNormals(
+			Period period, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		return getNormals(period, locations, rcp, climModel, null, selectedFields);
+	}
+
+	
+	/**
+	 * Retrieve the yearly normals.
+	 * @param period A Period enum variable
+	 * @param locations A List of BioSimPlot instances
+	 * @param rcp An RCP enum variable (if null the server takes the RCP 4.5 by default) 
+	 * @param climModel A ClimateModel enum variable (if null the server takes the RCM4 climate model)
+	 * @return A Map with the BioSimPlot instances as keys and BioSimDataSet instances as values.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<BioSimPlot, BioSimDataSet> getAnnualNormals(
+			Period period, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climModel) throws BioSimClientException, BioSimServerException {
+		return getNormals(period, locations, rcp, climModel, BioSimClient.AllMonths);
+	}
+
+
+	private static StringBuilder constructCoordinatesQuery(List<BioSimPlot> locations) {
+		StringBuilder latStr = new StringBuilder();
+		StringBuilder longStr = new StringBuilder();
+		StringBuilder elevStr = new StringBuilder();
+		String latStrThisLoc, longStrThisLoc, elevStrThisLoc;
+		for (BioSimPlot location : locations) {
+			latStrThisLoc = latStr.length() == 0 ? "" + location.getLatitudeDeg() : SPACE_IN_REQUEST + location.getLatitudeDeg();
+			latStr.append(latStrThisLoc);
+			longStrThisLoc = longStr.length() == 0 ? "" + location.getLongitudeDeg() : SPACE_IN_REQUEST + location.getLongitudeDeg();
+			longStr.append(longStrThisLoc);
+			elevStrThisLoc = elevStr.length() == 0 ? "" + processElevationM(location) : SPACE_IN_REQUEST + processElevationM(location);
+			elevStr.append(elevStrThisLoc);
+		}
+
+		StringBuilder query = new StringBuilder();
+		query.append("lat=" + latStr.toString());
+		query.append("&long=" + longStr.toString());
+		if (elevStr.length() != 0) {
+			query.append("&elev=" + elevStr.toString());
+		}
+		return query;
+	}
+
+	private static String processElevationM(BioSimPlot location) {
+		if (Double.isNaN(location.getElevationM())) {
+			return "NaN";
+		} else {
+			return "" + location.getElevationM();
+		}
+	}
+	
+
+	/**
+	 * Provide the list of the available models. <br>
+	 * <br>
+	 * The method returns a clone of the true list to avoid any unintended changes. The 
+	 * list is retrieved once and then refreshed after the time to live of the model catalog.
+	 * 
+	 * @return A List of String instances
+  	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public List<String> getModelList() throws BioSimClientException, BioSimServerException {
+		isClientSupported();
+		return new ArrayList<String>(getModelCatalog().getModelList());
+	}
+	
+	/**
+	 * Provide a description of a particular model. <br>
+	 * <br>
+	 * The description is retrieved once and then kept in the model catalog.
+	 * @param modelName The name of the model
+	 * @return A String instance
+  	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public String getModelHelp(String modelName) throws BioSimClientException, BioSimServerException {
+		isClientSupported();
+		if (modelName == null) {
+			throw new InvalidParameterException("THe modelName parameter cannot be set to null!");
+		}
+		return getModelCatalog().getModelHelp(modelName, () -> getStringFromConnection(BIOSIMMODELHELP, "model=" + modelName).toString());
+	}
+
+	/**
+	 * Provide the default parameters of a particular model. <br>
+	 * <br>
+	 * The parameters are retrieved once and then kept in the model catalog. The method 
+	 * returns a copy that can be changed without affecting the catalog.
+	 * @param modelName The name of the model
+	 * @return A BioSimParameterMap instance that contains the parameters.
+  	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public BioSimParameterMap getModelDefaultParameters(String modelName) throws BioSimClientException, BioSimServerException {
+		isClientSupported();
+		if (modelName == null) {
+			throw new InvalidParameterException("THe modelName parameter cannot be set to null!");
+		}
+		return getModelCatalog().getModelDefaultParameters(modelName, () -> retrieveModelDefaultParameters(modelName));
+	}
+
+	private BioSimParameterMap retrieveModelDefaultParameters(String modelName) throws BioSimClientException, BioSimServerException {
+		String serverReply = getStringFromConnection(BIOSIMMODELDEFAULTPARAMETERS, "model=" + modelName).toString();
+		String[] parms = serverReply.split("\\*");
+		BioSimParameterMap parmMap = new BioSimParameterMap();
+		for (String parm : parms) {
+			String[] keyValue = parm.split(":");
+			if (keyValue.length > 1) {
+				parmMap.addParameter(keyValue[0], keyValue[1]);
+			} else {
+				parmMap.addParameter(keyValue[0], ""); 
+			}
+		}
+		return parmMap;
+	}
+	
+
+	/**
+	 * Provide the model catalog. The catalog is retrieved once and then read without locking
+	 * until it expires.
+	 * @return a BioSimModelCatalog instance
+	 */
+	private BioSimModelCatalog getModelCatalog() throws BioSimClientException, BioSimServerException {
+		BioSimModelCatalog catalog = serverState.modelCatalog;
+		if (catalog == null || catalog.isExpired()) {
+			synchronized(serverState.modelCatalogLock) {
+				catalog = serverState.modelCatalog;
+				if (catalog == null || catalog.isExpired()) {
+					String snapshotKey = "modelList;" + getServerKey();
+					BioSimMetadataSnapshot<ArrayList<String>> snapshot = getMetadataSnapshot(snapshotKey);
+					ArrayList<String> myList;
+					long ageMs;
+					if (snapshot != null && !snapshot.isExpired(modelCatalogTimeToLiveMs)) {	// otherwise the catalog would be expired already
+						myList = snapshot.getValue();
+						ageMs = snapshot.getAgeMs();	// the catalog expires as if it had been retrieved with the snapshot
+					} else {
+						myList = new ArrayList<String>();
+						BioSimStringList modelList = getStringFromConnection(MODEL_LIST_API, null);
+						for (String model : modelList) {
+							myList.add(model);
+						}
+						putMetadataSnapshot(snapshotKey, myList);
+						ageMs = 0;
+					}
+					catalog = new BioSimModelCatalog(myList, modelCatalogTimeToLiveMs, ageMs);
+					serverState.modelCatalog = catalog;
+				}
+			}
+		}
+		return catalog;
+	}
+ 	
+	/**
+	 * Provide an immutable index of the model names. 
+	 * @return a Set of String instances
+	 */
+	private Set<String> getModelIndex() throws BioSimClientException, BioSimServerException {
+		return getModelCatalog().getModelIndex();
+	}
+
+	/**
+	 * Retrieve the help and the default parameters of all the models. <br>
+	 * <br>
+	 * The requests are sent in parallel. Afterwards, the getModelHelp and getModelDefaultParameters 
+	 * methods do not send any request until the model catalog expires.
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see Builder#setModelCatalogTimeToLive(long)
+	 */
+	public void loadModelCatalog() throws BioSimClientException, BioSimServerException {
+		isClientSupported();
+		BioSimModelCatalog catalog = getModelCatalog();
+		List<BioSimSupplier<Object>> requests = new ArrayList<BioSimSupplier<Object>>();
+		for (String modelName : catalog.getModelList()) {
+			requests.add(() -> catalog.getModelHelp(modelName, () -> getStringFromConnection(BIOSIMMODELHELP, "model=" + modelName).toString()));
+			requests.add(() -> catalog.getModelDefaultParameters(modelName, () -> retrieveModelDefaultParameters(modelName)));
+		}
+		dispatcher.invokeAll(requests);
+	}
+
+	/**
+	 * Retrieve the status of the server and the model list in parallel. <br>
+	 * <br>
+	 * Otherwise, the first request retrieves them one after the other. Calling this method 
+	 * at startup, possibly in another thread, makes it possible to send the first requests 
+	 * without waiting for these metadata. If the persistent cache is enabled, the metadata 
+	 * are read from a snapshot that a former JVM has stored, unless it has expired.
+	 * @throws BioSimClientException If the client fails or is not supported
+	 * @throws BioSimServerException If the server fails 
+	 * @see Builder#enablePersistentCache(File, long)
+	 * @see Builder#setMetadataSnapshotTimeToLive(long)
+	 */
+	public void warmUp() throws BioSimClientException, BioSimServerException {
+		List<BioSimSupplier<Object>> requests = new ArrayList<BioSimSupplier<Object>>();
+		requests.add(() -> isClientSupported());
+		requests.add(() -> getModelCatalog());
+		dispatcher.invokeAll(requests);
+	}
+		
+	/**
+	 * Parse the server reply line by line as it is being received. The data sets
+	 * are filled as the lines come in so that the complete reply is never held
+	 * in memory. <br>
+	 * <br>
+	 * The field types of each model are recorded in the schema cache of the server. The
+	 * data sets of the next replies are created with typed columns if their header is
+	 * the same. <br>
+	 * <br>
+	 * If there is a consumer, each data set is passed to it as soon as it is complete
+	 * instead of being stored in the output map. 
+	 * @param serverReply the reply of the server
+	 * @param schemaCache the BioSimSchemaCache instance of the server
+	 * @param api the API, which stands for the model name if the reply has none (e.g. normals)
+	 * @param classifier a BioSimLineClassifier instance
+	 * @param selection a BioSimFieldSelection instance (null to keep all the fields)
+	 * @param rowFilter a BioSimRowFilter instance (null to keep all the rows)
+	 * @param consumer a BioSimResultConsumer instance (can be null)
+	 * @param refListForLocations the locations in the order they were sent
+	 * @param outputMap the map to be filled
+	 * @return the output map
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static LinkedHashMap readLines(BufferedReader serverReply,
+			BioSimSchemaCache schemaCache,
+			String api,
+			BioSimLineClassifier classifier,
+			BioSimFieldSelection selection,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer,
+			List<BioSimPlot> refListForLocations,
+			LinkedHashMap outputMap) throws IOException, BioSimClientException, BioSimServerException {
+//		long initTime;
+//		long totalTime = 0;
+		BioSimDataSet dataSet = null;
+		String dataSetCacheKey = null;
+		String dataSetModelName = null;
+		int locationId = 0;
+		BioSimPlot location = null;
+		boolean isDataSetProperlyInitialized = false;
+		String modName = null;
+		LinkedHashMap<BioSimPlot, BioSimDataSet> resultMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		BioSimRowFilter.RowMatcher matcher = rowFilter == null ? null : rowFilter.getMatcher();
+		String line;
+		while ((line = serverReply.readLine()) != null) {
+			LineType lineType = classifier.classify(line);
+			if (lineType == LineType.Error) {
+				throw new BioSimServerException(line);
+			} else if (lineType == LineType.ModelName) {
+				if (dataSet != null) {	// the last data set of the former model is complete
+					completeDataSet(schemaCache, dataSet, dataSetCacheKey, dataSetModelName, location, consumer);
+					dataSet = null;
+				}
+				resultMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+				modName = line.trim();
+				outputMap.put(modName, resultMap);
+				locationId = 0;
+				isDataSetProperlyInitialized = false;		// reset to false until we get the header
+			} else if (lineType == LineType.Header) { // means it is a new location
+				String cacheKey = modName != null ? modName : api;
+				int expectedNbObservations = 0;
+				if (dataSet != null) {	// must be indexed before instantiating a new DataSet
+//					initTime = System.currentTimeMillis();
+					completeDataSet(schemaCache, dataSet, dataSetCacheKey, dataSetModelName, location, consumer);
+//					totalTime += System.currentTimeMillis() - initTime;
+					if (cacheKey.equals(dataSetCacheKey)) {	// the plots of the same model are likely to have the same number of observations
+						expectedNbObservations = dataSet.getNumberOfObservations();
+					}
+				}
+				location = refListForLocations.get(locationId);
+				BioSimSchema schema = BioSimSchema.getSchema(line);	// the schema is shared by all the plots
+				if (matcher != null) {
+					matcher.bind(schema);
+				}
+				if (selection != null) {
+					schema = selection.select(schema);
+				}
+				dataSet = new BioSimDataSet(schema, schemaCache.getFieldTypes(cacheKey, schema), expectedNbObservations);
+				dataSetCacheKey = cacheKey;
+				dataSetModelName = modName;
+				if (consumer == null) {
+					resultMap.put(location, dataSet);
+				}
+				locationId++;
+				isDataSetProperlyInitialized = true;
+			} else {
+				if (!isDataSetProperlyInitialized) {
+					if (modName != null) {
+						outputMap.put(modName, new BioSimClientException(line)); // this happens if we are using the Weather route
+					} else {
+						BioSimStringList completeReply = readAllLines(serverReply);
+						completeReply.add(0, line);
+						throw new BioSimClientException(completeReply.toString());	// this happens with normals or in case of severe exception with the weather route
+					}
+				} else {
+//					initTime = System.currentTimeMillis();
+					int nbFieldsToBeTokenized = selection == null ? Integer.MAX_VALUE : selection.getNumberOfFieldsToBeTokenized();
+					if (matcher != null) {
+						nbFieldsToBeTokenized = Math.max(nbFieldsToBeTokenized, matcher.getNumberOfFieldsToBeTokenized());
+					}
+					tokenizer.tokenize(line, nbFieldsToBeTokenized);
+					if (matcher == null || matcher.matches(tokenizer)) {	// the rows that are filtered out are never stored
+						dataSet.addObservation(tokenizer, selection == null ? null : selection.getFieldIndices());
+					}
+//					totalTime += System.currentTimeMillis() - initTime;
+				}
+			}
+		}
+		if (dataSet != null) {
+//			initTime = System.currentTimeMillis();
+			completeDataSet(schemaCache, dataSet, dataSetCacheKey, dataSetModelName, location, consumer);	// last DataSet has not been instantiated so it needs to be here.
+//			totalTime += System.currentTimeMillis() - initTime;
+		}
+		if (outputMap.isEmpty()) {
+			outputMap.putAll(resultMap);
+		}
+		if (consumer != null) {
+			for (Object key : outputMap.keySet()) {
+				Object value = outputMap.get(key);
+				if (value instanceof BioSimClientException) {
+					consumer.acceptError(key.toString(), (BioSimClientException) value);
+				}
+			}
+		}
+//		System.out.println("Time to create observations: " + totalTime + " ms");
+		return outputMap;
+	}
+
+	/**
+	 * Index the field types of a data set once all its observations have been read and
+	 * pass it to the consumer if any.
+	 */
+	private static void completeDataSet(BioSimSchemaCache schemaCache, 
+			BioSimDataSet dataSet, 
+			String cacheKey, 
+			String modelName, 
+			BioSimPlot location, 
+			BioSimResultConsumer consumer) throws BioSimClientException {
+		dataSet.indexFieldType();
+		schemaCache.register(cacheKey, dataSet);
+		if (consumer != null) {
+			consumer.accept(modelName, location, dataSet);
+		}
+	}
+	
+	private LinkedHashMap<String, Object> internalCalculationForClimateVariables(int fromYr, 
+			int toYr, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames, 
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer) throws BioSimClientException, BioSimServerException {
+		String queryString = getWeatherQuery(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms);
+		BioSimFieldSelection selection = selectedFields == null ? null : new BioSimFieldSelection(selectedFields, false);
+		BioSimLineClassifier classifier = new BioSimLineClassifier(getModelIndex(), "rep");	// the index must be retrieved before the request since the parser cannot send another request
+		if (requestHedger == null || consumer != null) {	// the data sets passed to a consumer cannot be duplicated
+			LinkedHashMap<String, Object> outputMap = new LinkedHashMap<String, Object>();
+			sendRequest(BIOSIMWEATHER, queryString, reader -> readLines(reader, serverState.schemaCache, BIOSIMWEATHER, classifier, selection, rowFilter, consumer, locations, outputMap));
+//			System.out.println("Total time to convert string into biosim dataset: " + (System.currentTimeMillis() - initTime) + " ms.");
+			return outputMap;
+		} else {
+			return requestHedger.invoke(attempt -> {
+				LinkedHashMap<String, Object> outputMap = new LinkedHashMap<String, Object>();	// each attempt fills its own map
+				sendRequest(BIOSIMWEATHER, queryString, attempt, reader -> readLines(reader, serverState.schemaCache, BIOSIMWEATHER, classifier, selection, rowFilter, null, locations, outputMap));
+				return outputMap;
+			});
+		}
+	}
+
+	/*
+	 * The requests are not hedged since a hedge would require a thread that waits for the 
+	 * original request.
+	 */
+	private CompletableFuture<LinkedHashMap<String, Object>> internalCalculationForClimateVariablesAsync(int fromYr, 
+			int toYr, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames, 
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			BioSimLineClassifier classifier,
+			Executor executor) {
+		LinkedHashMap<String, Object> outputMap = new LinkedHashMap<String, Object>();
+		return sendRequestAsync(BIOSIMWEATHER, 
+				getWeatherQuery(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms), 
+				reader -> readLines(reader, serverState.schemaCache, BIOSIMWEATHER, classifier, null, null, null, locations, outputMap),
+				executor)
+				.thenApply(map -> outputMap);
+	}
+
+	private String getWeatherQuery(int fromYr, 
+			int toYr, 
+			List<BioSimPlot> locations,
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames, 
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms) {
+		StringBuilder query = constructCoordinatesQuery(locations);
+		query.append("&from=" + fromYr);
+		query.append("&to=" + toYr);
+		if (rcp != null) {
+			query.append("&rcp=" + rcp.getURLString());
+		}
+		if(climMod != null) {
+			query.append("&climMod=" + climMod.name());
+		}
+		if (forceClimateGenerationEnabled) {
+			System.out.println("Warning: past climate is generated instead of being compiled from observations!");
+			query.append("&source=FromNormals");
+		}
+		if (nbNearestNeighbours != null) {
+			query.append("&nb_nearest_neighbor=" + nbNearestNeighbours.toString());
+		}
+		if (rep > 1) {
+			query.append("&rep=" + rep);
+		}
+		for (int i = 0; i < modelNames.size(); i++) {
+			if (i == 0)
+				query.append("&model=" + modelNames.get(i));
+			else 
+				query.append(SPACE_IN_REQUEST + modelNames.get(i));
+		}
+		if (repModel >  1) {
+			query.append("&repmodel=" + repModel);
+		}
+		if (additionalParms != null) {
+			StringBuilder sbParms = new StringBuilder();
+//			int i = 0;
+			for (BioSimParameterMap oMap : additionalParms) {
+				String strForThisMap = oMap == null || oMap.isEmpty() ? "null" : oMap.toString();
+				if (sbParms.length() == 0)
+					sbParms.append(strForThisMap);
+				else 
+					sbParms.append(SPACE_IN_REQUEST + strForThisMap);
+			}
+			query.append("&Parameters=" + sbParms.toString());
+		}
+//		System.out.println("Constructing request: " + (System.currentTimeMillis() - initTime) + " ms");
+		return query.toString();
+	}
+
+	/**
+	 * Generate meteorological time series and apply one or many models on them.
+	 * <br> <br>
+	 * The "modelnames" argument sets the models to be applied on the generated meteorological 
+	 * time series, which should be contained in the list returned by the 
+	 * getModelList method. Here, the number of replicates in the models is set to 1.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @return A LinkedHashMap with the model names as keys
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			List<BioSimParameterMap> additionalParms)	throws BioSimClientException, BioSimServerException {
+		return generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, 1, additionalParms); 
+	}
+
+	
+	/**
+	 * Generate meteorological time series and apply one or many models on them.
+	 * <br> <br>
+	 * The "modelnames" argument sets the models to be applied on the generated meteorological 
+	 * time series, which should be contained in the list returned by the 
+	 * getModelList method. Here, the replicates in the weather generation and the models are
+	 * set to 1.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @return A LinkedHashMap with the model names as keys
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			List<BioSimParameterMap> additionalParms)
+			throws BioSimClientException, BioSimServerException {
+		return generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, 1, 1, additionalParms);
+	}
+
+	
+	
+
+	/**
+	 * Generate meteorological time series and apply one or many models on them.
+	 * <br> <br>
+	 * The "modelnames" argument sets the models to be applied on the generated meteorological 
+	 * time series, which should be contained in the list returned by the 
+	 * getModelList method. 
+	 * <br> <br>
+	 * If the number of locations exceeds the maximum number of locations per request, the
+	 * locations are split into batches that are sent in parallel. The results are merged
+	 * in the original order of the locations.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @return A LinkedHashMap with the model names as keys
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms) throws BioSimClientException, BioSimServerException {
+		return generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, null, null);
+	}
+
+	/**
+	 * Generate meteorological time series, apply one or many models on them and retrieve
+	 * some fields of the model outputs.
+	 * <br> <br>
+	 * The fields that are not selected are skipped while parsing the server reply. They are
+	 * never stored in memory. The data sets contain the selected fields in the order of the 
+	 * model outputs. The selected fields that a model does not provide are ignored.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param selectedFields The names of the fields to be retrieved (if null all the fields are retrieved)
+	 * @return A LinkedHashMap with the model names as keys
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields) throws BioSimClientException, BioSimServerException {
+		return generateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, null);
+	}
+
+	/**
+	 * Generate meteorological time series, apply one or many models on them and retrieve
+	 * some fields and some rows of the model outputs.
+	 * <br> <br>
+	 * The row filter is evaluated on each line of the server reply before it is parsed. The 
+	 * rows that are filtered out are never stored in memory. The filter can involve fields 
+	 * that are not selected.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param selectedFields The names of the fields to be retrieved (if null all the fields are retrieved)
+	 * @param rowFilter A BioSimRowFilter instance (if null all the rows are retrieved)
+	 * @return A LinkedHashMap with the model names as keys
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimRowFilter
+	 */
+	public LinkedHashMap<String, Object> generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter) throws BioSimClientException, BioSimServerException {
+		return internalGenerateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter, null);
+	}
+
+	/**
+	 * Generate meteorological time series, apply one or many models on them and pass the 
+	 * data set of each plot to a consumer as soon as it is parsed.
+	 * <br> <br>
+	 * The client does not keep the data sets once they have been passed to the consumer, 
+	 * so that the memory footprint does not depend on the number of locations. The calls 
+	 * to the consumer are serialized. The errors the server sends for a particular model
+	 * are passed to the acceptError method of the consumer.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param selectedFields The names of the fields to be retrieved (if null all the fields are retrieved)
+	 * @param rowFilter A BioSimRowFilter instance (if null all the rows are retrieved)
+	 * @param consumer A BioSimResultConsumer instance
+	 * @throws BioSimClientException If the client or the consumer fails 
+	 * @throws BioSimServerException If the server fails 
+	 * @see BioSimResultConsumer
+	 */
+	public void generateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer) throws BioSimClientException, BioSimServerException {
+		if (consumer == null) {
+			throw new InvalidParameterException("The consumer argument cannot be null!");
+		}
+		Object lock = new Object();
+		BioSimResultConsumer serializedConsumer = new BioSimResultConsumer() {	// the batches are parsed in parallel
+			@Override
+			public void accept(String modelName, BioSimPlot location, BioSimDataSet dataSet) throws BioSimClientException {
+				synchronized(lock) {
+					consumer.accept(modelName, location, dataSet);
+				}
+			}
+
+			@Override
+			public void acceptError(String modelName, BioSimClientException e) throws BioSimClientException {
+				synchronized(lock) {
+					consumer.acceptError(modelName, e);
+				}
+			}
+		};
+		internalGenerateWeather(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter, serializedConsumer);
+	}
+
+	private LinkedHashMap<String, Object> internalGenerateWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer) throws BioSimClientException, BioSimServerException {
+		int lastDailyDate = getSupportedServerSettings().getLastDailyDate();
+		if (rep < 1 || repModel < 1) {
+			throw new InvalidParameterException("The rep and repModel parameters should be equal to or greater than 1!");
+		} 
+//		if (locations.size() > MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST) {
+//			throw new BioSimClientException("The maximum number of locations for a single request is " + MAXIMUM_NB_LOCATIONS_IN_A_SINGLE_REQUEST);
+//		}
+
+		totalServerRequestDuration.reset();
+
+		BioSimWeatherCache.Lookup lookup = lookUpObservedWeather(fromYr, toYr, locations, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter, consumer, lastDailyDate);
+		if (lookup != null) {
+			Map<Integer, LinkedHashMap<String, Object>> fetchedOutputs = new HashMap<Integer, LinkedHashMap<String, Object>>();
+			for (Map.Entry<Integer, List<BioSimPlot>> entry : lookup.getMissingLocations().entrySet()) {	// one request for the missing years of each group of locations
+				fetchedOutputs.put(entry.getKey(), 
+						dispatchWeatherRequests(entry.getKey(), toYr, entry.getValue(), rcp, climMod, modelNames, rep, repModel, additionalParms, null, null, null));
+			}
+			return lookup.complete(fetchedOutputs);
+		} else {
+			return dispatchWeatherRequests(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter, consumer);
+		}
+	}
+
+	/**
+	 * Look up the observed weather cache if the request can be split by year.
+	 * @return a Lookup instance or null if the cache does not apply to this request
+	 */
+	private BioSimWeatherCache.Lookup lookUpObservedWeather(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer,
+			int lastDailyDate) {
+		BioSimWeatherCache cache = getObservedWeatherCache(lastDailyDate);
+		if (cache != null && 
+				fromYr <= lastDailyDate &&
+				!forceClimateGenerationEnabled && 
+				rep == 1 && repModel == 1 && 
+				selectedFields == null && rowFilter == null && consumer == null &&	// otherwise the outputs cannot be split by year
+				observedWeatherModelNames.containsAll(modelNames)) {	// otherwise some outputs may depend on the former years
+			return cache.lookUp(fromYr, toYr, locations, modelNames, additionalParms, nbNearestNeighbours);
+		} else {
+			return null;
+		}
+	}
+
+	private LinkedHashMap<String, Object> dispatchWeatherRequests(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			List<String> selectedFields,
+			BioSimRowFilter rowFilter,
+			BioSimResultConsumer consumer) throws BioSimClientException, BioSimServerException {
+		List<LinkedHashMap<String, Object>> batchResults = dispatcher.dispatch(locations, 
+				getMaximumNbLocationsPerBatchWeatherGeneration(),
+				getMaximumNbParallelBatches(),
+				batch -> internalCalculationForClimateVariables(fromYr, toYr, batch, rcp, climMod, modelNames, rep, repModel, additionalParms, selectedFields, rowFilter, consumer));
+		return mergeWeatherBatches(batchResults);
+	}
+	
+	/**
+	 * Generate meteorological time series and apply one or many models on them without blocking
+	 * the calling thread.
+	 * <br> <br>
+	 * This method is the asynchronous counterpart of the generateWeather method. It relies on the 
+	 * same observed weather cache and the same limits on the number of parallel batches and concurrent 
+	 * requests. The executor retrieves the server settings first if they have not been yet. Then, it 
+	 * sends the batches and parses the replies. No thread waits for a permit: a batch that exceeds 
+	 * the limits is sent once a previous request has been completed. The requests are not hedged. 
+	 * The returned CompletableFuture instance is completed once all the batches have been merged. 
+	 * Should the request fail or should the rep or repModel argument be smaller than 1, the 
+	 * CompletableFuture instance is completed exceptionally with a CompletionException whose cause 
+	 * is the BioSimClientException, BioSimServerException or InvalidParameterException instance.
+	 * 
+	 * @param fromYr The start date (yr) of the period (inclusive)
+	 * @param toYr The end date (yr) of the period (inclusive)
+	 * @param locations The locations of the plots (BioSimPlot instances)
+	 * @param rcp An RCP enum variable (by default RCP 4.5)
+	 * @param climMod A ClimateModel enum variable (by default RCM 4)
+	 * @param modelNames A list of strings representing the model names
+	 * @param rep The number of replicates in climate generation if needed. Should be equal to or greater than 1. 
+	 * @param repModel The number of replicates in the models. Should be equal to or greater than 1. 
+	 * @param additionalParms A list of BioSimParameterMap instances that contain the eventual additional parameters for the models
+	 * @param executor The Executor instance that sends the requests and parses the replies
+	 * @return A CompletableFuture instance that provides a LinkedHashMap with the model names as keys
+	 * @see BioSimClientInstance#generateWeather(int, int, List, RCP, ClimateModel, List, int, int, List)
+	 */
+	public CompletableFuture<LinkedHashMap<String, Object>> generateWeatherAsync(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			Executor executor) {
+		if (rep < 1 || repModel < 1) {
+			CompletableFuture<LinkedHashMap<String, Object>> failedFuture = new CompletableFuture<LinkedHashMap<String, Object>>();
+			failedFuture.completeExceptionally(new InvalidParameterException("The rep and repModel parameters should be equal to or greater than 1!"));
+			return failedFuture;
+		} 
+		totalServerRequestDuration.reset();
+		return BioSimBatchDispatcher.supplyAsync(() -> {
+					int lastDailyDate = getSupportedServerSettings().getLastDailyDate();
+					BioSimLineClassifier classifier = new BioSimLineClassifier(getModelIndex(), "rep");	// the index must be retrieved before the requests since the parser cannot send another request
+					int batchSize = getMaximumNbLocationsPerBatchWeatherGeneration();
+					BioSimWeatherCache.Lookup lookup = lookUpObservedWeather(fromYr, toYr, locations, modelNames, rep, repModel, additionalParms, null, null, null, lastDailyDate);
+					if (lookup != null) {
+						Map<Integer, LinkedHashMap<String, Object>> fetchedOutputs = new HashMap<Integer, LinkedHashMap<String, Object>>();
+						CompletableFuture<Void> groups = CompletableFuture.completedFuture(null);
+						for (Map.Entry<Integer, List<BioSimPlot>> entry : lookup.getMissingLocations().entrySet()) {	// the groups are sent one after the other as in the synchronous path
+							groups = groups.thenCompose(v -> dispatchWeatherRequestsAsync(entry.getKey(), toYr, entry.getValue(), rcp, climMod, modelNames, rep, repModel, additionalParms, classifier, batchSize, executor))
+									.thenAccept(outputMap -> fetchedOutputs.put(entry.getKey(), outputMap));
+						}
+						return groups.thenApply(v -> lookup.complete(fetchedOutputs));
+					} else {
+						return dispatchWeatherRequestsAsync(fromYr, toYr, locations, rcp, climMod, modelNames, rep, repModel, additionalParms, classifier, batchSize, executor);
+					}
+				}, executor)
+				.thenCompose(outputMap -> outputMap);
+	}
+
+	private CompletableFuture<LinkedHashMap<String, Object>> dispatchWeatherRequestsAsync(int fromYr, 
+			int toYr,
+			List<BioSimPlot> locations, 
+			RCP rcp,
+			ClimateModel climMod,
+			List<String> modelNames,
+			int rep,
+			int repModel,
+			List<BioSimParameterMap> additionalParms,
+			BioSimLineClassifier classifier,
+			int batchSize,
+			Executor executor) {
+		return BioSimBatchDispatcher.dispatchAsync(locations, 
+				batchSize,
+				getMaximumNbParallelBatches(),
+				batch -> internalCalculationForClimateVariablesAsync(fromYr, toYr, batch, rcp, climMod, modelNames, rep, repModel, additionalParms, classifier, executor))
+				.thenApply(BioSimClientInstance::mergeWeatherBatches);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static LinkedHashMap<String, Object> mergeWeatherBatches(List<LinkedHashMap<String, Object>> batchResults) {
+		LinkedHashMap<String, Object> resultingMap = null;
+		for (LinkedHashMap<String, Object> intermediateMap : batchResults) {	// the batches are merged in their original order
+			if (resultingMap == null) 
+				resultingMap = intermediateMap;
+			else {
+				Set<String> keys = resultingMap.keySet();
+				for (String key : keys) {
+					Object there = resultingMap.get(key);
+					Object incomingResult = intermediateMap.get(key);
+					if (incomingResult instanceof LinkedHashMap && there instanceof LinkedHashMap) {
+						((LinkedHashMap) there).putAll((LinkedHashMap) incomingResult);
+					} else if (incomingResult instanceof Exception) {
+						resultingMap.put(key, incomingResult);
+					}
+				}
+			}
+		}
+		return resultingMap;
+	}
+	
+	
+	private int getMaximumNbLocationsPerBatchWeatherGeneration() throws BioSimClientException, BioSimServerException {
+		return getServerSettings().getMaximumNbLocationsPerBatchWeatherGeneration();
+	}
+
+	private static String getRevision() {
+		String revision = Revision;
+		if (revision == null) {		// the manifest is read once
+			String filePath = JarUtility.getJarFileImInIfAny(BioSimClient.class);
+			if (filePath != null) {
+				try {
+					Manifest m = JarUtility.getManifestFromThisJarFile(filePath);
+					revision = m.getMainAttributes().get(Attributes.Name.SPECIFICATION_VERSION).toString();				
+				} catch (IOException e) {
+					throw new InvalidParameterException("Cannot retrieve manifest from jar file: " + filePath);
+				}
+			} else {
+				revision = "NotWrappedIntoJar";			
+			}
+			Revision = revision;
+		}
+		return revision;
+	}
+	
+	/**
+	 * Retrieve a snapshot of some metadata from the persistent cache.
+	 * @param key the key of the snapshot
+	 * @return the snapshot or null if the persistent cache is disabled or the snapshot is missing or expired
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Serializable> BioSimMetadataSnapshot<T> getMetadataSnapshot(String key) {
+		BioSimDiskCache cache = persistentCache;
+		if (cache != null) {
+			BioSimMetadataSnapshot<T> snapshot = cache.get(key, BioSimMetadataSnapshot.class);
+			if (snapshot != null && !snapshot.isExpired(metadataSnapshotTimeToLiveMs)) {
+				return snapshot;
+			}
+		}
+		return null;
+	}
+
+	private void putMetadataSnapshot(String key, Serializable value) {
+		BioSimDiskCache cache = persistentCache;
+		if (cache != null) {
+			cache.put(key, new BioSimMetadataSnapshot<Serializable>(value));
+		}
+	}
+	
+	
+	/**
+	 * Check if the status of the server has been retrieved and retrieve it if needs be. Then 
+	 * check if the client is supported. <br>
+	 * <br>
+	 * Once the status has been retrieved, this method does not take any lock.
+	 * @return The warning message
+	 * @throws BioSimClientException If the client fails 
+	 * @throws BioSimServerException If the server fails 
+	 */
+	public String isClientSupported() throws BioSimClientException, BioSimServerException {
+		return getSupportedServerSettings().getClientMessage();
+	}
+
+	/**
+	 * Provide the settings of the server and check if the client is supported.
+	 * @return a BioSimServerSettings instance
+	 */
+	private BioSimServerSettings getSupportedServerSettings() throws BioSimClientException, BioSimServerException {
+		BioSimServerSettings settings = getServerSettings();
+		if (!settings.isClientSupported()) 
+			throw new BioSimClientException(settings.getClientMessage());
+		return settings;
+	}
+
+	/**
+	 * Provide the settings of the server. The status is retrieved by a single thread
+	 * while the others wait for it. Afterwards, the settings are read without locking.
+	 * @return a BioSimServerSettings instance
+	 */
+	private BioSimServerSettings getServerSettings() throws BioSimClientException, BioSimServerException {
+		BioSimServerSettings settings = serverState.settings;
+		if (settings == null) {
+			synchronized(serverState.settingsLock) {
+				settings = serverState.settings;
+				if (settings == null) {
+					settings = retrieveServerSettings();
+					serverState.settings = settings;
+				}
+			}
+		}
+		return settings;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private BioSimServerSettings retrieveServerSettings() throws BioSimClientException, BioSimServerException {
+		String revision = getRevision();
+		String snapshotKey = "status;" + getServerKey() + ";" + revision;	// the support of the client depends on its revision
+		BioSimMetadataSnapshot<HashMap> snapshot = getMetadataSnapshot(snapshotKey);
+		HashMap settingsMap = snapshot != null ? snapshot.getValue() : null;
+		boolean isRetrievedFromServer = settingsMap == null;
+		if (isRetrievedFromServer) {
+			String query = "crev=" + revision;
+			String serverReply = getStringFromConnection(BIOSIMSTATUS, query).toString();	// is returned in JSON format
+			Map statusMap = null;
+			try {
+//				statusMap = JsonReader.jsonToMaps(serverReply);
+				statusMap = JsonMapper.readValue(serverReply, Map.class);
+			} catch (Exception e) {
+				throw new BioSimClientException("Something wrong happened while retrieving the server status: " + e.getMessage());
+			}
+			
+			if (!(Boolean)statusMap.get("IsInitCompleted")) {
+				throw new BioSimClientException("The server initialization is not completed!");
+			}
+			if (!statusMap.containsKey("settings") || !(statusMap.get("settings") instanceof Map)) {
+				throw new BioSimClientException("The status map does not contain the entry settings!");
+			}
+			settingsMap = new HashMap((Map) statusMap.get("settings"));
+		}
+		
+		BioSimServerSettings settings = BioSimServerSettings.parse(settingsMap);
+		if (isRetrievedFromServer) {
+			putMetadataSnapshot(snapshotKey, settingsMap);
+		}
+		if (settings.isClientSupported() && !settings.getClientMessage().isEmpty()) {
+			System.err.println(settings.getClientMessage());
+		}
+		return settings;
+	}
+	
+	private int getMaximumNbLocationsPerBatchNormals() throws BioSimClientException, BioSimServerException {
+		return getServerSettings().getMaximumNbLocationsPerBatchNormals();
+	}
+
+	/**
+	 * Provide the counters of the normals cache.
+	 * @return a BioSimCacheStatistics instance or null if the cache is disabled
+	 */
+	public BioSimCacheStatistics getNormalsCacheStatistics() {
+		BioSimLRUCache<String, BioSimDataSet> cache = normalsMemoryCache;
+		return cache == null ? null : cache.getStatistics();
+	}
+
+	/**
+	 * Provide the counters of the persistent cache. The number of entries and the size
+	 * are estimates since other processes may share the directory.
+	 * @return a BioSimCacheStatistics instance or null if the cache is disabled
+	 */
+	public BioSimCacheStatistics getPersistentCacheStatistics() {
+		BioSimDiskCache cache = persistentCache;
+		return cache == null ? null : cache.getStatistics();
+	}
+
+	/**
+	 * Provide the counters of the in-memory cache of the observed weather.
+	 * @return a BioSimCacheStatistics instance or null if the cache is disabled
+	 */
+	public BioSimCacheStatistics getObservedWeatherCacheStatistics() {
+		BioSimLRUCache<String, BioSimWeatherCache.Entry> cache = observedWeatherMemoryCache;
+		return cache == null ? null : cache.getStatistics();
+	}
+
+	/**
+	 * Provide the counters of the request hedging.
+	 * @return a BioSimHedgingStatistics instance or null if the hedging is disabled
+	 */
+	public BioSimHedgingStatistics getHedgingStatistics() {
+		return requestHedger == null ? null : requestHedger.getStatistics();
+	}
+
+	private BioSimWeatherCache getObservedWeatherCache(int lastDailyDate) {
+		BioSimLRUCache<String, BioSimWeatherCache.Entry> memoryCache = observedWeatherMemoryCache;
+		if (memoryCache == null) {
+			return null;
+		} else {
+			return new BioSimWeatherCache(memoryCache, persistentCache, getServerKey(), lastDailyDate);
+		}
+	}
+
+	private BioSimNormalsCache getNormalsCache() {
+		BioSimLRUCache<String, BioSimDataSet> memoryCache = normalsMemoryCache;
+		BioSimDiskCache diskCache = persistentCache;
+		if (memoryCache == null && diskCache == null) {
+			return null;
+		} else {
+			return new BioSimNormalsCache(memoryCache, diskCache, getServerKey());
+		}
+	}
+
+	/**
+	 * Provide a String that identifies the server in the keys of the caches.
+	 */
+	String getServerKey() {
+		return endpointSelector.getEndpoints().get(0).getURL();	// the replicas are expected to provide the same data
+	}
+
+	/**
+	 * For test purpose only.
+	 * @return the number of replicas of the server that are currently ejected
+	 */
+	int getNbEjectedEndpoints() {
+		return endpointSelector.getNbEjectedEndpoints();
+	}
+
+	/**
+	 * Return the maximum number of requests that can be sent concurrently to the server.
+	 * @return An integer
+	 */
+	public int getMaximumNbConcurrentRequests() {
+		return maximumNbConcurrentRequests;
+	}
+
+	/**
+	 * Return the maximum number of batches that a single call can send in parallel.
+	 * @return An integer
+	 */
+	public int getMaximumNbParallelBatches() {
+		return maximumNbParallelBatches == -1 ? maximumNbConcurrentRequests : Math.min(maximumNbParallelBatches, maximumNbConcurrentRequests);
+	}
+
+	/**
+	 * Check if the climate generation is forced.
+	 * @return a boolean 
+	 */
+	public boolean isForceClimateGenerationEnabled() {
+		return forceClimateGenerationEnabled;
+	}
+
+	/**
+	 * Return the number of climate station used in the imputation of the climate variables.
+	 * @return An integer
+	 */
+	public int getNbNearestNeighbours() {
+		if (nbNearestNeighbours == null) {
+			return 4; // default value
+		} else {
+			return nbNearestNeighbours;
+		}
+	}
+
+	/**
+	 * For test purpose only.
+	 * @return a boolean
+	 */
+	public boolean isTestModeEnabled() {return testModeEnabled;}
+
+	/**
+	 * For test purpose only.
+	 * @return a double
+	 */
+	public double getLastServerRequestDuration() {
+		return totalServerRequestDuration.sum();
+	}
+	
+	/**
+	 * Provide the latest year date of the daily.
+	 * @return an integer
+	 * @throws BioSimClientException
+	 * @throws BioSimServerException
+	 */
+	public int getLastDailyDateYr() throws BioSimClientException, BioSimServerException {
+		return getSupportedServerSettings().getLastDailyDate();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,618 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A column of a BioSimDataSet instance. <br>
+ * <br>
+ * The integers and the doubles are stored in primitive arrays and the strings are
+ * dictionary-encoded. A column is promoted to another kind when a value of another
+ * class is added. The methods that change the column return the column to be 
+ * used afterwards, which is either this column or the promoted one.
+ * @author agent - October 2026
+ */
+@SuppressWarnings("serial")
+abstract class BioSimColumn implements Serializable {
+
+	private static final int INITIAL_CAPACITY = 16;
+	
+	protected int size;
+
+	/**
+	 * Create an empty column.
+	 * @return a BioSimColumn instance
+	 */
+	static BioSimColumn create() {
+		return new IntColumn(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Create an empty column that is expected to contain values of a particular class.
+	 * @param expectedType the expected class of the values (Integer, Double or String)
+	 * @param expectedSize the expected number of values
+	 * @return a BioSimColumn instance
+	 */
+	static BioSimColumn create(Class<?> expectedType, int expectedSize) {
+		int capacity = Math.max(INITIAL_CAPACITY, expectedSize);
+		if (Double.class.equals(expectedType)) {
+			return new DoubleColumn(capacity);
+		} else if (String.class.equals(expectedType)) {
+			return new StringColumn(capacity);
+		} else {
+			return new IntColumn(capacity);
+		}
+	}
+	
+	final int size() {return size;}
+	
+	final void checkIndex(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+		}
+	}
+	
+	static int getNewCapacity(int capacity) {
+		return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+	}
+	
+	/**
+	 * Provide the value at a particular row.
+	 * @param row the index of the row
+	 * @return an Integer, a Double or a String instance
+	 */
+	abstract Object get(int row);
+
+	/**
+	 * Provide the value at a particular row as a double.
+	 * @param row the index of the row
+	 * @return a double
+	 */
+	double getDouble(int row) {
+		return ((Number) get(row)).doubleValue();
+	}
+	
+	/**
+	 * Add a value at the end of the column.
+	 * @param value an Integer, a Double or a String instance
+	 * @return the column to be used afterwards
+	 */
+	abstract BioSimColumn append(Object value);
+
+	/**
+	 * Parse a field and add its value at the end of the column. The columns override
+	 * this method so that the values of their own class are added without creating 
+	 * any object.
+	 * @param line the line
+	 * @param start the index of the first character of the field
+	 * @param end the index following the last character of the field 
+	 * @param parser a BioSimValueParser instance
+	 * @return the column to be used afterwards
+	 */
+	BioSimColumn appendField(String line, int start, int end, BioSimValueParser parser) {
+		return append(parser.parseField(line, start, end));
+	}
+	
+	/**
+	 * Replace the value at a particular row.
+	 * @param row the index of the row
+	 * @param value an Integer, a Double or a String instance
+	 * @return the column to be used afterwards
+	 */
+	abstract BioSimColumn set(int row, Object value);
+	
+	/**
+	 * Remove the value at a particular row.
+	 * @param row the index of the row
+	 */
+	abstract void remove(int row);
+	
+	/**
+	 * Provide a deep copy of this column.
+	 * @return a BioSimColumn instance
+	 */
+	abstract BioSimColumn copy();
+
+	/**
+	 * Provide a rough estimate of the heap used by this column.
+	 * @return the number of bytes
+	 */
+	abstract long getEstimatedNbBytes();
+	
+	/**
+	 * Set the definitive class of the values. The integers are converted into doubles
+	 * if the column also holds doubles. All the numbers are converted into strings if the 
+	 * column also holds strings. An empty column is considered as an integer column.
+	 * @return the column to be used afterwards
+	 */
+	abstract BioSimColumn index();
+	
+	/**
+	 * Provide the class of the values once the column has been indexed.
+	 * @return a Class instance
+	 */
+	abstract Class<?> getFieldType();
+	
+	/**
+	 * Create an ObjectColumn instance with the values of this column. 
+	 */
+	final ObjectColumn toObjectColumn() {
+		ObjectColumn column = new ObjectColumn(Math.max(INITIAL_CAPACITY, size));
+		for (int i = 0; i < size; i++) {
+			column.append(get(i));
+		}
+		return column;
+	}
+	
+	
+	static final class IntColumn extends BioSimColumn {
+
+		private int[] values;
+		
+		IntColumn(int capacity) {
+			values = new int[capacity];
+		}
+		
+		@Override
+		Object get(int row) {
+			checkIndex(row);
+			return values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			checkIndex(row);
+			return values[row];
+		}
+
+		int getInt(int row) {
+			checkIndex(row);
+			return values[row];
+		}
+		
+		void appendInt(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, getNewCapacity(size));
+			}
+			values[size++] = value;
+		}
+		
+		@Override
+		BioSimColumn appendField(String line, int start, int end, BioSimValueParser parser) {
+			if (size > 0 && parser.scan(line, start, end) == BioSimValueParser.INTEGER) {
+				appendInt(parser.getIntValue());
+				return this;
+			}
+			return super.appendField(line, start, end, parser);
+		}
+		
+		@Override
+		BioSimColumn append(Object value) {
+			if (value instanceof Integer) {
+				appendInt((Integer) value);
+				return this;
+			} else if (size == 0) {		// the first value sets the kind of column
+				BioSimColumn column = value instanceof Double ? 
+						new DoubleColumn(values.length) : 
+							value instanceof String || value == null ? 
+									new StringColumn(values.length) :
+										new ObjectColumn(values.length);	
+				return column.append(value);
+			} else {
+				return (value instanceof Double ? toDoubleColumn() : toObjectColumn()).append(value);
+			}
+		}
+
+		private DoubleColumn toDoubleColumn() {
+			DoubleColumn column = new DoubleColumn(values.length);
+			for (int i = 0; i < size; i++) {
+				column.appendIntOrigin(values[i]);
+			}
+			return column;
+		}
+		
+		@Override
+		BioSimColumn set(int row, Object value) {
+			checkIndex(row);
+			if (value instanceof Integer) {
+				values[row] = (Integer) value;
+				return this;
+			} else {
+				return (value instanceof Double ? toDoubleColumn() : toObjectColumn()).set(row, value);
+			}
+		}
+
+		@Override
+		void remove(int row) {
+			checkIndex(row);
+			System.arraycopy(values, row + 1, values, row, size - row - 1);
+			size--;
+		}
+
+		@Override
+		long getEstimatedNbBytes() {return 32 + 4L * values.length;}
+
+		@Override
+		BioSimColumn copy() {
+			IntColumn copy = new IntColumn(0);
+			copy.values = Arrays.copyOf(values, size);
+			copy.size = size;
+			return copy;
+		}
+
+		@Override
+		BioSimColumn index() {return this;}
+
+		@Override
+		Class<?> getFieldType() {return Integer.class;}
+	}
+	
+	/**
+	 * A column of doubles. The integers that are added to this column are flagged
+	 * so that they are seen as integers until the column is indexed. 
+	 */
+	static final class DoubleColumn extends BioSimColumn {
+		
+		private double[] values;
+		private BitSet intOrigin;
+		
+		DoubleColumn(int capacity) {
+			values = new double[capacity];
+		}
+		
+		private boolean isIntOrigin(int row) {
+			return intOrigin != null && intOrigin.get(row);
+		}
+		
+		@Override
+		Object get(int row) {
+			checkIndex(row);
+			return isIntOrigin(row) ? (Object) Integer.valueOf((int) values[row]) : (Object) Double.valueOf(values[row]);
+		}
+
+		@Override
+		double getDouble(int row) {
+			checkIndex(row);
+			return values[row];
+		}
+
+		void appendDouble(double value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, getNewCapacity(size));
+			}
+			values[size++] = value;
+		}
+
+		void appendIntOrigin(int value) {
+			if (intOrigin == null) {
+				intOrigin = new BitSet();
+			}
+			intOrigin.set(size);
+			appendDouble(value);
+		}
+		
+		@Override
+		BioSimColumn appendField(String line, int start, int end, BioSimValueParser parser) {
+			switch(parser.scan(line, start, end)) {
+			case BioSimValueParser.DOUBLE:
+				appendDouble(parser.getDoubleValue());
+				return this;
+			case BioSimValueParser.INTEGER:
+				appendIntOrigin(parser.getIntValue());
+				return this;
+			default:
+				return super.appendField(line, start, end, parser);
+			}
+		}
+
+		@Override
+		BioSimColumn append(Object value) {
+			if (value instanceof Double) {
+				appendDouble((Double) value);
+				return this;
+			} else if (value instanceof Integer) {
+				appendIntOrigin((Integer) value);
+				return this;
+			} else {
+				return toObjectColumn().append(value);
+			}
+		}
+
+		@Override
+		BioSimColumn set(int row, Object value) {
+			checkIndex(row);
+			if (value instanceof Double || value instanceof Integer) {
+				values[row] = ((Number) value).doubleValue();
+				if (value instanceof Integer) {
+					if (intOrigin == null) {
+						intOrigin = new BitSet();
+					}
+					intOrigin.set(row);
+				} else if (intOrigin != null) {
+					intOrigin.clear(row);
+				}
+				return this;
+			} else {
+				return toObjectColumn().set(row, value);
+			}
+		}
+
+		@Override
+		void remove(int row) {
+			checkIndex(row);
+			System.arraycopy(values, row + 1, values, row, size - row - 1);
+			if (intOrigin != null) {
+				for (int i = row; i < size - 1; i++) {
+					intOrigin.set(i, intOrigin.get(i + 1));
+				}
+				intOrigin.clear(size - 1);
+			}
+			size--;
+		}
+
+		@Override
+		long getEstimatedNbBytes() {
+			return 48 + 8L * values.length + (intOrigin == null ? 0 : intOrigin.size() / 8);
+		}
+
+		@Override
+		BioSimColumn copy() {
+			DoubleColumn copy = new DoubleColumn(0);
+			copy.values = Arrays.copyOf(values, size);
+			copy.intOrigin = intOrigin == null ? null : (BitSet) intOrigin.clone();
+			copy.size = size;
+			return copy;
+		}
+
+		@Override
+		BioSimColumn index() {
+			if (size == 0) {
+				return create();
+			} else if (intOrigin != null && intOrigin.cardinality() == size) {		// only integers are left
+				IntColumn column = new IntColumn(Math.max(INITIAL_CAPACITY, size));
+				for (int i = 0; i < size; i++) {
+					column.appendInt((int) values[i]);
+				}
+				return column;
+			}
+			intOrigin = null;	// the integers are now doubles
+			return this;
+		}
+
+		@Override
+		Class<?> getFieldType() {return Double.class;}
+	}
+	
+	/**
+	 * A column of dictionary-encoded strings. 
+	 */
+	static final class StringColumn extends BioSimColumn {
+
+		private static final int SMALL_DICTIONARY_SIZE = 8;
+
+		private int[] codes;
+		private final List<String> dictionary;
+		private final Map<String, Integer> codeMap;
+		
+		StringColumn(int capacity) {
+			codes = new int[capacity];
+			dictionary = new ArrayList<String>();
+			codeMap = new HashMap<String, Integer>();
+		}
+
+		private int getCode(String value) {
+			Integer code = codeMap.get(value);
+			if (code == null) {
+				code = dictionary.size();
+				dictionary.add(value);
+				codeMap.put(value, code);
+			}
+			return code;
+		}
+		
+		@Override
+		Object get(int row) {
+			checkIndex(row);
+			return dictionary.get(codes[row]);
+		}
+		
+		void appendString(String value) {
+			if (size == codes.length) {
+				codes = Arrays.copyOf(codes, getNewCapacity(size));
+			}
+			codes[size++] = getCode(value);
+		}
+
+		@Override
+		BioSimColumn appendField(String line, int start, int end, BioSimValueParser parser) {
+			if (parser.scan(line, start, end) == BioSimValueParser.STRING) {
+				int code = findCode(line, start, end);
+				if (code == -1) {
+					appendString(line.substring(start, end));
+				} else {
+					if (size == codes.length) {
+						codes = Arrays.copyOf(codes, getNewCapacity(size));
+					}
+					codes[size++] = code;
+				}
+				return this;
+			}
+			return super.appendField(line, start, end, parser);
+		}
+
+		/**
+		 * Look for a field in a small dictionary without creating a String instance.
+		 * @return the code of the field or -1 if it has not been found
+		 */
+		private int findCode(String line, int start, int end) {
+			int length = end - start;
+			if (dictionary.size() <= SMALL_DICTIONARY_SIZE) {
+				for (int code = 0; code < dictionary.size(); code++) {
+					String value = dictionary.get(code);
+					if (value != null && value.length() == length && line.regionMatches(start, value, 0, length)) {
+						return code;
+					}
+				}
+			}
+			return -1;
+		}
+		
+		@Override
+		BioSimColumn append(Object value) {
+			if (value instanceof String || value == null) {
+				appendString((String) value);
+				return this;
+			} else {
+				return toObjectColumn().append(value);
+			}
+		}
+
+		@Override
+		BioSimColumn set(int row, Object value) {
+			checkIndex(row);
+			if (value instanceof String || value == null) {
+				codes[row] = getCode((String) value);
+				return this;
+			} else {
+				return toObjectColumn().set(row, value);
+			}
+		}
+
+		@Override
+		void remove(int row) {
+			checkIndex(row);
+			System.arraycopy(codes, row + 1, codes, row, size - row - 1);
+			size--;
+		}
+
+		@Override
+		long getEstimatedNbBytes() {
+			long nbBytes = 96 + 4L * codes.length;
+			for (String value : dictionary) {
+				nbBytes += 80 + (value == null ? 0 : 2L * value.length());	// the string and the entry of the code map
+			}
+			return nbBytes;
+		}
+
+		@Override
+		BioSimColumn copy() {
+			StringColumn copy = new StringColumn(0);
+			copy.codes = Arrays.copyOf(codes, size);
+			copy.dictionary.addAll(dictionary);
+			copy.codeMap.putAll(codeMap);
+			copy.size = size;
+			return copy;
+		}
+
+		@Override
+		BioSimColumn index() {
+			return size == 0 ? create() : this;
+		}
+
+		@Override
+		Class<?> getFieldType() {return String.class;}
+	}
+
+	/**
+	 * A column of values of different classes. This column only exists until the column 
+	 * is indexed.
+	 */
+	static final class ObjectColumn extends BioSimColumn {
+
+		private Object[] values;
+		
+		ObjectColumn(int capacity) {
+			values = new Object[capacity];
+		}
+		
+		@Override
+		Object get(int row) {
+			checkIndex(row);
+			return values[row];
+		}
+
+		@Override
+		BioSimColumn append(Object value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, getNewCapacity(size));
+			}
+			values[size++] = value;
+			return this;
+		}
+
+		@Override
+		BioSimColumn set(int row, Object value) {
+			checkIndex(row);
+			values[row] = value;
+			return this;
+		}
+
+		@Override
+		void remove(int row) {
+			checkIndex(row);
+			System.arraycopy(values, row + 1, values, row, size - row - 1);
+			values[--size] = null;
+		}
+
+		@Override
+		long getEstimatedNbBytes() {return 32 + 4L * values.length + 24L * size;}	// boxed values
+
+		@Override
+		BioSimColumn copy() {
+			ObjectColumn copy = new ObjectColumn(0);
+			copy.values = Arrays.copyOf(values, size);
+			copy.size = size;
+			return copy;
+		}
+
+		@Override
+		BioSimColumn index() {
+			BioSimColumn column = create();
+			for (int i = 0; i < size; i++) {
+				column = column.append(values[i]);
+			}
+			if (column instanceof ObjectColumn) {	// numbers and strings
+				StringColumn stringColumn = new StringColumn(Math.max(INITIAL_CAPACITY, size));
+				for (int i = 0; i < size; i++) {
+					Object value = values[i];
+					stringColumn.appendString(value instanceof Number ? value.toString() : (String) value);
+				}
+				return stringColumn;
+			} else {
+				return column.index();
+			}
+		}
+
+		@Override
+		Class<?> getFieldType() {
+			throw new UnsupportedOperationException("The column must be indexed first!");
+		}
+	}
+	
+}
@@ -21,19 +21,29 @@
  */
 package biosimclient;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import biosimclient.BioSimColumn.IntColumn;
 import biosimclient.BioSimEnums.Month;
 
 /**
  * Handles the server replies. This class derived from DataSet includes
  * a function that makes it possible to convert the DataSet instance into
  * a Map provided that there is no repeated entry. Should it be the case,
- * tjhe getMap method would throw an Exception.
+ * tjhe getMap method would throw an Exception.<br>
+ * <br>
+ * The values are stored column-wise. The integer and double columns are primitive arrays
+ * and the string columns are dictionary-encoded. The observations are views of the rows.
  *
  * @author Mathieu Fortin - March 2020
  *
@@ -41,39 +51,172 @@ import biosimclient.BioSimEnums.Month;
 @SuppressWarnings("serial")
 public final class BioSimDataSet implements Serializable {
 
-	protected List<String> fieldNames;
+	/**
+	 * The values of an observation, which are read from and written to the columns. The
+	 * view is no longer valid once the rows have been removed or sorted. It is serialized 
+	 * as a copy of its values.
+	 */
+	private static final class RowValues extends AbstractList<Object> implements Serializable {
+		
+		private final BioSimDataSet dataSet;
+		private final int row;
+		private final int rowOrderVersion;
+		
+		private RowValues(BioSimDataSet dataSet, int row) {
+			this.dataSet = dataSet;
+			this.row = row;
+			rowOrderVersion = dataSet.rowOrderVersion;
+		}
+		
+		private void checkRowOrder() {
+			if (rowOrderVersion != dataSet.rowOrderVersion) {
+				throw new ConcurrentModificationException("The observations of the data set have been removed or sorted since this observation was retrieved!");
+			}
+		}
+		
+		@Override
+		public Object get(int j) {
+			checkRowOrder();
+			return dataSet.getValueAt(row, j);
+		}
+
+		@Override
+		public Object set(int j, Object value) {
+			checkRowOrder();
+			Object formerValue = dataSet.getValueAt(row, j);
+			dataSet.setValueAt(row, j, value);
+			return formerValue;
+		}
+		
+		@Override
+		public int size() {
+			checkRowOrder();
+			return dataSet.columns.size();
+		}
+		
+		private Object writeReplace() throws ObjectStreamException {
+			return new ArrayList<Object>(this);		// otherwise the whole data set would be serialized
+		}
+	}
+	
+	/**
+	 * The list of the observations, which are views of the rows. Setting an observation
+	 * copies its values into the row, so that the list can be sorted.
+	 */
+	private final class ObservationList extends AbstractList<Observation> {
+
+		@Override
+		public Observation get(int i) {
+			if (i < 0 || i >= nbObservations) {
+				throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + nbObservations);
+			}
+			return new Observation(new RowValues(BioSimDataSet.this, i));
+		}
+
+		@Override
+		public int size() {
+			return nbObservations;
+		}
+
+		@Override
+		public void add(int i, Observation obs) {
+			if (i != nbObservations) {
+				throw new UnsupportedOperationException("The observations can only be added at the end of the data set!");
+			}
+			appendValues(obs.toArray());
+		}
+		
+		@Override
+		public Observation remove(int i) {
+			Observation formerObservation = new Observation(get(i).toArray());
+			removeObservation(i);
+			rowOrderVersion++;
+			return formerObservation;
+		}
+
+		@Override
+		public Observation set(int i, Observation obs) {
+			Object[] values = obs.toArray();	// copied first since obs may be a view of this row
+			if (values.length < columns.size()) {
+				throw new ArrayIndexOutOfBoundsException(values.length);
+			}
+			Observation formerObservation = new Observation(get(i).toArray());
+			for (int j = 0; j < columns.size(); j++) {
+				setValueAt(i, j, values[j]);
+			}
+			return formerObservation;
+		}
+
+		@Override
+		public void sort(Comparator<? super Observation> c) {
+			List<Observation> copies = new ArrayList<Observation>(nbObservations);	// the views would change as the rows are set
+			for (int i = 0; i < nbObservations; i++) {
+				copies.add(new Observation(get(i).toArray()));
+			}
+			copies.sort(c);
+			for (int i = 0; i < nbObservations; i++) {
+				set(i, copies.get(i));
+			}
+			rowOrderVersion++;
+		}
+	}
+	
+	private BioSimSchema schema;
 	protected List<Class<?>> fieldTypes;
-	protected List<Observation> observations;
+	
+	private List<BioSimColumn> columns;
+	private int nbObservations;
+	private transient List<Observation> observations;
+	private transient int rowOrderVersion;	// incremented whenever the rows are removed or sorted
 
 	/**
 	 * Only constructor with the field names.
 	 * @param fieldNames a List of String instances
 	 */
 	public BioSimDataSet(List<String> fieldNames) {
-		this.fieldNames = new ArrayList<String>();
-		fieldTypes = new ArrayList<Class<?>>();
-		observations = new ArrayList<Observation>();
-		for (String fieldName : fieldNames) {
-			addFieldName(fieldName);
-		}
+		this(BioSimSchema.getSchema(fieldNames));
+	}
+
+	/**
+	 * Constructor with a shared schema.
+	 * @param schema a BioSimSchema instance
+	 */
+	BioSimDataSet(BioSimSchema schema) {
+		this(schema, null, 0);
 	}
 
-	private void addFieldName(String originalName) {
-		int index = 0;
-		String name = originalName;
-		while (fieldNames.contains(name)) {
-			name = originalName + index;
-			index++;
+	/**
+	 * Constructor with a shared schema and the expected field types. <br>
+	 * <br>
+	 * The columns are created for the expected types so that the values are parsed straight
+	 * into them. If a value turns out to be of another class, the column falls back on inference.
+	 * @param schema a BioSimSchema instance
+	 * @param expectedFieldTypes the expected classes of the fields (can be null)
+	 * @param expectedNbObservations the expected number of observations
+	 */
+	BioSimDataSet(BioSimSchema schema, List<Class<?>> expectedFieldTypes, int expectedNbObservations) {
+		this.schema = schema;
+		fieldTypes = BioSimSchema.getFieldTypes(Collections.<Class<?>>emptyList());
+		columns = new ArrayList<BioSimColumn>(schema.getNumberOfFields());
+		for (int j = 0; j < schema.getNumberOfFields(); j++) {
+			columns.add(expectedFieldTypes != null && j < expectedFieldTypes.size() ?
+					BioSimColumn.create(expectedFieldTypes.get(j), expectedNbObservations) :
+						BioSimColumn.create());
 		}
-		fieldNames.add(name);
 	}
+	
+	/**
+	 * Provide the schema of this data set.
+	 * @return a BioSimSchema instance
+	 */
+	BioSimSchema getSchema() {return schema;}
 
 	/**
 	 * This method returns the number of observations in the dataset.
 	 * @return an integer
 	 */
 	public int getNumberOfObservations() {
-		return observations.size();
+		return nbObservations;
 	}
 
 	/**
@@ -83,7 +226,7 @@ public final class BioSimDataSet implements Serializable {
 	 */
 	public List<String> getFieldNames() {
 		List<String> fieldNames = new ArrayList<String>();
-		fieldNames.addAll(this.fieldNames);
+		fieldNames.addAll(schema.getFieldNames());
 		return fieldNames;
 	}
 
@@ -94,96 +237,129 @@ public final class BioSimDataSet implements Serializable {
 	 * field. This method should be called after adding all the observations.
 	 */
 	public void indexFieldType() {
-		fieldTypes.clear();
-		for (int j = 0; j < fieldNames.size(); j++) {
-			setClassOfThisField(j);
+		Class<?>[] types = new Class<?>[columns.size()];
+		for (int j = 0; j < columns.size(); j++) {
+			types[j] = indexColumn(j);
 		}
+		fieldTypes = BioSimSchema.getFieldTypes(Arrays.asList(types));
 	}
 
 	/**
-	 * Returns the observations of the data set.
+	 * Returns the observations of the data set. <br>
+	 * <br>
+	 * The observations are views of the rows of the data set. Changing the values of an 
+	 * observation changes the data set and, conversely, an observation reflects the changes 
+	 * made to its row afterwards, including through the set method of the list. Observations 
+	 * can be removed from the list, added at the end of it or set, in which case their values 
+	 * are copied into the row. The list can then be sorted. Once observations have been removed 
+	 * or sorted, reading the observations retrieved beforehand throws a ConcurrentModificationException. 
+	 * An observation that must outlive these changes should be copied first, e.g. through its 
+	 * toArray method. A serialized observation holds a copy of its values.
 	 * @return a List of Observation instances
 	 */
 	public List<Observation> getObservations() {
+		if (observations == null) {
+			observations = new ObservationList();
+		}
 		return observations;
 	}
 	
 	public void addObservation(Object[] observationFrame) {
-		for (int i = 0; i < fieldNames.size(); i++) {
+		for (int i = 0; i < columns.size(); i++) {
 			observationFrame[i] = parseValue(observationFrame[i]);
 		}
-		observations.add(new Observation(observationFrame));
+		appendValues(observationFrame);
 	}
 
-	
-	private Object parseValue(Object o) {
-		if (o instanceof Double || o instanceof Integer) {
-			return o;
-		} else {
-			String valueStr = o.toString();
-			if (valueStr.contains(".") || valueStr.contains("e") || valueStr.contains("E")) { // might be a double or a string
-//				String originalString = valueStr;
-				try {
-//					if (valueStr.contains("e+")) {
-//						valueStr = valueStr.replace("e+", "E+");
-//					} else if (valueStr.contains("e-")) {
-//						valueStr = valueStr.replace("e-", "E-");
-//					}
-					return Double.parseDouble(valueStr);
-				} catch (NumberFormatException e2) {
-//					return originalString;
-					return valueStr;
-				}
-			} else {	// might be an integer or a string
-				try {
-					return Integer.parseInt(valueStr);
-				} catch (NumberFormatException e2) {
-					return valueStr;
-				}
-			}
+	/**
+	 * Add a row without parsing the values. The values in excess of the number of
+	 * fields are ignored.
+	 */
+	private void appendValues(Object[] values) {
+		if (values.length < columns.size()) {
+			throw new ArrayIndexOutOfBoundsException(values.length);
 		}
-	}
-	
-	private void setClassOfThisField(int fieldIndex) {
-		if (isInteger(fieldIndex)) {
-			setFieldType(fieldIndex, Integer.class);
-		} else if (isDouble(fieldIndex)) {
-			setFieldType(fieldIndex, Double.class);
-			reconvertToDoubleIfNeedsBe(fieldIndex);
-		} else {
-			setFieldType(fieldIndex, String.class);
-			reconvertToStringIfNeedsBe(fieldIndex);
+		for (int j = 0; j < columns.size(); j++) {
+			columns.set(j, columns.get(j).append(values[j]));
 		}
+		nbObservations++;
 	}
 	
-	private boolean isInteger(int j) {
-		boolean isInteger = true;
-		for (int i = 0; i < getNumberOfObservations(); i++) {
-			if (!(getValueAt(i,j) instanceof Integer)) {
-				isInteger = false;
-				break;
-			} 
+	/**
+	 * Copy a row of another data set with the same fields. The values are not parsed again.
+	 * @param source a BioSimDataSet instance
+	 * @param i the index of the row in the source
+	 */
+	void appendObservation(BioSimDataSet source, int i) {
+		Object[] values = new Object[columns.size()];
+		for (int j = 0; j < values.length; j++) {
+			values[j] = source.getValueAt(i, j);
 		}
-		return isInteger;
+		appendValues(values);
 	}
 
-
-	private void reconvertToStringIfNeedsBe(int j) {
-		for (int i = 0; i < getNumberOfObservations(); i++) {
-			Object value = getValueAt(i,j);
-			if ((value instanceof Number)) {
-				setValueAt(i,j, value.toString());
-			}
-		} 
+	/**
+	 * Add the observation held by a tokenizer. The fields are parsed straight from the 
+	 * tokenized line into the columns.
+	 * @param tokenizer a BioSimLineTokenizer instance
+	 */
+	void addObservation(BioSimLineTokenizer tokenizer) {
+		addObservation(tokenizer, null);
 	}
 
-	private void reconvertToDoubleIfNeedsBe(int j) {
-		for (int i = 0; i < getNumberOfObservations(); i++) {
-			Object value = getValueAt(i,j);
-			if ((value instanceof Integer)) {
-				setValueAt(i,j, ((Integer) value).doubleValue()); // MF2020-04-30 Bug corrected here it was previously changed for a String
+	/**
+	 * Add the selected fields of the observation held by a tokenizer. 
+	 * @param tokenizer a BioSimLineTokenizer instance
+	 * @param fieldIndices the indices of the fields in the tokenized line (null to take the fields in order)
+	 */
+	void addObservation(BioSimLineTokenizer tokenizer, int[] fieldIndices) {
+		int nbFields = tokenizer.getNumberOfFields();
+		int nbFieldsRequired = fieldIndices == null ? 
+				columns.size() : 
+					fieldIndices.length == 0 ? 0 : fieldIndices[fieldIndices.length - 1] + 1;
+		if (nbFields < nbFieldsRequired) {
+			throw new ArrayIndexOutOfBoundsException(nbFields);		// same behaviour as addObservation(Object[])
+		}
+		String line = tokenizer.getLine();
+		BioSimValueParser parser = tokenizer.getValueParser();
+		for (int j = 0; j < columns.size(); j++) {
+			int k = fieldIndices == null ? j : fieldIndices[j];
+			BioSimColumn column = columns.get(j);
+			BioSimColumn newColumn = column.appendField(line, tokenizer.getStart(k), tokenizer.getEnd(k), parser);
+			if (newColumn != column) {
+				columns.set(j, newColumn);
 			}
-		} 
+		}
+		nbObservations++;
+	}
+	
+	private void removeObservation(int i) {
+		for (BioSimColumn column : columns) {
+			column.remove(i);
+		}
+		nbObservations--;
+	}
+	
+	private Object parseValue(Object o) {
+		if (o instanceof Double || o instanceof Integer) {
+			return o;
+		} else {
+			return BioSimValueParser.parse(o.toString());
+		}
+	}
+	
+	/**
+	 * Find the class of a field from the classes of its values. The values are converted only
+	 * if the column holds different classes. In such a case, the Integer instances are converted 
+	 * into Double instances if the other values are Double instances. Otherwise, all the numbers are 
+	 * converted into String instances. 
+	 * @param fieldIndex the index of the field
+	 * @return the class of the field
+	 */
+	private Class<?> indexColumn(int fieldIndex) {
+		BioSimColumn column = columns.get(fieldIndex).index();
+		columns.set(fieldIndex, column);
+		return column.getFieldType();
 	}
 
 	/**
@@ -193,49 +369,60 @@ public final class BioSimDataSet implements Serializable {
 	 * @return an Object instance
 	 */
 	protected Object getValueAt(int i, int j) {
-		return observations.get(i).values.get(j);
+		return columns.get(j).get(i);
 	}
 
-
 	private void setValueAt(int i, int j, Object value) {
-		if (value.getClass().equals(fieldTypes.get(j))) {
-			observations.get(i).values.remove(j);
-			observations.get(i).values.add(j, value);
-		} 
+		columns.set(j, columns.get(j).set(i, value));
 	}
-
-	private boolean isDouble(int indexJ) {
-		boolean isDouble = true;
-		for (int i = 0; i < getNumberOfObservations(); i++) {
-			if (!(getValueAt(i,indexJ) instanceof Number)) {
-					isDouble = false;
-					break;
-			} 
-		}
-		return isDouble;
+	
+	/**
+	 * Provide the value at row i and column j as a double. The value must be numeric.
+	 * @param i the index of the row
+	 * @param j the index of the column
+	 * @return a double
+	 */
+	public double getDouble(int i, int j) {
+		return columns.get(j).getDouble(i);
 	}
 
-
-	@SuppressWarnings("rawtypes")
-	private void setFieldType(int fieldIndex, Class clazz) {
-		if (fieldIndex < fieldTypes.size()) {
-			fieldTypes.set(fieldIndex, clazz);	
-		} else if (fieldIndex == fieldTypes.size()) {
-			fieldTypes.add(clazz);	
+	/**
+	 * Provide the value at row i and column j as an int. The field must be of the 
+	 * Integer class.
+	 * @param i the index of the row
+	 * @param j the index of the column
+	 * @return an int
+	 */
+	public int getInt(int i, int j) {
+		BioSimColumn column = columns.get(j);
+		if (column instanceof IntColumn) {
+			return ((IntColumn) column).getInt(i);
 		} else {
-			throw new InvalidParameterException("The field type cannot be set!");
+			throw new InvalidParameterException("The field " + schema.getFieldNames().get(j) + " does not contain integers!");
 		}
 	}
 
+	/**
+	 * Provide the value at row i and column j as a String. 
+	 * @param i the index of the row
+	 * @param j the index of the column
+	 * @return a String instance
+	 */
+	public String getString(int i, int j) {
+		Object value = getValueAt(i, j);
+		return value == null ? null : value.toString();
+	}
+	
 	/**
 	 * This method returns a list of the values in a particular field.
 	 * @param i the field id
 	 * @return a List of object instance
 	 */
 	public List<Object> getFieldValues(int i) {
-		List<Object> objs = new ArrayList<Object>();
- 		for (Observation obs : observations) {
- 			objs.add(obs.values.get(i));
+		BioSimColumn column = columns.get(i);
+		List<Object> objs = new ArrayList<Object>(nbObservations);
+ 		for (int row = 0; row < nbObservations; row++) {
+ 			objs.add(column.get(row));
  		}
  		return objs;
 	}
@@ -270,11 +457,13 @@ public final class BioSimDataSet implements Serializable {
 	
 	
 	void removeField(int fieldId) {
-		for (Observation obs : getObservations()) {
-			obs.values.remove(fieldId);
+		columns.remove(fieldId);
+		if (fieldId < fieldTypes.size()) {
+			List<Class<?>> newFieldTypes = new ArrayList<Class<?>>(fieldTypes);
+			newFieldTypes.remove(fieldId);
+			fieldTypes = BioSimSchema.getFieldTypes(newFieldTypes);
 		}
-		fieldTypes.remove(fieldId);
-		fieldNames.remove(fieldId);
+		schema = schema.removeField(fieldId);
 	}
 	
 	
@@ -316,11 +505,13 @@ public final class BioSimDataSet implements Serializable {
 	}
 	
 	boolean areEqual(BioSimDataSet otherDataset) {
-		if (fieldNames.equals(otherDataset.fieldNames)) {
+		if (schema == otherDataset.schema || schema.getFieldNames().equals(otherDataset.schema.getFieldNames())) {
 			if (fieldTypes.equals(otherDataset.fieldTypes)) {
-				if (observations.size() == otherDataset.observations.size()) {
-					for (int i = 0; i < observations.size(); i++) {
-						if (!observations.get(i).isEqualToThisObservation(otherDataset.observations.get(i))) {
+				if (nbObservations == otherDataset.nbObservations) {
+					List<Observation> observations = getObservations();
+					List<Observation> otherObservations = otherDataset.getObservations();
+					for (int i = 0; i < nbObservations; i++) {
+						if (!observations.get(i).isEqualToThisObservation(otherObservations.get(i))) {
 							return false;
 						}
 					}
@@ -332,6 +523,7 @@ public final class BioSimDataSet implements Serializable {
 	}
 	
 	
+	
 	/**
 	 * Add a field and its value to the DataSet instance.<p>
 	 * The field argument must have the same size than the number of observations. 
@@ -339,29 +531,49 @@ public final class BioSimDataSet implements Serializable {
 	 * @param field an array of Object instances 
 	 */
 	public void addField(String name, Object[] field) {
-		if (observations.size() > 0 && field.length != observations.size()) {	// will only trigger if there are some observations already
+		if (nbObservations > 0 && field.length != nbObservations) {	// will only trigger if there are some observations already
 			throw new InvalidParameterException("The number of observations in the new field does not match the number of observations in the dataset!");
 		}
-		addFieldName(name);
+		if (nbObservations == 0 && !columns.isEmpty() && field.length > 0) {
+			throw new InvalidParameterException("The data set has fields but no observation! The values of the new field cannot be added.");
+		}
+		schema = schema.addField(name);
 		
+		BioSimColumn column = BioSimColumn.create();
 		for (int i = 0; i < field.length; i++) {
-			Object parsedValue = this.parseValue(field[i]);
-			if (i < observations.size()) { // means the observation exists already 
-				observations.get(i).values.add(parsedValue);
-			} else {
-				observations.add(new Observation(new Object[] {parsedValue}));
-			}
+			column = column.append(parseValue(field[i]));
 		}
+		columns.add(column);
+		nbObservations = field.length;
 		
-		setClassOfThisField(fieldNames.size() - 1);
+		if (fieldTypes.size() != columns.size() - 1) {
+			throw new InvalidParameterException("The field type cannot be set!");
+		}
+		Class<?> fieldType = indexColumn(columns.size() - 1);
+		List<Class<?>> newFieldTypes = new ArrayList<Class<?>>(fieldTypes);
+		newFieldTypes.add(fieldType);
+		fieldTypes = BioSimSchema.getFieldTypes(newFieldTypes);
+	}
+
+	/**
+	 * Provide a rough estimate of the heap used by this data set.
+	 * @return the number of bytes
+	 */
+	long getEstimatedNbBytes() {
+		long nbBytes = 64;
+		for (BioSimColumn column : columns) {
+			nbBytes += column.getEstimatedNbBytes();
+		}
+		return nbBytes;
 	}
 
 	@Override
 	public BioSimDataSet clone() {
-		BioSimDataSet clone = new BioSimDataSet(getFieldNames());
-		for (Observation o : getObservations()) {
-			clone.addObservation(o.toArray());
+		BioSimDataSet clone = new BioSimDataSet(schema);
+		for (int j = 0; j < columns.size(); j++) {
+			clone.columns.set(j, columns.get(j).copy());
 		}
+		clone.nbObservations = nbObservations;
 		clone.indexFieldType();
 		return clone;
 	}
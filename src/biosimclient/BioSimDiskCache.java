@@ -0,0 +1,297 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A persistent cache that stores serialized objects in a directory. <br>
+ * <br>
+ * Each entry is a file whose name is a hash of its key. An entry is written to a temporary 
+ * file first and then moved atomically so that the other threads and processes never read 
+ * a partial entry. Several processes can then share the same directory. The entries start 
+ * with the format version and their key. The entries of another version are ignored and 
+ * they are stored in another subdirectory anyway. <br>
+ * <br>
+ * Once the size of the directory exceeds the maximum, the least recently used entries are 
+ * deleted. A lock file prevents the processes from evicting entries at the same time. <br>
+ * <br>
+ * Since the directory may be written by other processes, the entries can only contain the classes
+ * of the cached values, the boxed types, the strings and the usual collections. An entry with
+ * any other class is treated as a miss.
+ * @author agent - October 2026
+ */
+final class BioSimDiskCache {
+
+	/**
+	 * An ObjectInputStream that only resolves the classes that can be found in the entries.
+	 */
+	private static final class RestrictedObjectInputStream extends ObjectInputStream {
+
+		private static final Set<Class<?>> AllowedClasses = new HashSet<Class<?>>(Arrays.asList(new Class<?>[] {
+				BioSimDataSet.class, BioSimSchema.class, BioSimWeatherCache.Entry.class, BioSimMetadataSnapshot.class,
+				String.class, Boolean.class, Character.class, Number.class, Byte.class, Short.class, Integer.class, 
+				Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class,
+				ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class, 
+				HashSet.class, LinkedHashSet.class, BitSet.class,
+				Arrays.asList().getClass(),
+				Collections.emptyList().getClass(),
+				Collections.unmodifiableCollection(new ArrayList<Object>()).getClass(),
+				Collections.unmodifiableList(new ArrayList<Object>()).getClass(),
+				Collections.unmodifiableList(new LinkedList<Object>()).getClass(),
+				Collections.unmodifiableMap(new HashMap<Object, Object>()).getClass()
+		}));
+
+		RestrictedObjectInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			Class<?> clazz = super.resolveClass(desc);	// the class is loaded but not initialized
+			if (!isAllowed(clazz)) {
+				throw new InvalidClassException(desc.getName(), "This class is not allowed in the cache entries!");
+			}
+			return clazz;
+		}
+		
+		private static boolean isAllowed(Class<?> clazz) {
+			if (clazz.isArray()) {
+				return isAllowed(clazz.getComponentType());
+			} else {
+				return clazz.isPrimitive() || AllowedClasses.contains(clazz) || BioSimColumn.class.isAssignableFrom(clazz);
+			}
+		}
+	}
+	
+	static final int FORMAT_VERSION = 1;
+	
+	private static final int MAGIC_NUMBER = 0x42534443;	// BSDC
+	private static final String ENTRY_EXTENSION = ".entry";
+	private static final String LOCK_FILENAME = ".lock";
+	private static final double SIZE_AFTER_EVICTION = .9;	// proportion of the maximum size
+	
+	private final File directory;
+	private final long maximumNbBytes;
+	private final AtomicLong estimatedNbBytes;
+	private final AtomicInteger estimatedNbEntries;
+	
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	
+	/**
+	 * Constructor.
+	 * @param rootDirectory the directory of the cache, which is created if needs be
+	 * @param maximumNbBytes the maximum size of the cache (bytes)
+	 * @throws IOException if the directory cannot be created
+	 */
+	BioSimDiskCache(File rootDirectory, long maximumNbBytes) throws IOException {
+		if (maximumNbBytes < 1) {
+			throw new IOException("The maximum size of the cache must be greater than 0!");
+		}
+		directory = new File(rootDirectory, "v" + FORMAT_VERSION);
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {	// another process may have created it in the meantime
+			throw new IOException("The cache directory " + directory.getAbsolutePath() + " cannot be created!");
+		}
+		this.maximumNbBytes = maximumNbBytes;
+		File[] entries = listEntries();
+		long nbBytes = 0;
+		for (File entry : entries) {
+			nbBytes += entry.length();
+		}
+		estimatedNbBytes = new AtomicLong(nbBytes);
+		estimatedNbEntries = new AtomicInteger(entries.length);
+	}
+	
+	/**
+	 * Provide the directory of the entries.
+	 * @return a File instance
+	 */
+	File getDirectory() {return directory;}
+	
+	private File[] listEntries() {
+		File[] entries = directory.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+		return entries == null ? new File[0] : entries;
+	}
+	
+	private File getFile(String key) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : hash) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(directory, sb.append(ENTRY_EXTENSION).toString());
+		} catch (NoSuchAlgorithmException e) {
+			throw new UnsupportedOperationException(e);		// SHA-256 is available in all Java platforms
+		}
+	}
+	
+	/**
+	 * Retrieve an entry.
+	 * @param key the key
+	 * @param clazz the expected class of the value
+	 * @return the value or null if the entry does not exist or cannot be read
+	 */
+	<T extends Serializable> T get(String key, Class<T> clazz) {
+		File file = getFile(key);
+		if (file.exists()) {
+			try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if (dis.readInt() == MAGIC_NUMBER && dis.readInt() == FORMAT_VERSION && dis.readUTF().equals(key)) {	// the key is checked in case of hash collision
+					Object value = new RestrictedObjectInputStream(dis).readObject();
+					if (clazz.isInstance(value)) {
+						file.setLastModified(System.currentTimeMillis());	// for the least-recently-used eviction
+						hitCount.increment();
+						return clazz.cast(value);
+					}
+				}
+			} catch (IOException | ClassNotFoundException e) {}	// the entry may have been evicted by another process in the meantime or contain a class that is not allowed
+		}
+		missCount.increment();
+		return null;
+	}
+	
+	/**
+	 * Store an entry. The failures are silently ignored since the cache is optional.
+	 * @param key the key
+	 * @param value the value
+	 */
+	void put(String key, Serializable value) {
+		File file = getFile(key);
+		File tmpFile = null;
+		try {
+			tmpFile = File.createTempFile("entry", ".tmp", directory);
+			try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				dos.writeInt(MAGIC_NUMBER);
+				dos.writeInt(FORMAT_VERSION);
+				dos.writeUTF(key);
+				ObjectOutputStream oos = new ObjectOutputStream(dos);
+				oos.writeObject(value);
+				oos.flush();
+			}
+			long formerLength = file.length();	// 0 if the file does not exist
+			try {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			if (formerLength == 0) {
+				estimatedNbEntries.incrementAndGet();
+			}
+			if (estimatedNbBytes.addAndGet(file.length() - formerLength) > maximumNbBytes) {
+				evict();
+			}
+		} catch (IOException e) {
+			if (tmpFile != null) {
+				tmpFile.delete();
+			}
+		}
+	}
+	
+	/**
+	 * Delete the least recently used entries until the size of the cache is back under
+	 * the maximum. The sizes are recomputed from the directory since other processes
+	 * may have added or deleted entries.
+	 */
+	private void evict() {
+		try (RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK_FILENAME), "rw");
+				FileLock lock = lockFile.getChannel().tryLock()) {
+			if (lock == null) {
+				return;		// another process is evicting
+			}
+			File[] entries = listEntries();
+			long[] lastModified = new long[entries.length];
+			Integer[] order = new Integer[entries.length];
+			long nbBytes = 0;
+			for (int i = 0; i < entries.length; i++) {
+				lastModified[i] = entries[i].lastModified();
+				order[i] = i;
+				nbBytes += entries[i].length();
+			}
+			Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+			int nbEntries = entries.length;
+			long targetNbBytes = (long) (maximumNbBytes * SIZE_AFTER_EVICTION);
+			for (int k = 0; k < order.length && nbBytes > targetNbBytes; k++) {
+				File entry = entries[order[k]];
+				long length = entry.length();
+				if (entry.delete()) {
+					nbBytes -= length;
+					nbEntries--;
+					evictionCount.increment();
+				}
+			}
+			estimatedNbBytes.set(nbBytes);
+			estimatedNbEntries.set(nbEntries);
+		} catch (IOException | OverlappingFileLockException e) {
+			// the lock file cannot be created or another thread of this process is evicting
+		}
+	}
+	
+	/**
+	 * Provide a snapshot of the counters. The number of entries and the size are 
+	 * estimates since other processes may share the directory.
+	 * @return a BioSimCacheStatistics instance
+	 */
+	BioSimCacheStatistics getStatistics() {
+		return new BioSimCacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), estimatedNbEntries.get(), estimatedNbBytes.get());
+	}
+}
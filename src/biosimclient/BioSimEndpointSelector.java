@@ -0,0 +1,193 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import biosimclient.BioSimEnums.LoadBalancingPolicy;
+
+/**
+ * Select the replica of the server that receives the next request. <br>
+ * <br>
+ * The selector keeps track of the requests in progress and of an exponentially weighted 
+ * moving average of the latency of each replica. A replica that fails several times in 
+ * a row is ejected for some time. It is then given another chance and ejected again if
+ * the next request fails as well. If all the replicas are ejected, the one whose ejection 
+ * ends first is selected so that the requests are never refused by the client.
+ * @author agent - October 2026
+ */
+final class BioSimEndpointSelector {
+
+	/**
+	 * A replica of the server.
+	 */
+	static final class Endpoint {
+		private final String url;
+		private final AtomicInteger nbOutstandingRequests = new AtomicInteger();
+		private volatile double ewmaLatencyMs;	// 0 until the first reply
+		private volatile boolean isEjected;
+		private volatile long ejectionEndNanos;
+		private int nbConsecutiveFailures;	// guarded by this
+		
+		private Endpoint(String url) {
+			this.url = url;
+		}
+
+		/**
+		 * Provide the beginning of the URL of the requests, that is the host, the port and 
+		 * the routing string.
+		 * @return a String
+		 */
+		String getURL() {return url;}
+		
+		int getNbOutstandingRequests() {return nbOutstandingRequests.get();}
+		
+		double getEwmaLatencyMs() {return ewmaLatencyMs;}
+		
+		private boolean isEjected(long currentTimeNanos) {
+			return isEjected && currentTimeNanos - ejectionEndNanos < 0;
+		}
+	}
+	
+	static final int MAXIMUM_NB_CONSECUTIVE_FAILURES = 3;
+	private static final double EWMA_WEIGHT = .3;	// the weight of the last latency
+	
+	private final List<Endpoint> endpoints;
+	private final LoadBalancingPolicy policy;
+	private final long ejectionTimeNanos;
+	private final AtomicInteger nextIndex = new AtomicInteger();	// the ties are broken in a round-robin fashion
+	
+	/**
+	 * Constructor.
+	 * @param urls the beginning of the URLs of the replicas
+	 * @param policy a LoadBalancingPolicy enum
+	 * @param ejectionTimeMs the time (ms) during which a failing replica does not receive any request
+	 */
+	BioSimEndpointSelector(List<String> urls, LoadBalancingPolicy policy, long ejectionTimeMs) {
+		List<Endpoint> endpoints = new ArrayList<Endpoint>();
+		for (String url : urls) {
+			endpoints.add(new Endpoint(url));
+		}
+		this.endpoints = Collections.unmodifiableList(endpoints);
+		this.policy = policy;
+		ejectionTimeNanos = TimeUnit.MILLISECONDS.toNanos(ejectionTimeMs);
+	}
+	
+	/**
+	 * Provide the replicas in the order they were configured.
+	 * @return an unmodifiable List of Endpoint instances
+	 */
+	List<Endpoint> getEndpoints() {return endpoints;}
+	
+	/**
+	 * Select a replica and count the request as being in progress. The release method 
+	 * must be called once the request is completed.
+	 * @param excludedEndpoints the replicas that already failed for this request (can be null)
+	 * @return an Endpoint instance or null if all the replicas are excluded
+	 */
+	Endpoint acquire(Collection<Endpoint> excludedEndpoints) {
+		long currentTimeNanos = System.nanoTime();
+		int nbEndpoints = endpoints.size();
+		int firstIndex = nbEndpoints == 1 ? 0 : Math.floorMod(nextIndex.getAndIncrement(), nbEndpoints);
+		Endpoint selectedEndpoint = null;
+		double lowestScore = Double.POSITIVE_INFINITY;
+		Endpoint firstEjectedEndpoint = null;
+		for (int i = 0; i < nbEndpoints; i++) {
+			Endpoint endpoint = endpoints.get((firstIndex + i) % nbEndpoints);
+			if (excludedEndpoints != null && excludedEndpoints.contains(endpoint)) {
+				continue;
+			} 
+			if (endpoint.isEjected(currentTimeNanos)) {
+				if (firstEjectedEndpoint == null || endpoint.ejectionEndNanos - firstEjectedEndpoint.ejectionEndNanos < 0) {
+					firstEjectedEndpoint = endpoint;
+				}
+			} else {
+				double score = policy == LoadBalancingPolicy.EwmaLatency ?
+						(endpoint.ewmaLatencyMs + 1) * (endpoint.nbOutstandingRequests.get() + 1) :	// the replicas that have not replied yet are tried first
+						endpoint.nbOutstandingRequests.get();
+				if (score < lowestScore) {
+					lowestScore = score;
+					selectedEndpoint = endpoint;
+				}
+			}
+		}
+		if (selectedEndpoint == null) {
+			selectedEndpoint = firstEjectedEndpoint;
+		}
+		if (selectedEndpoint != null) {
+			selectedEndpoint.nbOutstandingRequests.incrementAndGet();
+		}
+		return selectedEndpoint;
+	}
+	
+	/**
+	 * Record the outcome of a request.
+	 * @param endpoint the Endpoint instance returned by the acquire method
+	 * @param latencyNanos the time (ns) before the reply was received
+	 * @param isSuccessful true if the replica replied without any server error
+	 */
+	void release(Endpoint endpoint, long latencyNanos, boolean isSuccessful) {
+		endpoint.nbOutstandingRequests.decrementAndGet();
+		synchronized(endpoint) {
+			if (isSuccessful) {
+				endpoint.nbConsecutiveFailures = 0;
+				endpoint.isEjected = false;
+				double latencyMs = latencyNanos * 1E-6;
+				endpoint.ewmaLatencyMs = endpoint.ewmaLatencyMs == 0d ? 
+						latencyMs : 
+							EWMA_WEIGHT * latencyMs + (1 - EWMA_WEIGHT) * endpoint.ewmaLatencyMs;
+			} else if (++endpoint.nbConsecutiveFailures >= MAXIMUM_NB_CONSECUTIVE_FAILURES) {
+				endpoint.ejectionEndNanos = System.nanoTime() + ejectionTimeNanos;
+				endpoint.isEjected = true;
+			}
+		}
+	}
+
+	/**
+	 * Release a replica whose request has been aborted by the client. Neither its latency nor 
+	 * its health is updated.
+	 * @param endpoint the Endpoint instance provided by the acquire method
+	 */
+	void cancel(Endpoint endpoint) {
+		endpoint.nbOutstandingRequests.decrementAndGet();
+	}
+
+	/**
+	 * Provide the number of replicas that are currently ejected.
+	 * @return an integer
+	 */
+	int getNbEjectedEndpoints() {
+		long currentTimeNanos = System.nanoTime();
+		int nbEjectedEndpoints = 0;
+		for (Endpoint endpoint : endpoints) {
+			if (endpoint.isEjected(currentTimeNanos)) {
+				nbEjectedEndpoints++;
+			}
+		}
+		return nbEjectedEndpoints;
+	}
+}
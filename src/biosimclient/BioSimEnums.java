@@ -22,6 +22,8 @@
 package biosimclient;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public final class BioSimEnums {
@@ -104,8 +106,16 @@ public final class BioSimEnums {
 		WS2("", false, "wind speed at 2 m");
 		;
 		
-		private static List<String> FieldNames;
-		private static List<Variable> VariablesForNormals;
+		private static final List<Variable> VariablesForNormals;
+		private static final List<String> FieldNames;
+		static {	// built eagerly since the batches of the normals read these lists from several threads
+			VariablesForNormals = Collections.unmodifiableList(Arrays.asList(new Variable[] {TN, TX, P}));
+			List<String> fieldNames = new ArrayList<String>();
+			for (Variable v : VariablesForNormals) {
+				fieldNames.add(v.fieldName);
+			}
+			FieldNames = Collections.unmodifiableList(fieldNames);
+		}
 		
 		String description;
 		String fieldName;
@@ -121,27 +131,30 @@ public final class BioSimEnums {
 		String getDescription() {return description;}
 		
 		static List<Variable> getVariablesForNormals() {
-			if (VariablesForNormals == null) {
-				VariablesForNormals = new ArrayList<Variable>();
-				VariablesForNormals.add(Variable.TN);
-				VariablesForNormals.add(Variable.TX);
-				VariablesForNormals.add(Variable.P);
-			}
 			return VariablesForNormals;
 		}
 		
 		static List<String> getFieldNamesForNormals() {
-			if (FieldNames == null) {
-				FieldNames = new ArrayList<String>();
-				for (Variable v : getVariablesForNormals()) {
-					FieldNames.add(v.fieldName);
-				}
-			}
 			return FieldNames;
 		}
 		
  	}
 	
+	/**
+	 * The ways of spreading the requests over several replicas of the server.
+	 */
+	public static enum LoadBalancingPolicy {
+		/**
+		 * The request is sent to the replica with the fewest requests in progress (default policy)
+		 */
+		LeastOutstandingRequests,
+		/**
+		 * The request is sent to the replica with the lowest product of its moving average 
+		 * latency and the number of requests in progress
+		 */
+		EwmaLatency;
+	}
+
 	public static enum Month {
 		January(31),
 		February(28),
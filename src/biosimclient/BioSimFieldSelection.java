@@ -0,0 +1,99 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A selection of the fields to be retrieved from the server replies. <br>
+ * <br>
+ * The fields that are not selected are neither parsed nor stored. The fields are kept in 
+ * the order of the header. The selected fields that are not found in a header are ignored 
+ * since a request can involve several models. An instance is meant to be used by a single 
+ * thread.
+ * @author agent - October 2026
+ */
+final class BioSimFieldSelection {
+
+	private final Set<String> selectedFieldNames;
+	private final boolean isFirstFieldKept;
+	
+	private BioSimSchema headerSchema;
+	private BioSimSchema schema;
+	private int[] fieldIndices;
+	
+	/**
+	 * Constructor.
+	 * @param selectedFieldNames the names of the fields to be kept
+	 * @param isFirstFieldKept true if the first field must be kept whatever its name
+	 */
+	BioSimFieldSelection(Collection<String> selectedFieldNames, boolean isFirstFieldKept) {
+		this.selectedFieldNames = new HashSet<String>(selectedFieldNames);
+		this.isFirstFieldKept = isFirstFieldKept;
+	}
+	
+	/**
+	 * Select the fields of a header. The selection is kept until the next header that
+	 * differs.
+	 * @param headerSchema the schema of the header line
+	 * @return the schema of the selected fields
+	 */
+	BioSimSchema select(BioSimSchema headerSchema) {
+		if (headerSchema != this.headerSchema) {	// the schemas are interned
+			List<String> headerFieldNames = headerSchema.getFieldNames();
+			List<String> fieldNames = new ArrayList<String>();
+			List<Integer> indices = new ArrayList<Integer>();
+			for (int j = 0; j < headerFieldNames.size(); j++) {
+				if ((j == 0 && isFirstFieldKept) || selectedFieldNames.contains(headerFieldNames.get(j))) {
+					fieldNames.add(headerFieldNames.get(j));
+					indices.add(j);
+				}
+			}
+			fieldIndices = new int[indices.size()];
+			for (int k = 0; k < fieldIndices.length; k++) {
+				fieldIndices[k] = indices.get(k);
+			}
+			schema = fieldNames.size() == headerFieldNames.size() ? headerSchema : BioSimSchema.getSchema(fieldNames);
+			this.headerSchema = headerSchema;
+		}
+		return schema;
+	}
+
+	/**
+	 * Provide the indices of the selected fields in the last header.
+	 * @return an array of integers in ascending order
+	 */
+	int[] getFieldIndices() {return fieldIndices;}
+	
+	/**
+	 * Provide the number of leading fields that must be tokenized to reach all the 
+	 * selected fields.
+	 * @return an integer
+	 */
+	int getNumberOfFieldsToBeTokenized() {
+		return fieldIndices.length == 0 ? 0 : fieldIndices[fieldIndices.length - 1] + 1;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+/**
+ * A snapshot of the counters of the request hedging.
+ * @author agent - October 2026
+ */
+public final class BioSimHedgingStatistics {
+
+	private final long nbRequests;
+	private final long nbHedgesSent;
+	private final long nbHedgesWon;
+	private final double hedgeDelayMs;
+	
+	BioSimHedgingStatistics(long nbRequests, long nbHedgesSent, long nbHedgesWon, double hedgeDelayMs) {
+		this.nbRequests = nbRequests;
+		this.nbHedgesSent = nbHedgesSent;
+		this.nbHedgesWon = nbHedgesWon;
+		this.hedgeDelayMs = hedgeDelayMs;
+	}
+	
+	/**
+	 * Provide the number of requests that could be hedged.
+	 * @return a long
+	 */
+	public long getNbRequests() {return nbRequests;}
+
+	/**
+	 * Provide the number of duplicate requests that were sent because the original 
+	 * request was too slow.
+	 * @return a long
+	 */
+	public long getNbHedgesSent() {return nbHedgesSent;}
+
+	/**
+	 * Provide the number of duplicate requests whose reply arrived before that of 
+	 * the original request.
+	 * @return a long
+	 */
+	public long getNbHedgesWon() {return nbHedgesWon;}
+
+	/**
+	 * Provide the current delay before sending a duplicate request.
+	 * @return a double (ms) or NaN if there are not enough latencies to estimate it yet
+	 */
+	public double getHedgeDelayMs() {return hedgeDelayMs;}
+	
+	/**
+	 * Provide the proportion of duplicate requests whose reply arrived first.
+	 * @return a double between 0 and 1 (NaN if no duplicate request has been sent)
+	 */
+	public double getHedgeWinRate() {
+		return nbHedgesSent == 0 ? Double.NaN : (double) nbHedgesWon / nbHedgesSent;
+	}
+	
+	@Override
+	public String toString() {
+		return "requests = " + nbRequests + "; hedges sent = " + nbHedgesSent + "; hedges won = " + nbHedgesWon + "; delay = " + hedgeDelayMs + " ms";
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * An implementation of the BioSimTransport interface based on HttpURLConnection. <br>
+ * <br>
+ * With keep-alive enabled, the stream of a reply whose body has been entirely consumed is 
+ * closed so that the JVM puts the connection back in its pool of idle connections. The next 
+ * request to the same server then reuses it instead of opening a new TCP connection. If the 
+ * reading stopped before the end of the body, only a small remainder is drained. A larger 
+ * one would hold the thread for the rest of the transfer and the connection is closed 
+ * instead. The number of idle connections kept per server is set by the http.maxConnections 
+ * system property (5 by default). Beyond this number, the connections that become idle at the 
+ * same time are closed and opened anew on the next requests. With keep-alive disabled, each 
+ * connection is closed after the reply.
+ * 
+ * @author agent - October 2026
+ */
+final class BioSimHttpTransport implements BioSimTransport {
+
+	private static final int MAXIMUM_NB_DRAINED_BYTES = 64 * 1024;
+	private static final int DEFAULT_MAXIMUM_NB_IDLE_CONNECTIONS = 5;	// as in the JDK
+
+	/**
+	 * A stream that records whether the end of the body has been reached.
+	 */
+	private static final class BodyInputStream extends FilterInputStream {
+
+		private boolean isAtEnd;
+		
+		private BodyInputStream(InputStream is) {
+			super(is);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			isAtEnd = b == -1;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int nbBytes = super.read(b, off, len);
+			isAtEnd = nbBytes == -1;
+			return nbBytes;
+		}
+	}
+	
+	private final class HttpReply implements Reply {
+		
+		private final HttpURLConnection connection;
+		private BodyInputStream is;
+		private volatile boolean isAborted;
+		
+		private HttpReply(HttpURLConnection connection) {
+			this.connection = connection;
+		}
+		
+		@Override
+		public int getResponseCode() throws IOException {return connection.getResponseCode();}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			if (is == null) {
+				InputStream body = getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+				is = new BodyInputStream(body == null ? new ByteArrayInputStream(new byte[0]) : body);
+			}
+			return is;
+		}
+
+		@Override
+		public void close() {
+			if (keepAlive && !isAborted) {
+				try {
+					BodyInputStream is = (BodyInputStream) getInputStream();
+					if (!is.isAtEnd) {	// the connection is reusable only if the body has been entirely read
+						byte[] buffer = new byte[8192];	// content is never read
+						int nbDrainedBytes = 0;
+						int nbBytes;
+						while (nbDrainedBytes < MAXIMUM_NB_DRAINED_BYTES && (nbBytes = is.read(buffer)) != -1) {
+							nbDrainedBytes += nbBytes;
+						}
+					}
+					if (is.isAtEnd) {
+						is.close();
+						return;
+					}
+				} catch (IOException e) {}
+			}
+			connection.disconnect();
+		}
+
+		@Override
+		public void abort() {
+			isAborted = true;
+			connection.disconnect();
+		}
+	}
+	
+	private final boolean keepAlive;
+	
+	/**
+	 * Constructor.
+	 * @param keepAlive true to reuse the connections or false to close them after each request
+	 */
+	BioSimHttpTransport(boolean keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+	
+	/**
+	 * Provide the number of idle connections that the JVM keeps per server. This is the value
+	 * of the http.maxConnections system property or 5 if the property is not set.
+	 * @return an integer
+	 */
+	static int getMaximumNbIdleConnections() {
+		int maximumNbIdleConnections = Integer.getInteger("http.maxConnections", DEFAULT_MAXIMUM_NB_IDLE_CONNECTIONS);
+		return maximumNbIdleConnections > 0 ? maximumNbIdleConnections : DEFAULT_MAXIMUM_NB_IDLE_CONNECTIONS;	// the JDK ignores the other values
+	}
+	
+	/**
+	 * Check whether the connections are reused.
+	 * @return a boolean
+	 */
+	boolean isKeepAliveEnabled() {
+		return keepAlive;
+	}
+	
+	@Override
+	public Reply send(URL url, int connectTimeoutMs, int readTimeoutMs) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setConnectTimeout(connectTimeoutMs);
+		connection.setReadTimeout(readTimeoutMs);
+		connection.setUseCaches(false);
+		if (!keepAlive) {
+			connection.setRequestProperty("Connection", "close");
+		}
+		connection.connect();	// a failure at this stage means that the request has not been sent
+		return new HttpReply(connection);
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded in-memory cache with a least-recently-used eviction policy. <br>
+ * <br>
+ * The cache is bounded by its number of entries and by the total weight of its values,
+ * typically their estimated size in bytes. The least recently used entries are evicted 
+ * first. The methods are synchronized so that an instance can be shared among threads.
+ * @author agent - October 2026
+ */
+final class BioSimLRUCache<K,V> {
+
+	private final int maximumNbEntries;
+	private final long maximumWeight;
+	private final ToLongFunction<V> weigher;
+	private final LinkedHashMap<K,V> entries;
+	private final Map<K,Long> weights;
+	
+	private long weight;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	
+	/**
+	 * Constructor.
+	 * @param maximumNbEntries the maximum number of entries (must be greater than 0)
+	 * @param maximumWeight the maximum total weight of the values (must be greater than 0)
+	 * @param weigher the function that provides the weight of a value
+	 */
+	BioSimLRUCache(int maximumNbEntries, long maximumWeight, ToLongFunction<V> weigher) {
+		if (maximumNbEntries < 1 || maximumWeight < 1) {
+			throw new InvalidParameterException("The maximum number of entries and the maximum weight must be greater than 0!");
+		}
+		this.maximumNbEntries = maximumNbEntries;
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		entries = new LinkedHashMap<K,V>(16, .75f, true);	// access order
+		weights = new HashMap<K,Long>();
+	}
+	
+	/**
+	 * Retrieve a value. The entry becomes the most recently used.
+	 * @param key the key
+	 * @return the value or null if the key is not in the cache
+	 */
+	synchronized V get(K key) {
+		V value = entries.get(key);
+		if (value == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return value;
+	}
+	
+	/**
+	 * Add or replace a value and evict the least recently used entries if needs be. A 
+	 * value that is heavier than the maximum weight is not cached.
+	 * @param key the key
+	 * @param value the value
+	 */
+	synchronized void put(K key, V value) {
+		long valueWeight = weigher.applyAsLong(value);
+		if (valueWeight > maximumWeight) {
+			return;
+		}
+		remove(key);
+		entries.put(key, value);
+		weights.put(key, valueWeight);
+		weight += valueWeight;
+		Iterator<K> iter = entries.keySet().iterator();
+		while (entries.size() > maximumNbEntries || weight > maximumWeight) {
+			K eldestKey = iter.next();
+			iter.remove();
+			weight -= weights.remove(eldestKey);
+			evictionCount++;
+		}
+	}
+	
+	private void remove(K key) {
+		if (entries.remove(key) != null) {
+			weight -= weights.remove(key);
+		}
+	}
+	
+	/**
+	 * Remove all the entries. The counters are kept.
+	 */
+	synchronized void clear() {
+		entries.clear();
+		weights.clear();
+		weight = 0;
+	}
+	
+	/**
+	 * Provide a snapshot of the counters.
+	 * @return a BioSimCacheStatistics instance
+	 */
+	synchronized BioSimCacheStatistics getStatistics() {
+		return new BioSimCacheStatistics(hitCount, missCount, evictionCount, entries.size(), weight);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Set;
+
+/**
+ * Classify the lines of the normals and weather replies. <br>
+ * <br>
+ * The classifier relies on an immutable index of the model names so that it can be shared across
+ * threads without locking. The data rows, which make up most of the reply, are recognized by their first 
+ * character and classified without any allocation. 
+ * @author agent - October 2026
+ */
+final class BioSimLineClassifier {
+
+	static enum LineType {
+		/** The server reported an error. */
+		Error,
+		/** The name of a model. */
+		ModelName,
+		/** The field names of a new location. */
+		Header,
+		/** An observation. */
+		Data;
+	}
+	
+	private static final String ERROR = "error";
+	
+	private final Set<String> modelIndex;
+	private final String fieldLineStarter;
+	private final boolean modelNameMayStartLikeANumber;
+	
+	/**
+	 * Constructor.
+	 * @param modelIndex an immutable Set of model names
+	 * @param fieldLineStarter the first field of the header lines (case insensitive)
+	 */
+	BioSimLineClassifier(Set<String> modelIndex, String fieldLineStarter) {
+		this.modelIndex = modelIndex;
+		this.fieldLineStarter = fieldLineStarter;
+		boolean b = false;
+		for (String modelName : modelIndex) {
+			if (!modelName.isEmpty() && startsLikeANumber(modelName.charAt(0))) {
+				b = true;
+				break;
+			}
+		}
+		modelNameMayStartLikeANumber = b;
+	}
+
+	private static boolean startsLikeANumber(char c) {
+		return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+	}
+	
+	/**
+	 * Classify a line. <br>
+	 * <br>
+	 * The checks are carried out in this order: error, model name, header and data.
+	 * @param line a line of the reply
+	 * @return a LineType enum
+	 */
+	LineType classify(String line) {
+		if (!line.isEmpty() && startsLikeANumber(line.charAt(0)) && !modelNameMayStartLikeANumber) {
+			return LineType.Data;	// the most frequent case by far
+		}
+		if (line.regionMatches(true, 0, ERROR, 0, ERROR.length())) {
+			return LineType.Error;
+		}
+		if (isModelName(line)) {
+			return LineType.ModelName;
+		}
+		if (line.regionMatches(true, 0, fieldLineStarter, 0, fieldLineStarter.length())) {
+			return LineType.Header;
+		}
+		return LineType.Data;
+	}
+
+	private boolean isModelName(String line) {
+		if (modelIndex.contains(line)) {
+			return true;
+		}
+		int length = line.length();
+		if (length > 0 && (line.charAt(0) <= ' ' || line.charAt(length - 1) <= ' ')) {
+			return modelIndex.contains(line.trim());	// rare case of surrounding white spaces
+		}
+		return false;
+	}
+	
+}
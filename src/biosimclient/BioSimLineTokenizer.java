@@ -0,0 +1,150 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Arrays;
+
+/**
+ * Split the lines of the server replies into fields. <br>
+ * <br>
+ * The tokenizer scans each line once and records the boundaries of the fields in
+ * arrays that are reused from one line to the next. It yields the same fields as 
+ * String.split(",") would, that is the trailing empty fields are dropped. An instance
+ * is meant to be used by a single thread.
+ * @author agent - October 2026
+ */
+final class BioSimLineTokenizer {
+
+	private static final char SEPARATOR = BioSimClient.FieldSeparator.charAt(0);
+	
+	private String line;
+	private int[] starts;
+	private int[] ends;
+	private int nbFields;
+	private final BioSimValueParser parser;
+	
+	BioSimLineTokenizer() {
+		parser = new BioSimValueParser();
+		starts = new int[16];
+		ends = new int[16];
+	}
+
+	/**
+	 * Split a line into fields.
+	 * @param line the line to be split
+	 * @return the number of fields
+	 */
+	int tokenize(String line) {
+		return tokenize(line, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Split the leading fields of a line. The rest of the line is not scanned.
+	 * @param line the line to be split
+	 * @param maxNbFields the number of leading fields that are needed
+	 * @return the number of fields
+	 */
+	int tokenize(String line, int maxNbFields) {
+		this.line = line;
+		nbFields = 0;
+		if (maxNbFields <= 0) {
+			return nbFields;
+		}
+		int length = line.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			if (line.charAt(i) == SEPARATOR) {
+				addField(start, i);
+				if (nbFields == maxNbFields) {
+					return nbFields;
+				}
+				start = i + 1;
+			}
+		}
+		if (nbFields == 0) {	// no separator: the whole line is the single field
+			addField(0, length);
+			return nbFields;
+		}
+		addField(start, length);
+		while (nbFields > 0 && starts[nbFields - 1] == ends[nbFields - 1]) {	// trailing empty fields are dropped
+			nbFields--;
+		}
+		return nbFields;
+	}
+	
+	private void addField(int start, int end) {
+		if (nbFields == starts.length) {
+			int newLength = starts.length * 2;
+			starts = Arrays.copyOf(starts, newLength);
+			ends = Arrays.copyOf(ends, newLength);
+		}
+		starts[nbFields] = start;
+		ends[nbFields] = end;
+		nbFields++;
+	}
+
+	/**
+	 * Provide the number of fields in the last line.
+	 * @return an integer
+	 */
+	int getNumberOfFields() {return nbFields;}
+	
+	/**
+	 * Provide the last line.
+	 * @return a String
+	 */
+	String getLine() {return line;}
+	
+	/**
+	 * Provide the index of the first character of a field.
+	 * @param i the index of the field
+	 * @return an integer
+	 */
+	int getStart(int i) {return starts[i];}
+
+	/**
+	 * Provide the index following the last character of a field.
+	 * @param i the index of the field
+	 * @return an integer
+	 */
+	int getEnd(int i) {return ends[i];}
+	
+	/**
+	 * Provide the parser of the fields. It is owned by the tokenizer since both are used 
+	 * by the same thread.
+	 * @return a BioSimValueParser instance
+	 */
+	BioSimValueParser getValueParser() {return parser;}
+	
+	/**
+	 * Provide a field of the last line.
+	 * @param i the index of the field
+	 * @return a String
+	 */
+	String getField(int i) {
+		if (i >= nbFields) {
+			throw new ArrayIndexOutOfBoundsException(i);
+		}
+		return line.substring(starts[i], ends[i]);
+	}
+	
+}
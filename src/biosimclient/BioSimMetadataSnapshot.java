@@ -0,0 +1,73 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.Serializable;
+
+/**
+ * A copy of some metadata of the server that is kept in the persistent cache so that 
+ * a new JVM does not have to wait for the server before sending its first requests. <br>
+ * <br>
+ * The snapshot records the time at which it was retrieved from the server. It is ignored
+ * once it is older than its time to live.
+ * @author agent - October 2026
+ */
+final class BioSimMetadataSnapshot<T extends Serializable> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retrievalTimeMs;
+	private final T value;
+	
+	/**
+	 * Constructor. The retrieval time is the current time.
+	 * @param value the metadata
+	 */
+	BioSimMetadataSnapshot(T value) {
+		retrievalTimeMs = System.currentTimeMillis();	// wall clock since the snapshot is read by other JVMs
+		this.value = value;
+	}
+	
+	/**
+	 * Provide the metadata.
+	 * @return the value
+	 */
+	T getValue() {return value;}
+	
+	/**
+	 * Provide the time elapsed since the metadata were retrieved from the server.
+	 * @return the age of the snapshot (ms), which is negative if the clock has been moved backward
+	 */
+	long getAgeMs() {
+		return System.currentTimeMillis() - retrievalTimeMs;
+	}
+	
+	/**
+	 * Check whether the snapshot is older than its time to live.
+	 * @param timeToLiveMs the time to live (ms)
+	 * @return a boolean
+	 */
+	boolean isExpired(long timeToLiveMs) {
+		long ageMs = getAgeMs();
+		return ageMs < 0 || ageMs > timeToLiveMs;	// a negative age means that the clock has been moved backward
+	}
+}
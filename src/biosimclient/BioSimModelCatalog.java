@@ -0,0 +1,129 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import biosimclient.BioSimBatchDispatcher.BioSimSupplier;
+
+/**
+ * The models that are available on the server along with their help and their default 
+ * parameters. <br>
+ * <br>
+ * The model list is retrieved when the catalog is created and never changes afterwards. 
+ * The help and the default parameters are retrieved on the first request for a particular 
+ * model and then read without locking. The catalog expires after a time to live so that 
+ * the changes on the server are eventually taken into account.
+ * @author agent - October 2026
+ */
+final class BioSimModelCatalog {
+
+	private final List<String> modelList;
+	private final Set<String> modelIndex;
+	private final long creationTimeNanos;
+	private final long timeToLiveNanos;
+	private final ConcurrentHashMap<String, String> modelHelps;
+	private final ConcurrentHashMap<String, BioSimParameterMap> modelDefaultParameters;
+	
+	/**
+	 * Constructor. <br>
+	 * <br>
+	 * The time to live runs from the retrieval of the model list. A list that is read from
+	 * a snapshot of the persistent cache is therefore already aged.
+	 * @param modelList the model names in the order of the server
+	 * @param timeToLiveMs the time to live of the catalog (ms)
+	 * @param ageMs the time elapsed since the model list was retrieved from the server (ms)
+	 */
+	BioSimModelCatalog(List<String> modelList, long timeToLiveMs, long ageMs) {
+		this.modelList = Collections.unmodifiableList(modelList);
+		modelIndex = Collections.unmodifiableSet(new HashSet<String>(modelList));
+		creationTimeNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ageMs);
+		timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMs);
+		modelHelps = new ConcurrentHashMap<String, String>();
+		modelDefaultParameters = new ConcurrentHashMap<String, BioSimParameterMap>();
+	}
+	
+	/**
+	 * Provide the model names.
+	 * @return an unmodifiable List of String instances
+	 */
+	List<String> getModelList() {return modelList;}
+
+	/**
+	 * Provide the model names as an index.
+	 * @return an unmodifiable Set of String instances
+	 */
+	Set<String> getModelIndex() {return modelIndex;}
+
+	/**
+	 * Check whether the catalog should be retrieved anew.
+	 * @return a boolean
+	 */
+	boolean isExpired() {
+		return System.nanoTime() - creationTimeNanos > timeToLiveNanos;
+	}
+	
+	/**
+	 * Provide the help of a model.
+	 * @param modelName the name of the model
+	 * @param loader the request that retrieves the help if it is not in the catalog yet
+	 * @return a String instance
+	 * @throws BioSimClientException if the client fails
+	 * @throws BioSimServerException if the server fails
+	 */
+	String getModelHelp(String modelName, BioSimSupplier<String> loader) throws BioSimClientException, BioSimServerException {
+		String help = modelHelps.get(modelName);
+		if (help == null) {		// two threads may load the same help but only one is kept
+			help = loader.get();
+			String formerHelp = modelHelps.putIfAbsent(modelName, help);
+			if (formerHelp != null) {
+				help = formerHelp;
+			}
+		}
+		return help;
+	}
+
+	/**
+	 * Provide the default parameters of a model. 
+	 * @param modelName the name of the model
+	 * @param loader the request that retrieves the parameters if they are not in the catalog yet
+	 * @return a copy of the BioSimParameterMap instance in the catalog
+	 * @throws BioSimClientException if the client fails
+	 * @throws BioSimServerException if the server fails
+	 */
+	BioSimParameterMap getModelDefaultParameters(String modelName, BioSimSupplier<BioSimParameterMap> loader) throws BioSimClientException, BioSimServerException {
+		BioSimParameterMap parameters = modelDefaultParameters.get(modelName);
+		if (parameters == null) {
+			parameters = loader.get();
+			BioSimParameterMap formerParameters = modelDefaultParameters.putIfAbsent(modelName, parameters);
+			if (formerParameters != null) {
+				parameters = formerParameters;
+			}
+		}
+		return parameters.copy();	// the caller is likely to change the parameters
+	}
+}
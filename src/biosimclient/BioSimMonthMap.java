@@ -38,12 +38,19 @@ import biosimclient.BioSimEnums.Variable;
 @SuppressWarnings("serial")
 final class BioSimMonthMap extends LinkedHashMap<Month, Map<Variable, Double>> {
 
+	private final List<Variable> variables;	// the variables for normals that are in the data set
 	
 	BioSimMonthMap(BioSimDataSet dataSet) {
 		Map<Variable, Integer> fieldIndices = new HashMap<Variable, Integer>();
 		for (Variable v : Variable.values()) {
 			fieldIndices.put(v, dataSet.getFieldNames().indexOf(v.fieldName));
 		}
+		variables = new ArrayList<Variable>();
+		for (Variable v : Variable.getVariablesForNormals()) {
+			if (fieldIndices.get(v) != -1) {
+				variables.add(v);
+			}
+		}
 		int monthIndexInDataset = dataSet.getFieldNames().indexOf("Month");
 		for (Observation obs : dataSet.getObservations()) {
 			Object[] record = obs.toArray();
@@ -65,7 +72,7 @@ final class BioSimMonthMap extends LinkedHashMap<Month, Map<Variable, Double>> {
 		int nbDays = 0;
 		for (Month month : months) {
 			if (containsKey(month)) {
-				for (Variable var : Variable.getVariablesForNormals()) {
+				for (Variable var : variables) {
 					if (get(month).containsKey(var)) {
 						double value = get(month).get(var);
 						if (!var.isAdditive()) {
@@ -84,7 +91,7 @@ final class BioSimMonthMap extends LinkedHashMap<Month, Map<Variable, Double>> {
 			}
 			nbDays += month.nbDays;
 		}
-		for (Variable var : Variable.getVariablesForNormals()) {
+		for (Variable var : variables) {
 			if (!var.additive) {
 				outputMap.put(var, outputMap.get(var) / nbDays);
 			}
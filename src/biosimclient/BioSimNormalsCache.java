@@ -0,0 +1,168 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import biosimclient.BioSimEnums.ClimateModel;
+import biosimclient.BioSimEnums.Month;
+import biosimclient.BioSimEnums.Period;
+import biosimclient.BioSimEnums.RCP;
+
+/**
+ * The cache of the normals. <br>
+ * <br>
+ * The entries are the data sets of single plots. They are keyed by the server address, 
+ * the coordinates, the elevation, the period, the RCP, the climate model, the months 
+ * over which the normals are averaged and the selected fields if any. They are looked up in the in-memory cache first 
+ * and then in the persistent cache. The cache returns copies of the data sets so that 
+ * the callers can change them.
+ * @author agent - October 2026
+ */
+final class BioSimNormalsCache {
+
+	/**
+	 * The outcome of looking up the locations of a request.
+	 */
+	final class Lookup {
+		
+		private final List<BioSimPlot> locations;
+		private final List<String> keys;
+		private final Map<String, BioSimDataSet> dataSets;
+		private final LinkedHashMap<String, BioSimPlot> missingLocations;
+		
+		private Lookup(List<BioSimPlot> locations, String requestKey) {
+			this.locations = locations;
+			keys = new ArrayList<String>(locations.size());
+			dataSets = new HashMap<String, BioSimDataSet>();
+			missingLocations = new LinkedHashMap<String, BioSimPlot>();
+			for (BioSimPlot location : locations) {
+				String key = getKey(location, requestKey);
+				keys.add(key);
+				if (!dataSets.containsKey(key) && !missingLocations.containsKey(key)) {
+					BioSimDataSet dataSet = memoryCache == null ? null : memoryCache.get(key);
+					if (dataSet == null && diskCache != null) {
+						dataSet = diskCache.get(key, BioSimDataSet.class);
+						if (dataSet != null && memoryCache != null) {
+							memoryCache.put(key, dataSet);
+						}
+					}
+					if (dataSet == null) {
+						missingLocations.put(key, location);
+					} else {
+						dataSets.put(key, dataSet);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Provide the locations that are not in the cache. A location is listed once even if
+		 * it occurs several times in the request.
+		 * @return a List of BioSimPlot instances
+		 */
+		List<BioSimPlot> getMissingLocations() {
+			return new ArrayList<BioSimPlot>(missingLocations.values());
+		}
+		
+		/**
+		 * Store the normals of the missing locations and provide the normals of all the
+		 * locations in the order of the request.
+		 * @param fetchedNormals the normals of the missing locations
+		 * @return a LinkedHashMap with the BioSimPlot instances as keys
+		 */
+		LinkedHashMap<BioSimPlot, BioSimDataSet> complete(LinkedHashMap<BioSimPlot, BioSimDataSet> fetchedNormals) {
+			for (Map.Entry<String, BioSimPlot> entry : missingLocations.entrySet()) {
+				BioSimDataSet dataSet = fetchedNormals.get(entry.getValue());
+				if (dataSet != null) {
+					dataSets.put(entry.getKey(), dataSet);
+					if (memoryCache != null) {
+						memoryCache.put(entry.getKey(), dataSet);
+					}
+					if (diskCache != null) {
+						diskCache.put(entry.getKey(), dataSet);
+					}
+				}
+			}
+			LinkedHashMap<BioSimPlot, BioSimDataSet> outputMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+			for (int i = 0; i < locations.size(); i++) {
+				BioSimDataSet dataSet = dataSets.get(keys.get(i));
+				if (dataSet != null) {
+					outputMap.put(locations.get(i), dataSet.clone());	// the cached instance must not be changed by the caller
+				}
+			}
+			return outputMap;
+		}
+	}
+	
+	private final BioSimLRUCache<String, BioSimDataSet> memoryCache;
+	private final BioSimDiskCache diskCache;
+	private final String serverKey;
+	
+	/**
+	 * Constructor.
+	 * @param memoryCache a BioSimLRUCache instance (can be null)
+	 * @param diskCache a BioSimDiskCache instance (can be null)
+	 * @param serverKey a String that identifies the server
+	 */
+	BioSimNormalsCache(BioSimLRUCache<String, BioSimDataSet> memoryCache, BioSimDiskCache diskCache, String serverKey) {
+		this.memoryCache = memoryCache;
+		this.diskCache = diskCache;
+		this.serverKey = serverKey;
+	}
+	
+	/**
+	 * Create an in-memory cache for the normals.
+	 * @param maximumNbEntries the maximum number of plots in the cache
+	 * @param maximumNbBytes the maximum estimated size of the cache (bytes)
+	 * @return a BioSimLRUCache instance
+	 */
+	static BioSimLRUCache<String, BioSimDataSet> createMemoryCache(int maximumNbEntries, long maximumNbBytes) {
+		return new BioSimLRUCache<String, BioSimDataSet>(maximumNbEntries, maximumNbBytes, BioSimDataSet::getEstimatedNbBytes);
+	}
+	
+	/**
+	 * Look up the locations of a request.
+	 * @param locations a List of BioSimPlot instances
+	 * @param period a Period enum
+	 * @param rcp an RCP enum (can be null)
+	 * @param climModel a ClimateModel enum (can be null)
+	 * @param averageOverTheseMonths a List of Month enums (can be null)
+	 * @param selectedFields a List of field names (can be null)
+	 * @return a Lookup instance
+	 */
+	Lookup lookUp(List<BioSimPlot> locations, Period period, RCP rcp, ClimateModel climModel, List<Month> averageOverTheseMonths, List<String> selectedFields) {
+		String requestKey = "normals;" + period.name() + ";" + rcp + ";" + climModel + ";" + 
+				(averageOverTheseMonths == null || averageOverTheseMonths.isEmpty() ? "monthly" : averageOverTheseMonths.toString()) +
+				(selectedFields == null ? "" : ";" + new TreeSet<String>(selectedFields));	// the order of the selected fields does not matter
+		return new Lookup(locations, requestKey);
+	}
+	
+	private String getKey(BioSimPlot location, String requestKey) {
+		return serverKey + ";" + location.getLatitudeDeg() + ";" + location.getLongitudeDeg() + ";" + location.getElevationM() + ";" + requestKey;
+	}
+}
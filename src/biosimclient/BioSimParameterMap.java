@@ -61,6 +61,16 @@ public final class BioSimParameterMap {
 			return sb.toString();
 	}
 	
+	/**
+	 * Provide a copy of this map.
+	 * @return a BioSimParameterMap instance
+	 */
+	BioSimParameterMap copy() {
+		BioSimParameterMap copy = new BioSimParameterMap();
+		copy.innerMap.putAll(innerMap);
+		return copy;
+	}
+	
 	public boolean isEmpty() {
 		return innerMap.isEmpty();
 	}
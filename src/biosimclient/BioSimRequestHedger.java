@@ -0,0 +1,328 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Send a duplicate of a request that is slower than most of the recent ones and keep 
+ * the first reply. <br>
+ * <br>
+ * The hedger records the latencies of the last requests, from the time they are sent to 
+ * the time the server replies. The time spent waiting for a connection permit is excluded. 
+ * Once there are enough latencies, a request that has been sent and has not been completed 
+ * within a given percentile of these latencies is sent a second time. The first successful 
+ * reply is returned and the other request is aborted. If both requests fail, the exception 
+ * of the original request is thrown. <br>
+ * <br>
+ * A duplicate request never waits for a permit. It is not sent if the original request has 
+ * been replied in the meantime, if there is no permit left, if all the threads of the hedger 
+ * are busy or if it would exceed the hedge budget, that is a tenth of the requests.
+ * @author agent - October 2026
+ */
+final class BioSimRequestHedger {
+
+	/**
+	 * A request that can be sent twice. It must not have any side effect.
+	 */
+	@FunctionalInterface
+	static interface HedgeableRequest<T> {
+		T send(Attempt attempt) throws BioSimClientException, BioSimServerException;
+	}
+	
+	/**
+	 * A single sending of a request. The client reports the progress of the request 
+	 * through this instance.
+	 */
+	final class Attempt {
+		
+		private final boolean isHedge;
+		private final Attempt originalAttempt;	// null if this attempt is the original
+		private final Set<BioSimEndpointSelector.Endpoint> endpointsInUse;	// shared by the attempts of the same request
+		private final CompletableFuture<Long> sentNanos = new CompletableFuture<Long>();
+		private volatile BioSimTransport.Reply reply;
+		private volatile boolean isAborted;
+		private volatile boolean isSkipped;
+		private volatile boolean isReplied;
+		
+		private Attempt(Attempt originalAttempt, Set<BioSimEndpointSelector.Endpoint> endpointsInUse) {
+			isHedge = originalAttempt != null;
+			this.originalAttempt = originalAttempt;
+			this.endpointsInUse = endpointsInUse;
+		}
+		
+		/**
+		 * Indicate whether this attempt is a duplicate, which must not wait for a permit.
+		 * @return a boolean
+		 */
+		boolean isHedge() {return isHedge;}
+		
+		/**
+		 * Provide the replicas that have already received the same request. They should be 
+		 * avoided if possible.
+		 * @return a Set of Endpoint instances
+		 */
+		Set<BioSimEndpointSelector.Endpoint> getEndpointsInUse() {return endpointsInUse;}
+		
+		/**
+		 * Report that the duplicate has not been sent since there was no permit left.
+		 */
+		void skip() {
+			isSkipped = true;
+		}
+		
+		/**
+		 * Report that the server replied successfully. This must be done before the permit 
+		 * of the request is released.
+		 */
+		void reportReply() {
+			isReplied = true;
+		}
+		
+		/**
+		 * Indicate whether the original request has already been replied, in which case 
+		 * this duplicate is useless.
+		 * @return a boolean
+		 */
+		boolean isOriginalReplied() {
+			return originalAttempt != null && originalAttempt.isReplied;
+		}
+		
+		/**
+		 * Report that the request is being sent to a replica. The delay before sending a 
+		 * duplicate starts at this time.
+		 * @param endpoint the Endpoint instance
+		 */
+		void start(BioSimEndpointSelector.Endpoint endpoint) {
+			endpointsInUse.add(endpoint);
+			if (sentNanos.complete(System.nanoTime()) && isHedge) {
+				nbHedgesSent.increment();
+			}
+		}
+		
+		/**
+		 * Register the reply so that the request can be aborted.
+		 * @param reply a BioSimTransport.Reply instance
+		 */
+		void setReply(BioSimTransport.Reply reply) {
+			this.reply = reply;
+			if (isAborted) {
+				reply.abort();
+			}
+		}
+		
+		/**
+		 * Record the time between the sending of the request and the reply of the server.
+		 * @param latencyNanos the latency (ns)
+		 */
+		void recordLatency(long latencyNanos) {
+			BioSimRequestHedger.this.recordLatency(latencyNanos);
+		}
+		
+		/**
+		 * Indicate whether the request has been aborted because the other attempt replied first.
+		 * @return a boolean
+		 */
+		boolean isAborted() {return isAborted;}
+		
+		private void abort() {
+			isAborted = true;
+			BioSimTransport.Reply reply = this.reply;
+			if (reply != null) {
+				reply.abort();
+			}
+		}
+	}
+	
+	private static final int MAXIMUM_NB_LATENCIES = 200;
+	static final int MINIMUM_NB_LATENCIES = 20;	// no hedging before
+	private static final double MAXIMUM_HEDGE_RATE = .1;
+	private static final AtomicInteger ThreadId = new AtomicInteger();
+	
+	private final double percentile;
+	private final int maximumNbThreads;
+	private final long[] latenciesNanos = new long[MAXIMUM_NB_LATENCIES];	// circular buffer guarded by this
+	private int nbLatencies;
+	private int nextLatencyIndex;
+	private final LongAdder nbRequests = new LongAdder();
+	private final LongAdder nbHedgesSent = new LongAdder();
+	private final LongAdder nbHedgesWon = new LongAdder();
+	private ThreadPoolExecutor executor;	// lazily instantiated
+
+	/**
+	 * Constructor.
+	 * @param percentile the percentile of the recent latencies beyond which a duplicate request is 
+	 * sent (must be greater than 0 and smaller than 100)
+	 * @param maximumNbThreads the maximum number of requests and duplicates that are sent at the 
+	 * same time through the hedger
+	 */
+	BioSimRequestHedger(double percentile, int maximumNbThreads) {
+		this.percentile = percentile;
+		this.maximumNbThreads = maximumNbThreads;
+	}
+	
+	private synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(0, 
+					maximumNbThreads, 
+					60, 
+					TimeUnit.SECONDS, 
+					new SynchronousQueue<Runnable>(),	// the tasks are rejected if all the threads are busy
+					r -> {
+						Thread t = new Thread(r, "BioSimClient-hedge-" + ThreadId.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					});
+		}
+		return executor;
+	}
+	
+	double getPercentile() {return percentile;}
+	
+	private synchronized void recordLatency(long latencyNanos) {
+		latenciesNanos[nextLatencyIndex] = latencyNanos;
+		nextLatencyIndex = (nextLatencyIndex + 1) % MAXIMUM_NB_LATENCIES;
+		if (nbLatencies < MAXIMUM_NB_LATENCIES) {
+			nbLatencies++;
+		}
+	}
+
+	/**
+	 * Provide the delay before sending a duplicate request.
+	 * @return the delay (ns) or -1 if there are not enough latencies yet
+	 */
+	synchronized long getHedgeDelayNanos() {
+		if (nbLatencies < MINIMUM_NB_LATENCIES) {
+			return -1;
+		}
+		long[] sortedLatencies = Arrays.copyOf(latenciesNanos, nbLatencies);
+		Arrays.sort(sortedLatencies);
+		int index = (int) Math.ceil(percentile * .01 * nbLatencies) - 1;
+		return sortedLatencies[Math.max(0, index)];
+	}
+
+	private boolean isWithinBudget() {
+		return nbHedgesSent.sum() + 1 <= MAXIMUM_HEDGE_RATE * nbRequests.sum();
+	}
+	
+	/**
+	 * Send a request and a duplicate if it is too slow. The request must not have any 
+	 * side effect since it can be sent twice.
+	 * @param request a HedgeableRequest instance that sends the request
+	 * @return the first successful reply
+	 * @throws BioSimClientException if the client fails
+	 * @throws BioSimServerException if the server fails
+	 */
+	<T> T invoke(HedgeableRequest<T> request) throws BioSimClientException, BioSimServerException {
+		nbRequests.increment();
+		long hedgeDelayNanos = getHedgeDelayNanos();
+		Set<BioSimEndpointSelector.Endpoint> endpointsInUse = ConcurrentHashMap.newKeySet();
+		Attempt originalAttempt = new Attempt(null, endpointsInUse);
+		if (hedgeDelayNanos < 0 || !isWithinBudget()) {
+			return request.send(originalAttempt);
+		}
+		CompletableFuture<T> original;
+		try {
+			original = BioSimBatchDispatcher.supplyAsync(() -> request.send(originalAttempt), getExecutor());
+		} catch (RejectedExecutionException e) {	// all the threads are busy
+			return request.send(originalAttempt);
+		}
+		try {
+			CompletableFuture.anyOf(original, originalAttempt.sentNanos).get();	// the delay starts once the request has been sent
+			if (!original.isDone()) {
+				long remainingDelayNanos = originalAttempt.sentNanos.get() + hedgeDelayNanos - System.nanoTime();
+				return original.get(remainingDelayNanos, TimeUnit.NANOSECONDS);
+			}
+		} catch (InterruptedException e) {
+			originalAttempt.abort();
+			throw new BioSimClientException("The request has been interrupted while waiting for the server reply!");
+		} catch (ExecutionException e) {	// handled below
+		} catch (TimeoutException e) {}
+		if (original.isDone() || !isWithinBudget()) {
+			return BioSimBatchDispatcher.getResult(original, Arrays.asList(original));
+		}
+		
+		Attempt hedgeAttempt = new Attempt(originalAttempt, endpointsInUse);
+		CompletableFuture<T> hedge;
+		try {
+			hedge = BioSimBatchDispatcher.supplyAsync(() -> request.send(hedgeAttempt), getExecutor());
+		} catch (RejectedExecutionException e) {	// all the threads are busy
+			return BioSimBatchDispatcher.getResult(original, Arrays.asList(original));
+		}
+		CompletableFuture<T> firstReply = new CompletableFuture<T>();
+		AtomicReference<Throwable> originalFailure = new AtomicReference<Throwable>();
+		AtomicInteger nbFailures = new AtomicInteger();
+		original.whenComplete((result, failure) -> {
+			if (failure == null) {
+				if (firstReply.complete(result)) {
+					hedgeAttempt.abort();
+				}
+			} else {
+				originalFailure.set(failure);
+				if (nbFailures.incrementAndGet() == 2) {
+					firstReply.completeExceptionally(failure);
+				}
+			}
+		});
+		hedge.whenComplete((result, failure) -> {
+			if (failure == null && !hedgeAttempt.isSkipped) {
+				if (firstReply.complete(result)) {
+					nbHedgesWon.increment();
+					originalAttempt.abort();
+				}
+			} else if (nbFailures.incrementAndGet() == 2) {
+				firstReply.completeExceptionally(originalFailure.get());
+			}
+		});
+		try {
+			return BioSimBatchDispatcher.getResult(firstReply, Arrays.asList(original, hedge));
+		} catch (BioSimClientException | BioSimServerException | RuntimeException e) {
+			originalAttempt.abort();	// nothing waits for them anymore
+			hedgeAttempt.abort();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Provide the counters of the hedger.
+	 * @return a BioSimHedgingStatistics instance
+	 */
+	BioSimHedgingStatistics getStatistics() {
+		long hedgeDelayNanos = getHedgeDelayNanos();
+		return new BioSimHedgingStatistics(nbRequests.sum(), 
+				nbHedgesSent.sum(), 
+				nbHedgesWon.sum(), 
+				hedgeDelayNanos < 0 ? Double.NaN : hedgeDelayNanos * 1E-6);
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The permits that limit the number of requests sent concurrently to the server. <br>
+ * <br>
+ * A permit is either waited for by the calling thread or provided through a CompletableFuture 
+ * instance, so that the asynchronous requests do not hold any thread while they wait. The 
+ * permits are granted in the order they were requested. A released permit is handed over 
+ * to the first request in line, if any.
+ * @author agent - October 2026
+ */
+final class BioSimRequestPermits {
+
+	private final ArrayDeque<CompletableFuture<Void>> pendingRequests = new ArrayDeque<CompletableFuture<Void>>();	// guarded by this
+	private int nbAvailablePermits;		// guarded by this
+	
+	/**
+	 * Constructor.
+	 * @param nbPermits the maximum number of requests sent concurrently
+	 */
+	BioSimRequestPermits(int nbPermits) {
+		nbAvailablePermits = nbPermits;
+	}
+	
+	/**
+	 * Request a permit without blocking. 
+	 * @return a CompletableFuture instance that is completed once the permit is granted
+	 */
+	CompletableFuture<Void> acquireAsync() {
+		synchronized(this) {
+			if (nbAvailablePermits > 0 && pendingRequests.isEmpty()) {
+				nbAvailablePermits--;
+				return CompletableFuture.completedFuture(null);
+			}
+			CompletableFuture<Void> permit = new CompletableFuture<Void>();
+			pendingRequests.add(permit);
+			return permit;
+		}
+	}
+	
+	/**
+	 * Wait for a permit.
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	void acquire() throws InterruptedException {
+		CompletableFuture<Void> permit = acquireAsync();
+		try {
+			permit.get();
+		} catch (InterruptedException e) {
+			if (!permit.cancel(false)) {	// the permit was granted in the meantime
+				release();
+			}
+			throw e;
+		} catch (ExecutionException e) {	// never completed exceptionally
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Take a permit only if one is available right away and no other request is waiting.
+	 * @return true if the permit has been granted
+	 */
+	synchronized boolean tryAcquire() {
+		if (nbAvailablePermits > 0 && pendingRequests.isEmpty()) {
+			nbAvailablePermits--;
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	/**
+	 * Release a permit. 
+	 */
+	void release() {
+		while (true) {
+			CompletableFuture<Void> pendingRequest;
+			synchronized(this) {
+				pendingRequest = pendingRequests.poll();
+				if (pendingRequest == null) {
+					nbAvailablePermits++;
+					return;
+				}
+			}
+			if (pendingRequest.complete(null)) {	// outside the lock since the dependent actions may run in this thread
+				return;
+			}	// otherwise the request has been cancelled
+		}
+	}
+}
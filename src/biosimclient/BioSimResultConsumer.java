@@ -0,0 +1,59 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+/**
+ * The interface that receives the results of a generateWeather request as soon 
+ * as they are parsed. <br>
+ * <br>
+ * The data set of a plot is passed to the consumer once all its observations have been 
+ * read. The client does not keep any reference to it afterwards. The calls are serialized 
+ * so that the implementations do not need to be thread safe. However, the plots may come 
+ * in an order that differs from that of the request since the batches of locations are 
+ * processed in parallel. The implementations must not send other requests through the 
+ * BioSimClient class.
+ * @author agent - October 2026
+ * @see BioSimClient#generateWeather(int, int, java.util.List, BioSimEnums.RCP, BioSimEnums.ClimateModel, java.util.List, int, int, java.util.List, java.util.List, BioSimRowFilter, BioSimResultConsumer)
+ */
+@FunctionalInterface
+public interface BioSimResultConsumer {
+
+	/**
+	 * Receive the data set of a plot.
+	 * @param modelName the name of the model
+	 * @param location the BioSimPlot instance as it was passed to the request
+	 * @param dataSet the BioSimDataSet instance
+	 * @throws BioSimClientException if the consumer fails, in which case the request is aborted
+	 */
+	public void accept(String modelName, BioSimPlot location, BioSimDataSet dataSet) throws BioSimClientException;
+
+	/**
+	 * Receive the error the server sent for a model. By default, the error is thrown 
+	 * and the request is aborted.
+	 * @param modelName the name of the model
+	 * @param e the BioSimClientException instance
+	 * @throws BioSimClientException if the request must be aborted
+	 */
+	public default void acceptError(String modelName, BioSimClientException e) throws BioSimClientException {
+		throw e;
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A filter on the rows of the server replies. <br>
+ * <br>
+ * The filter is a conjunction of simple comparisons on named fields, for instance
+ * <pre>
+ * BioSimRowFilter.between("Year", 2020, 2030).and(BioSimRowFilter.between("Month", 5, 9))
+ * </pre>
+ * It is evaluated on each line of the reply before the line is parsed so that the rows 
+ * that are filtered out are never stored. A comparison on a field that is not part of 
+ * a model output is ignored since a request can involve several models. A numerical 
+ * comparison is false if the field is not a number. <br>
+ * <br>
+ * The instances are immutable and can be shared among threads.
+ * @author agent - October 2026
+ */
+public final class BioSimRowFilter {
+
+	private static enum Operator {EqualTo, LessThan, LessThanOrEqualTo, GreaterThan, GreaterThanOrEqualTo}
+	
+	private static final class Condition {
+		private final String fieldName;
+		private final Operator operator;
+		private final double number;
+		private final String string;	// null if the comparison is numerical
+		
+		private Condition(String fieldName, Operator operator, double number, String string) {
+			if (fieldName == null) {
+				throw new InvalidParameterException("The field name cannot be null!");
+			}
+			this.fieldName = fieldName;
+			this.operator = operator;
+			this.number = number;
+			this.string = string;
+		}
+		
+		private boolean isSatisfied(String line, int start, int end, BioSimValueParser parser) {
+			if (string != null) {
+				return end - start == string.length() && line.regionMatches(start, string, 0, string.length());
+			}
+			double value;
+			switch(parser.scan(line, start, end)) {
+			case BioSimValueParser.INTEGER:
+				value = parser.getIntValue();
+				break;
+			case BioSimValueParser.DOUBLE:
+				value = parser.getDoubleValue();
+				break;
+			case BioSimValueParser.UNUSUAL:
+				Object o = parser.parseField(line, start, end);
+				if (o instanceof Number) {
+					value = ((Number) o).doubleValue();
+					break;
+				}
+				return false;
+			default:
+				return false;
+			}
+			switch(operator) {
+			case EqualTo:
+				return value == number;
+			case LessThan:
+				return value < number;
+			case LessThanOrEqualTo:
+				return value <= number;
+			case GreaterThan:
+				return value > number;
+			default:
+				return value >= number;
+			}
+		}
+	}
+	
+	/**
+	 * The evaluation of a filter on the lines of a reply. The indices of the fields are 
+	 * resolved once per header. An instance is meant to be used by a single thread.
+	 */
+	final class RowMatcher {
+		
+		private BioSimSchema headerSchema;
+		private final int[] fieldIndices;
+		private int nbFieldsToBeTokenized;
+		
+		private RowMatcher() {
+			fieldIndices = new int[conditions.size()];
+		}
+		
+		/**
+		 * Resolve the indices of the fields in a header.
+		 * @param headerSchema the schema of the header line
+		 */
+		void bind(BioSimSchema headerSchema) {
+			if (headerSchema != this.headerSchema) {	// the schemas are interned
+				nbFieldsToBeTokenized = 0;
+				for (int i = 0; i < fieldIndices.length; i++) {
+					fieldIndices[i] = headerSchema.getIndex(conditions.get(i).fieldName);
+					nbFieldsToBeTokenized = Math.max(nbFieldsToBeTokenized, fieldIndices[i] + 1);
+				}
+				this.headerSchema = headerSchema;
+			}
+		}
+		
+		/**
+		 * Provide the number of leading fields that must be tokenized to evaluate the filter.
+		 * @return an integer
+		 */
+		int getNumberOfFieldsToBeTokenized() {return nbFieldsToBeTokenized;}
+		
+		/**
+		 * Evaluate the filter on a tokenized line. A line that lacks some fields is kept 
+		 * so that the usual exception is thrown when it is added to the data set.
+		 * @param tokenizer a BioSimLineTokenizer instance
+		 * @return true if the line must be kept
+		 */
+		boolean matches(BioSimLineTokenizer tokenizer) {
+			if (tokenizer.getNumberOfFields() < nbFieldsToBeTokenized) {
+				return true;
+			}
+			String line = tokenizer.getLine();
+			for (int i = 0; i < fieldIndices.length; i++) {
+				int k = fieldIndices[i];
+				if (k >= 0 && !conditions.get(i).isSatisfied(line, tokenizer.getStart(k), tokenizer.getEnd(k), tokenizer.getValueParser())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	private final List<Condition> conditions;
+	
+	private BioSimRowFilter(List<Condition> conditions) {
+		this.conditions = Collections.unmodifiableList(conditions);
+	}
+
+	private BioSimRowFilter(Condition condition) {
+		this(Collections.singletonList(condition));
+	}
+	
+	/**
+	 * Keep the rows whose field is equal to a number.
+	 * @param fieldName the name of the field
+	 * @param value the value
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter equalTo(String fieldName, double value) {
+		return new BioSimRowFilter(new Condition(fieldName, Operator.EqualTo, value, null));
+	}
+	
+	/**
+	 * Keep the rows whose field is equal to a String (e.g. "Real_Data").
+	 * @param fieldName the name of the field
+	 * @param value the value
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter equalTo(String fieldName, String value) {
+		if (value == null) {
+			throw new InvalidParameterException("The value cannot be null!");
+		}
+		return new BioSimRowFilter(new Condition(fieldName, Operator.EqualTo, Double.NaN, value));
+	}
+
+	/**
+	 * Keep the rows whose field is smaller than a number.
+	 * @param fieldName the name of the field
+	 * @param value the value
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter lessThan(String fieldName, double value) {
+		return new BioSimRowFilter(new Condition(fieldName, Operator.LessThan, value, null));
+	}
+
+	/**
+	 * Keep the rows whose field is smaller than or equal to a number.
+	 * @param fieldName the name of the field
+	 * @param value the value
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter lessThanOrEqualTo(String fieldName, double value) {
+		return new BioSimRowFilter(new Condition(fieldName, Operator.LessThanOrEqualTo, value, null));
+	}
+
+	/**
+	 * Keep the rows whose field is greater than a number.
+	 * @param fieldName the name of the field
+	 * @param value the value
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter greaterThan(String fieldName, double value) {
+		return new BioSimRowFilter(new Condition(fieldName, Operator.GreaterThan, value, null));
+	}
+
+	/**
+	 * Keep the rows whose field is greater than or equal to a number.
+	 * @param fieldName the name of the field
+	 * @param value the value
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter greaterThanOrEqualTo(String fieldName, double value) {
+		return new BioSimRowFilter(new Condition(fieldName, Operator.GreaterThanOrEqualTo, value, null));
+	}
+
+	/**
+	 * Keep the rows whose field lies between two numbers (inclusive).
+	 * @param fieldName the name of the field
+	 * @param lowerBound the lower bound
+	 * @param upperBound the upper bound
+	 * @return a BioSimRowFilter instance
+	 */
+	public static BioSimRowFilter between(String fieldName, double lowerBound, double upperBound) {
+		return greaterThanOrEqualTo(fieldName, lowerBound).and(lessThanOrEqualTo(fieldName, upperBound));
+	}
+	
+	/**
+	 * Combine this filter with another one. The rows must satisfy both filters.
+	 * @param otherFilter a BioSimRowFilter instance
+	 * @return a new BioSimRowFilter instance
+	 */
+	public BioSimRowFilter and(BioSimRowFilter otherFilter) {
+		List<Condition> newConditions = new ArrayList<Condition>(conditions);
+		newConditions.addAll(otherFilter.conditions);
+		return new BioSimRowFilter(newConditions);
+	}
+
+	/**
+	 * Provide a matcher that evaluates this filter on the lines of a reply.
+	 * @return a RowMatcher instance
+	 */
+	RowMatcher getMatcher() {
+		return new RowMatcher();
+	}
+	
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The field names of a BioSimDataSet instance. <br>
+ * <br>
+ * The instances are immutable and interned so that the data sets of all the plots of a
+ * model share the same instance. Two schemas with the same field names are then the same
+ * instance. The lists of field types are interned as well.
+ * @author agent - October 2026
+ */
+@SuppressWarnings("serial")
+final class BioSimSchema implements Serializable {
+
+	private static final int MAXIMUM_NB_INTERNED_INSTANCES = 1000;	// beyond this, the instances are not interned anymore 
+	
+	private static final Map<List<String>, BioSimSchema> SchemasByFieldNames = new ConcurrentHashMap<List<String>, BioSimSchema>();
+	private static final Map<String, BioSimSchema> SchemasByHeaderLine = new ConcurrentHashMap<String, BioSimSchema>();
+	private static final Map<List<Class<?>>, List<Class<?>>> FieldTypes = new ConcurrentHashMap<List<Class<?>>, List<Class<?>>>();
+	
+	private final List<String> fieldNames;
+	private transient volatile Map<String, Integer> fieldIndices;
+	
+	private BioSimSchema(List<String> fieldNames) {
+		this.fieldNames = fieldNames;
+	}
+
+	/**
+	 * Provide the schema of a header line of the server reply. 
+	 * @param headerLine the field names separated by commas
+	 * @return a BioSimSchema instance
+	 */
+	static BioSimSchema getSchema(String headerLine) {
+		BioSimSchema schema = SchemasByHeaderLine.get(headerLine);
+		if (schema == null) {
+			schema = getSchema(Arrays.asList(headerLine.split(BioSimClient.FieldSeparator)));
+			if (SchemasByHeaderLine.size() < MAXIMUM_NB_INTERNED_INSTANCES) {
+				SchemasByHeaderLine.put(headerLine, schema);
+			}
+		}
+		return schema;
+	}
+	
+	/**
+	 * Provide the schema of a list of field names. The duplicate field names are made
+	 * unique by appending a number to them.
+	 * @param originalFieldNames a List of String instances
+	 * @return a BioSimSchema instance
+	 */
+	static BioSimSchema getSchema(List<String> originalFieldNames) {
+		BioSimSchema schema = SchemasByFieldNames.get(originalFieldNames);
+		if (schema == null) {
+			List<String> fieldNames = new ArrayList<String>(originalFieldNames.size());
+			Map<String, Integer> fieldIndices = new HashMap<String, Integer>();
+			for (String originalName : originalFieldNames) {
+				addFieldName(fieldNames, fieldIndices, originalName);
+			}
+			schema = intern(new BioSimSchema(Collections.unmodifiableList(fieldNames)));
+			if (!originalFieldNames.equals(fieldNames) && SchemasByFieldNames.size() < MAXIMUM_NB_INTERNED_INSTANCES) {
+				SchemasByFieldNames.put(Collections.unmodifiableList(new ArrayList<String>(originalFieldNames)), schema);
+			}
+		}
+		return schema;
+	}
+
+	private static void addFieldName(List<String> fieldNames, Map<String, Integer> fieldIndices, String originalName) {
+		int index = 0;
+		String name = originalName;
+		while (fieldIndices.containsKey(name)) {
+			name = originalName + index;
+			index++;
+		}
+		fieldIndices.put(name, fieldNames.size());
+		fieldNames.add(name);
+	}
+
+	private static BioSimSchema intern(BioSimSchema schema) {
+		BioSimSchema internedSchema = SchemasByFieldNames.get(schema.fieldNames);
+		if (internedSchema != null) {
+			return internedSchema;
+		} else if (SchemasByFieldNames.size() < MAXIMUM_NB_INTERNED_INSTANCES) {
+			internedSchema = SchemasByFieldNames.putIfAbsent(schema.fieldNames, schema);
+			return internedSchema != null ? internedSchema : schema;
+		} else {
+			return schema;
+		}
+	}
+	
+	/**
+	 * Provide an interned immutable list of field types. 
+	 * @param fieldTypes a List of Class instances
+	 * @return an immutable List of Class instances that is equal to the argument
+	 */
+	static List<Class<?>> getFieldTypes(List<Class<?>> fieldTypes) {
+		List<Class<?>> internedFieldTypes = FieldTypes.get(fieldTypes);
+		if (internedFieldTypes == null) {
+			internedFieldTypes = Collections.unmodifiableList(new ArrayList<Class<?>>(fieldTypes));
+			if (FieldTypes.size() < MAXIMUM_NB_INTERNED_INSTANCES) {
+				List<Class<?>> formerFieldTypes = FieldTypes.putIfAbsent(internedFieldTypes, internedFieldTypes);
+				if (formerFieldTypes != null) {
+					internedFieldTypes = formerFieldTypes;
+				}
+			}
+		}
+		return internedFieldTypes;
+	}
+	
+	/**
+	 * Provide the field names.
+	 * @return an immutable List of String instances
+	 */
+	List<String> getFieldNames() {return fieldNames;}
+	
+	int getNumberOfFields() {return fieldNames.size();}
+	
+	/**
+	 * Provide the index of a field.
+	 * @param fieldName the name of the field
+	 * @return the index of the field or -1 if the field does not exist
+	 */
+	int getIndex(String fieldName) {
+		if (fieldIndices == null) {
+			Map<String, Integer> indices = new HashMap<String, Integer>();
+			for (int i = 0; i < fieldNames.size(); i++) {
+				indices.put(fieldNames.get(i), i);
+			}
+			fieldIndices = indices;
+		}
+		Integer index = fieldIndices.get(fieldName);
+		return index == null ? -1 : index;
+	}
+	
+	/**
+	 * Provide the schema with an additional field.
+	 * @param originalName the name of the new field, which is made unique if needs be
+	 * @return a BioSimSchema instance
+	 */
+	BioSimSchema addField(String originalName) {
+		List<String> newFieldNames = new ArrayList<String>(fieldNames);
+		String name = originalName;
+		int index = 0;
+		while (getIndex(name) != -1) {
+			name = originalName + index;
+			index++;
+		}
+		newFieldNames.add(name);
+		return intern(new BioSimSchema(Collections.unmodifiableList(newFieldNames)));
+	}
+
+	/**
+	 * Provide the schema without a particular field.
+	 * @param fieldId the index of the field
+	 * @return a BioSimSchema instance
+	 */
+	BioSimSchema removeField(int fieldId) {
+		List<String> newFieldNames = new ArrayList<String>(fieldNames);
+		newFieldNames.remove(fieldId);
+		return intern(new BioSimSchema(Collections.unmodifiableList(newFieldNames)));
+	}
+	
+	/*
+	 * The deserialized instances are interned as well.
+	 */
+	private Object readResolve() {
+		return intern(this);
+	}
+	
+	@Override
+	public String toString() {return fieldNames.toString();}
+}
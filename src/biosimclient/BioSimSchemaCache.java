@@ -0,0 +1,80 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remember the field names and the field types of the data sets of each model. Each 
+ * client instance has its own cache for the server it sends its requests to. <br>
+ * <br>
+ * The field types are recorded after the first successful reply. The data sets of 
+ * the next replies are then created with typed columns, which avoids inferring the type 
+ * of each value. The cached types are only used if the header of the reply is the same 
+ * as the one that was recorded. Moreover, a typed column that receives a value of another
+ * class falls back on inference so that the data sets are the same as they would be 
+ * without the cache.
+ * @author agent - October 2026
+ */
+final class BioSimSchemaCache {
+
+	private static final class Entry {
+		private final BioSimSchema schema;
+		private final List<Class<?>> fieldTypes;
+		
+		private Entry(BioSimSchema schema, List<Class<?>> fieldTypes) {
+			this.schema = schema;
+			this.fieldTypes = fieldTypes;
+		}
+	}
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	
+	BioSimSchemaCache() {}
+	
+	/**
+	 * Provide the field types recorded for a model.
+	 * @param modelName the name of the model 
+	 * @param schema the schema of the header in the current reply
+	 * @return a List of classes or null if no type has been recorded for this model or if the header has changed
+	 */
+	List<Class<?>> getFieldTypes(String modelName, BioSimSchema schema) {
+		Entry entry = entries.get(modelName);
+		return entry != null && entry.schema == schema ? entry.fieldTypes : null;	// the schemas are interned
+	}
+	
+	/**
+	 * Record the field types of a data set once its types have been indexed.
+	 * @param modelName the name of the model
+	 * @param dataSet a BioSimDataSet instance
+	 */
+	void register(String modelName, BioSimDataSet dataSet) {
+		if (dataSet.getNumberOfObservations() > 0 && dataSet.fieldTypes.size() == dataSet.getSchema().getNumberOfFields()) {
+			Entry entry = entries.get(modelName);
+			if (entry == null || entry.schema != dataSet.getSchema() || entry.fieldTypes != dataSet.fieldTypes) {	// the field types are interned as well
+				entries.put(modelName, new Entry(dataSet.getSchema(), dataSet.fieldTypes));
+			}
+		}
+	}
+}
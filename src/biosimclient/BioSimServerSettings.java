@@ -0,0 +1,81 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Map;
+
+/**
+ * The settings of the server as reported by its status. <br>
+ * <br>
+ * The instances are immutable so that they can be shared among threads once they 
+ * have been safely published.
+ * @author agent - October 2026
+ */
+final class BioSimServerSettings {
+
+	private final int maximumNbLocationsPerBatchNormals;
+	private final int maximumNbLocationsPerBatchWeatherGeneration;
+	private final boolean isClientSupported;
+	private final String clientMessage;
+	private final int lastDailyDate;
+	
+	private BioSimServerSettings(int maximumNbLocationsPerBatchNormals, 
+			int maximumNbLocationsPerBatchWeatherGeneration, 
+			boolean isClientSupported, 
+			String clientMessage, 
+			int lastDailyDate) {
+		this.maximumNbLocationsPerBatchNormals = maximumNbLocationsPerBatchNormals;
+		this.maximumNbLocationsPerBatchWeatherGeneration = maximumNbLocationsPerBatchWeatherGeneration;
+		this.isClientSupported = isClientSupported;
+		this.clientMessage = clientMessage;
+		this.lastDailyDate = lastDailyDate;
+	}
+	
+	/**
+	 * Create an instance from the settings entry of the server status.
+	 * @param settingsMap the settings as parsed from the JSON reply
+	 * @return a BioSimServerSettings instance
+	 * @throws BioSimClientException if the settings cannot be parsed
+	 */
+	@SuppressWarnings("rawtypes")
+	static BioSimServerSettings parse(Map settingsMap) throws BioSimClientException {
+		try {
+			return new BioSimServerSettings(((Number) settingsMap.get("NbMaxCoordinatesNormals")).intValue(),
+					((Number) settingsMap.get("NbMaxCoordinatesWG")).intValue(),
+					settingsMap.containsKey("IsClientSupported") ? (Boolean) settingsMap.get("IsClientSupported") : true,
+					settingsMap.containsKey("ClientMessage") ? (String) settingsMap.get("ClientMessage") : "",
+					((Number) settingsMap.get("LastDailyDate")).intValue());
+		} catch (Exception e) {
+			throw new BioSimClientException("The server reply could not be parsed: " + e.getMessage());
+		}
+	}
+	
+	int getMaximumNbLocationsPerBatchNormals() {return maximumNbLocationsPerBatchNormals;}
+	
+	int getMaximumNbLocationsPerBatchWeatherGeneration() {return maximumNbLocationsPerBatchWeatherGeneration;}
+	
+	boolean isClientSupported() {return isClientSupported;}
+	
+	String getClientMessage() {return clientMessage;}
+	
+	int getLastDailyDate() {return lastDailyDate;}
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * The interface that sends the requests to the BioSIM Web API. <br>
+ * <br>
+ * The default implementation relies on HttpURLConnection and keeps the connections
+ * alive between the requests. Another implementation can be set through the 
+ * BioSimClient.setTransport method. The implementations must be thread safe.
+ * @author agent - October 2026
+ */
+public interface BioSimTransport {
+
+	/**
+	 * The reply of the server to a request.
+	 */
+	public static interface Reply extends Closeable {
+
+		/**
+		 * Provide the HTTP status code of the reply.
+		 * @return an integer
+		 * @throws IOException if the reply cannot be read
+		 */
+		public int getResponseCode() throws IOException;
+		
+		/**
+		 * Provide the body of the reply. If the status code is 400 or greater,
+		 * this is the error message sent by the server.
+		 * @return an InputStream instance
+		 * @throws IOException if the reply cannot be read
+		 */
+		public InputStream getInputStream() throws IOException;
+		
+		/**
+		 * Release the connection. It is called once the body has been read or 
+		 * if the reading failed.
+		 */
+		@Override
+		public void close();
+		
+		/**
+		 * Abort the request from another thread, typically because its reply is no
+		 * longer needed. The connection must not be reused. The thread that reads the 
+		 * reply then gets an IOException. The default implementation does nothing.
+		 */
+		public default void abort() {}
+	}
+	
+	/**
+	 * Send a GET request. <br>
+	 * <br>
+	 * The connection should be established before this method returns. An IOException 
+	 * thrown by this method means that the request has not reached the server, so that
+	 * it can be sent to another replica.
+	 * @param url the URL of the request including the query
+	 * @param connectTimeoutMs the timeout (ms) for establishing the connection (0 means no timeout)
+	 * @param readTimeoutMs the timeout (ms) for reading the reply (0 means no timeout)
+	 * @return a Reply instance
+	 * @throws IOException if the connection cannot be established
+	 */
+	public Reply send(URL url, int connectTimeoutMs, int readTimeoutMs) throws IOException;
+	
+}
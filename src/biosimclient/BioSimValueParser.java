@@ -0,0 +1,252 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+/**
+ * Convert the fields of the server replies into Integer, Double or String instances. <br>
+ * <br>
+ * The class yields the same values as the former approach, which tried Double.parseDouble 
+ * or Integer.parseInt and caught the NumberFormatException. However, it decides the type 
+ * in a single pass without throwing any exception. A plain decimal number is converted 
+ * exactly through a single floating-point multiplication or division (Clinger's fast path) 
+ * if its significant digits, read as an integer, are lower than 2^53 and its power of ten 
+ * is between -22 and 22. This covers any number with at most 15 significant digits and 
+ * some numbers with 16 digits. The other numbers are delegated to Double.parseDouble. The unusual syntaxes (e.g. white spaces or hexadecimal 
+ * numbers) are left to the former approach. <br>
+ * <br>
+ * An instance can scan the fields without creating any object. It is meant to be used by
+ * a single thread.
+ * @author agent - October 2026
+ */
+final class BioSimValueParser {
+
+	/** The field is a String. */
+	static final int STRING = 0;
+	/** The field is an integer. */
+	static final int INTEGER = 1;
+	/** The field is a double. */
+	static final int DOUBLE = 2;
+	/** The syntax of the field is unusual. The field must be parsed with the former approach. */
+	static final int UNUSUAL = 3;
+	
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		double value = 1d;
+		for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = value;	// exact up to 1E22
+			value *= 10;
+		}
+	}
+	
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final int MAX_NB_DIGITS = 18;	// so that the mantissa fits into a long
+	
+	private int intValue;
+	private double doubleValue;
+	
+	BioSimValueParser() {}
+	
+	/**
+	 * Parse a String.
+	 * @param valueStr the String to be parsed
+	 * @return an Integer, a Double or the original String instance
+	 */
+	static Object parse(String valueStr) {
+		return new BioSimValueParser().parse(valueStr, 0, valueStr.length(), valueStr);
+	}
+	
+	/**
+	 * Parse a portion of a line.
+	 * @param line the line
+	 * @param start the index of the first character
+	 * @param end the index following the last character
+	 * @return an Integer, a Double or a String instance
+	 */
+	static Object parse(String line, int start, int end) {
+		return new BioSimValueParser().parse(line, start, end, null);
+	}
+	
+	/**
+	 * Parse a portion of a line with this instance.
+	 * @param line the line
+	 * @param start the index of the first character
+	 * @param end the index following the last character
+	 * @return an Integer, a Double or a String instance
+	 */
+	Object parseField(String line, int start, int end) {
+		return parse(line, start, end, null);
+	}
+	
+	private Object parse(String line, int start, int end, String valueStr) {
+		switch(scan(line, start, end)) {
+		case INTEGER:
+			return intValue;
+		case DOUBLE:
+			return doubleValue;
+		case STRING:
+			return valueStr != null ? valueStr : line.substring(start, end);
+		default:
+			return parseTheFormerWay(valueStr != null ? valueStr : line.substring(start, end));
+		}
+	}
+	
+	/**
+	 * Provide the value of the last field scanned as an integer.
+	 * @return an int
+	 */
+	int getIntValue() {return intValue;}
+	
+	/**
+	 * Provide the value of the last field scanned as a double.
+	 * @return a double
+	 */
+	double getDoubleValue() {return doubleValue;}
+	
+	/**
+	 * Find the type of a field and compute its value if it is a number. The value is 
+	 * then available through the getIntValue or getDoubleValue method.
+	 * @param line the line
+	 * @param start the index of the first character
+	 * @param end the index following the last character
+	 * @return STRING, INTEGER, DOUBLE or UNUSUAL
+	 */
+	int scan(String line, int start, int end) {
+		if (start == end) {
+			return STRING;
+		}
+		char first = line.charAt(start);
+		if ((first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z')) {	// neither Double.parseDouble nor Integer.parseInt accept a leading letter other than those of NaN and Infinity, which cannot be parsed either in the former approach 
+			return STRING;
+		}
+		
+		int i = start;
+		boolean isNegative = false;
+		if (first == '-' || first == '+') {
+			isNegative = first == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int nbSignificantDigits = 0;
+		int nbDigits = 0;
+		int decimalExponent = 0;
+		boolean hasDecimalPoint = false;
+		boolean hasExponent = false;
+		for (; i < end; i++) {
+			char c = line.charAt(i);
+			if (c >= '0' && c <= '9') {
+				nbDigits++;
+				if (nbSignificantDigits > 0 || c != '0') {
+					nbSignificantDigits++;
+					if (nbSignificantDigits <= MAX_NB_DIGITS) {
+						mantissa = mantissa * 10 + (c - '0');
+					}
+				}
+				if (hasDecimalPoint) {
+					decimalExponent--;
+				}
+			} else if (c == '.' && !hasDecimalPoint) {
+				hasDecimalPoint = true;
+			} else {
+				break;
+			}
+		}
+		if (nbDigits == 0) {
+			return UNUSUAL;
+		}
+		if (i < end) {
+			char c = line.charAt(i);
+			if (c != 'e' && c != 'E') {
+				return cannotFollowANumber(c) ? STRING : UNUSUAL;	// e.g. dates such as 2020-01-01
+			}
+			hasExponent = true;
+			i++;
+			boolean isExponentNegative = false;
+			if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+				isExponentNegative = line.charAt(i) == '-';
+				i++;
+			}
+			if (i == end) {
+				return UNUSUAL;
+			}
+			int exponent = 0;
+			for (; i < end; i++) {
+				c = line.charAt(i);
+				if (c < '0' || c > '9') {
+					return cannotFollowANumber(c) ? STRING : UNUSUAL;
+				}
+				if (exponent < 100000) {
+					exponent = exponent * 10 + (c - '0');
+				}
+			}
+			decimalExponent += isExponentNegative ? -exponent : exponent;
+		}
+		
+		if (!hasDecimalPoint && !hasExponent) {	// integer
+			if (nbSignificantDigits > 10) {
+				return STRING;	// out of range 
+			}
+			long value = isNegative ? -mantissa : mantissa;
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+				return STRING;
+			}
+			intValue = (int) value;
+			return INTEGER;
+		}
+		
+		if (nbSignificantDigits <= MAX_NB_DIGITS && mantissa < MAX_EXACT_MANTISSA && Math.abs(decimalExponent) < POWERS_OF_TEN.length) {
+			double value = mantissa;
+			value = decimalExponent >= 0 ? value * POWERS_OF_TEN[decimalExponent] : value / POWERS_OF_TEN[-decimalExponent];
+			doubleValue = isNegative ? -value : value;
+		} else {
+			doubleValue = Double.parseDouble(line.substring(start, end));
+		}
+		return DOUBLE;
+	}
+	
+	/**
+	 * Check if a character makes the field a String for sure. Double.parseDouble accepts 
+	 * trailing white spaces and some letters (e.g. the f and d suffixes) whereas Integer.parseInt
+	 * accepts non ASCII digits. The other characters cannot follow a number.
+	 */
+	private static boolean cannotFollowANumber(char c) {
+		return c > ' ' && c < 128 && !((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'));
+	}
+	
+	/**
+	 * The former approach for the unusual syntaxes.
+	 */
+	private static Object parseTheFormerWay(String valueStr) {
+		if (valueStr.contains(".") || valueStr.contains("e") || valueStr.contains("E")) { // might be a double or a string
+			try {
+				return Double.parseDouble(valueStr);
+			} catch (NumberFormatException e2) {
+				return valueStr;
+			}
+		} else {	// might be an integer or a string
+			try {
+				return Integer.parseInt(valueStr);
+			} catch (NumberFormatException e2) {
+				return valueStr;
+			}
+		}
+	}
+}
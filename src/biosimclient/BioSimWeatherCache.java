@@ -0,0 +1,307 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cache of the observed weather. <br>
+ * <br>
+ * The years prior to the last daily date of the server are compiled from observations. The
+ * outputs of a model for these years do not change from a request to another. The year of 
+ * the last daily date is only partly observed and it is never cached. The entries are the 
+ * rows of a single year for a single plot and a single model. They are keyed by the server 
+ * address, the coordinates, the elevation, the model, its parameters, the number of nearest 
+ * neighbours and the year. <br>
+ * <br>
+ * Each entry keeps the last daily date of the server at the time it was stored. An entry 
+ * whose year is not prior to this date is never served. <br>
+ * <br>
+ * The outputs can be split by year only if they have a Year field. The outputs of a year must
+ * not depend on the former years.
+ * @author agent - October 2026
+ */
+final class BioSimWeatherCache {
+
+	private static final String YEAR_FIELD = "Year";
+	
+	/**
+	 * The rows of a single year and the last daily date of the server when they were stored.
+	 */
+	static final class Entry implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+
+		private final int lastDailyDate;
+		private final BioSimDataSet dataSet;
+		
+		private Entry(int lastDailyDate, BioSimDataSet dataSet) {
+			this.lastDailyDate = lastDailyDate;
+			this.dataSet = dataSet;
+		}
+		
+		long getEstimatedNbBytes() {
+			return dataSet.getEstimatedNbBytes();
+		}
+	}
+	
+	/**
+	 * The outcome of looking up the locations of a request.
+	 */
+	final class Lookup {
+		
+		private final int toYr;
+		private final List<BioSimPlot> locations;
+		private final List<String> modelNames;
+		private final List<String> modelKeys;
+		private final int[] firstMissingYears;
+		private final List<List<List<BioSimDataSet>>> cachedYears;	// by location, model and year
+		private final LinkedHashMap<Integer, List<BioSimPlot>> missingLocations;
+		
+		private Lookup(int fromYr, int toYr, List<BioSimPlot> locations, List<String> modelNames, List<String> modelKeys) {
+			this.toYr = toYr;
+			this.locations = locations;
+			this.modelNames = modelNames;
+			this.modelKeys = modelKeys;
+			firstMissingYears = new int[locations.size()];
+			cachedYears = new ArrayList<List<List<BioSimDataSet>>>(locations.size());
+			missingLocations = new LinkedHashMap<Integer, List<BioSimPlot>>();
+			int lastCachedYr = Math.min(toYr, lastDailyDate - 1);	// the year of the last daily date is incomplete
+			for (int i = 0; i < locations.size(); i++) {
+				List<List<BioSimDataSet>> cachedYearsForThisLocation = new ArrayList<List<BioSimDataSet>>(modelKeys.size());
+				for (int m = 0; m < modelKeys.size(); m++) {
+					cachedYearsForThisLocation.add(new ArrayList<BioSimDataSet>());
+				}
+				int yr = fromYr;
+				boolean isComplete = true;
+				while (isComplete && yr <= lastCachedYr) {	// only the leading years are of interest since a single span is requested
+					List<BioSimDataSet> dataSetsOfThisYear = new ArrayList<BioSimDataSet>(modelKeys.size());
+					for (int m = 0; m < modelKeys.size() && isComplete; m++) {
+						BioSimDataSet dataSet = get(getKey(locations.get(i), modelKeys.get(m), yr), yr);
+						if (dataSet == null) {
+							isComplete = false;
+						} else {
+							dataSetsOfThisYear.add(dataSet);
+						}
+					}
+					if (isComplete) {
+						for (int m = 0; m < modelKeys.size(); m++) {
+							cachedYearsForThisLocation.get(m).add(dataSetsOfThisYear.get(m));
+						}
+						yr++;
+					}
+				}
+				firstMissingYears[i] = yr;
+				cachedYears.add(cachedYearsForThisLocation);
+				if (yr <= toYr) {
+					if (!missingLocations.containsKey(yr)) {
+						missingLocations.put(yr, new ArrayList<BioSimPlot>());
+					}
+					missingLocations.get(yr).add(locations.get(i));
+				}
+			}
+		}
+		
+		/**
+		 * Provide the locations whose years are not all in the cache. The locations are 
+		 * grouped by their first missing year.
+		 * @return a LinkedHashMap with the first missing years as keys
+		 */
+		LinkedHashMap<Integer, List<BioSimPlot>> getMissingLocations() {
+			return missingLocations;
+		}
+		
+		/**
+		 * Store the observed years of the outputs that have been fetched and provide the 
+		 * outputs of all the locations in the order of the request. <br>
+		 * <br>
+		 * The output of a model is an exception if one of the requests failed for this model.
+		 * @param fetchedOutputs the outputs of the generateWeather requests by first missing year
+		 * @return a LinkedHashMap with the model names as keys
+		 */
+		@SuppressWarnings("unchecked")
+		LinkedHashMap<String, Object> complete(Map<Integer, LinkedHashMap<String, Object>> fetchedOutputs) {
+			LinkedHashMap<String, Object> outputMap = new LinkedHashMap<String, Object>();
+			for (int m = 0; m < modelNames.size(); m++) {
+				String modelName = modelNames.get(m);
+				Object error = null;
+				for (LinkedHashMap<String, Object> fetchedOutput : fetchedOutputs.values()) {
+					if (!(fetchedOutput.get(modelName) instanceof LinkedHashMap)) {
+						error = fetchedOutput.containsKey(modelName) ? 
+								fetchedOutput.get(modelName) : 
+									new BioSimClientException("The server reply does not contain model " + modelName + "!");
+					}
+				}
+				if (error != null) {
+					outputMap.put(modelName, error);
+					continue;
+				}
+				LinkedHashMap<BioSimPlot, BioSimDataSet> resultMap = new LinkedHashMap<BioSimPlot, BioSimDataSet>();
+				for (int i = 0; i < locations.size(); i++) {
+					BioSimPlot location = locations.get(i);
+					BioSimDataSet fetchedDataSet = null;
+					if (firstMissingYears[i] <= toYr) {
+						fetchedDataSet = ((LinkedHashMap<BioSimPlot, BioSimDataSet>) fetchedOutputs.get(firstMissingYears[i]).get(modelName)).get(location);
+						if (fetchedDataSet == null) {
+							continue;
+						}
+						store(location, modelKeys.get(m), firstMissingYears[i], fetchedDataSet);
+					}
+					List<BioSimDataSet> cachedDataSets = cachedYears.get(i).get(m);
+					if (cachedDataSets.isEmpty()) {
+						resultMap.put(location, fetchedDataSet);
+					} else {
+						BioSimDataSet dataSet = new BioSimDataSet(cachedDataSets.get(0).getSchema());
+						for (BioSimDataSet cachedDataSet : cachedDataSets) {
+							append(dataSet, cachedDataSet);
+						}
+						if (fetchedDataSet != null) {
+							append(dataSet, fetchedDataSet);
+						}
+						dataSet.indexFieldType();
+						resultMap.put(location, dataSet);
+					}
+				}
+				outputMap.put(modelName, resultMap);
+			}
+			return outputMap;
+		}
+		
+		/**
+		 * Split the observed years of a data set and store them. Nothing is stored if 
+		 * the data set has no Year field.
+		 */
+		private void store(BioSimPlot location, String modelKey, int fetchedFromYr, BioSimDataSet fetchedDataSet) {
+			int yearFieldIndex = fetchedDataSet.getSchema().getFieldNames().indexOf(YEAR_FIELD);
+			if (yearFieldIndex == -1) {
+				return;
+			}
+			int lastCachedYr = Math.min(toYr, lastDailyDate - 1);	// the year of the last daily date is incomplete
+			Map<Integer, BioSimDataSet> dataSetsByYear = new HashMap<Integer, BioSimDataSet>();
+			for (int yr = fetchedFromYr; yr <= lastCachedYr; yr++) {	// the years without any row are stored as well
+				dataSetsByYear.put(yr, new BioSimDataSet(fetchedDataSet.getSchema()));
+			}
+			for (int i = 0; i < fetchedDataSet.getNumberOfObservations(); i++) {
+				Object year = fetchedDataSet.getValueAt(i, yearFieldIndex);
+				if (!(year instanceof Integer)) {
+					return;		// cannot be split
+				}
+				BioSimDataSet dataSetOfThisYear = dataSetsByYear.get(year);
+				if (dataSetOfThisYear != null) {
+					dataSetOfThisYear.appendObservation(fetchedDataSet, i);
+				}
+			}
+			for (Map.Entry<Integer, BioSimDataSet> entry : dataSetsByYear.entrySet()) {
+				entry.getValue().indexFieldType();
+				put(getKey(location, modelKey, entry.getKey()), entry.getValue());
+			}
+		}
+		
+		private void append(BioSimDataSet dataSet, BioSimDataSet source) {
+			for (int i = 0; i < source.getNumberOfObservations(); i++) {
+				dataSet.appendObservation(source, i);
+			}
+		}
+	}
+	
+	private final BioSimLRUCache<String, Entry> memoryCache;
+	private final BioSimDiskCache diskCache;
+	private final String serverKey;
+	private final int lastDailyDate;
+	
+	/**
+	 * Constructor.
+	 * @param memoryCache a BioSimLRUCache instance
+	 * @param diskCache a BioSimDiskCache instance (can be null)
+	 * @param serverKey a String that identifies the server
+	 * @param lastDailyDate the current last daily date of the server
+	 */
+	BioSimWeatherCache(BioSimLRUCache<String, Entry> memoryCache, BioSimDiskCache diskCache, String serverKey, int lastDailyDate) {
+		this.memoryCache = memoryCache;
+		this.diskCache = diskCache;
+		this.serverKey = serverKey;
+		this.lastDailyDate = lastDailyDate;
+	}
+
+	/**
+	 * Create an in-memory cache for the observed weather.
+	 * @param maximumNbEntries the maximum number of years in the cache
+	 * @param maximumNbBytes the maximum estimated size of the cache (bytes)
+	 * @return a BioSimLRUCache instance
+	 */
+	static BioSimLRUCache<String, Entry> createMemoryCache(int maximumNbEntries, long maximumNbBytes) {
+		return new BioSimLRUCache<String, Entry>(maximumNbEntries, maximumNbBytes, Entry::getEstimatedNbBytes);
+	}
+
+	/**
+	 * Look up the locations of a generateWeather request.
+	 * @param fromYr the first year (inclusive)
+	 * @param toYr the last year (inclusive)
+	 * @param locations a List of BioSimPlot instances
+	 * @param modelNames the model names
+	 * @param additionalParms the parameters of the models (can be null)
+	 * @param nbNearestNeighbours the number of nearest neighbours (can be null)
+	 * @return a Lookup instance
+	 */
+	Lookup lookUp(int fromYr, int toYr, List<BioSimPlot> locations, List<String> modelNames, List<BioSimParameterMap> additionalParms, Integer nbNearestNeighbours) {
+		List<String> modelKeys = new ArrayList<String>(modelNames.size());
+		for (int m = 0; m < modelNames.size(); m++) {
+			BioSimParameterMap parms = additionalParms == null || m >= additionalParms.size() ? null : additionalParms.get(m);
+			modelKeys.add("weather;" + modelNames.get(m) + ";" + (parms == null || parms.isEmpty() ? "null" : parms.toString()) + ";" + nbNearestNeighbours);
+		}
+		return new Lookup(fromYr, toYr, locations, modelNames, modelKeys);
+	}
+	
+	private BioSimDataSet get(String key, int yr) {
+		Entry entry = memoryCache.get(key);
+		if (entry == null && diskCache != null) {
+			entry = diskCache.get(key, Entry.class);
+			if (entry != null) {
+				memoryCache.put(key, entry);
+			}
+		}
+		if (entry == null) {
+			return null;
+		}
+		if (entry.lastDailyDate <= yr || lastDailyDate <= yr) {	// the year is or was incomplete
+			return null;
+		}
+		return entry.dataSet;
+	}
+	
+	private void put(String key, BioSimDataSet dataSet) {
+		Entry entry = new Entry(lastDailyDate, dataSet);
+		memoryCache.put(key, entry);
+		if (diskCache != null) {
+			diskCache.put(key, entry);
+		}
+	}
+	
+	private String getKey(BioSimPlot location, String modelKey, int yr) {
+		return serverKey + ";" + location.getLatitudeDeg() + ";" + location.getLongitudeDeg() + ";" + location.getElevationM() + ";" + modelKey + ";" + yr;
+	}
+}
@@ -40,6 +40,14 @@ public final class Observation implements Comparable, Serializable {
 		values.addAll(Arrays.asList(obj));
 	}
 
+	/**
+	 * Constructor for the views of the rows of a BioSimDataSet instance.
+	 * @param values a List of Object instances that is not copied
+	 */
+	Observation(List<Object> values) {
+		this.values = values;
+	}
+
 	
 	
 	@SuppressWarnings("unchecked")
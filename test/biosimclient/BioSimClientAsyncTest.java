@@ -0,0 +1,188 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Tests of the asynchronous methods against a local stub of the Web API.
+ * @author agent - October 2026
+ */
+public class BioSimClientAsyncTest {
+
+	private static final long DELAY_MS = 200;
+
+	private BioSimStubServer server;
+	private BioSimClientInstance client;
+	private ExecutorService executor;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(DELAY_MS, 100, 100);
+		client = server.getClientBuilder().build();
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@After
+	public void finalizeTest() {
+		executor.shutdown();
+		server.stop();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void asyncWeatherGenerationMatchesSynchronousOne() throws Exception {
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(250, 45);
+		List<String> models = Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Monthly"});
+		CompletableFuture<LinkedHashMap<String, Object>> future = client.generateWeatherAsync(2000, 2001, plots, null, null, models, 1, 1, null, executor);
+		LinkedHashMap<String, Object> expected = client.generateWeather(2000, 2001, plots, null, null, models, 1, 1, null);
+		LinkedHashMap<String, Object> actual = future.get();
+		Assert.assertEquals("Testing the model names", expected.keySet(), actual.keySet());
+		for (String model : models) {
+			Assert.assertTrue("Testing the output of model " + model, 
+					BioSimClientTestSettings.areTheseInnerMapsEqual((LinkedHashMap<BioSimPlot, BioSimDataSet>) expected.get(model), 
+							(LinkedHashMap<BioSimPlot, BioSimDataSet>) actual.get(model)));
+		}
+	}
+
+	@Test
+	public void asyncNormalsRequestsOverlap() throws Exception {
+		List<CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>>> futures = new ArrayList<CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>>>();
+		client.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(1, 45), null, null);	// the metadata is retrieved beforehand
+		server.resetCounters();
+		for (Period period : new Period[] {Period.FromNormals1961_1990, Period.FromNormals1971_2000, Period.FromNormals1981_2010, Period.FromNormals1991_2020}) {
+			futures.add(client.getNormalsAsync(period, BioSimStubServer.getPlots(150, 45), null, null, BioSimClient.AllMonths, executor));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
+		Assert.assertEquals("Testing the number of batches", 8, server.getNbRequests("BioSimNormals"));
+		Assert.assertTrue("Testing that the four scenarios overlapped", server.getMaximumNbRequestsInFlight() > 2);
+		for (CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>> future : futures) {
+			LinkedHashMap<BioSimPlot, BioSimDataSet> output = future.get();
+			Assert.assertEquals("Testing the number of plots", 150, output.size());
+			Assert.assertEquals("Testing the fields", Arrays.asList(new String[] {"TN", "TX", "P"}), output.values().iterator().next().getFieldNames());
+		}
+	}
+
+	@Test
+	public void asyncRequestCompletesExceptionally() throws Exception {
+		List<BioSimPlot> plots = new ArrayList<BioSimPlot>();
+		plots.add(new BioSimFakeLocation(Double.NaN, Double.NaN, Double.NaN));
+		CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>> future = client.getNormalsAsync(Period.FromNormals1991_2020, plots, null, null, null, executor);
+		try {
+			future.join();
+			Assert.fail("Should have thrown a CompletionException instance");
+		} catch (CompletionException e) {
+			Assert.assertTrue("Testing the cause", e.getCause() instanceof BioSimClientException);
+			Assert.assertTrue("Testing the message", e.getCause().getMessage().contains("argument lat could not be parsed to a NaN"));
+		}
+	}
+
+	@Test
+	public void asyncRequestsAreCappedByTheConfiguredLimit() throws Exception {
+		BioSimStubServer otherServer = new BioSimStubServer(DELAY_MS / 4, 10, 10);
+		try {
+			BioSimClientInstance cappedClient = otherServer.getClientBuilder()
+					.setMaximumNbConcurrentRequests(2)
+					.build();
+			List<CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>>> futures = new ArrayList<CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>>>();
+			for (Period period : new Period[] {Period.FromNormals1961_1990, Period.FromNormals1971_2000, Period.FromNormals1981_2010, Period.FromNormals1991_2020}) {
+				futures.add(cappedClient.getNormalsAsync(period, BioSimStubServer.getPlots(30, 45), null, null, null, executor));
+			}
+			for (CompletableFuture<LinkedHashMap<BioSimPlot, BioSimDataSet>> future : futures) {
+				Assert.assertEquals("Testing the number of plots", 30, future.get().size());
+			}
+			Assert.assertEquals("Testing the number of batches", 12, otherServer.getNbRequests("BioSimNormals"));
+			Assert.assertEquals("Testing that the requests in flight were capped", 2, otherServer.getMaximumNbRequestsInFlight());
+		} finally {
+			otherServer.stop();
+		}
+	}
+
+	@Test
+	public void asyncNormalsCheckTheClientBeforeReadingTheCache() throws Exception {
+		BioSimClientInstance cachingClient = client.toBuilder().enableNormalsCache(100, 10 * 1024 * 1024).build();
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(5, 45);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> expected = cachingClient.getNormalsAsync(Period.FromNormals1991_2020, plots, null, null, null, executor).get();
+		BioSimClientInstance otherClient = cachingClient.toBuilder()	// same cache but the status is retrieved anew
+				.setServerAddress(server.getAddress(), BioSimStubServer.RoutingString)
+				.build();
+		server.resetCounters();
+		LinkedHashMap<BioSimPlot, BioSimDataSet> actual = otherClient.getNormalsAsync(Period.FromNormals1991_2020, plots, null, null, null, executor).get();
+		Assert.assertEquals("Testing that the normals were read from the cache", 0, server.getNbRequests("BioSimNormals"));
+		Assert.assertEquals("Testing that the status was retrieved even though all the plots were in the cache", 1, server.getNbRequests("BioSimStatus"));
+		Assert.assertTrue("Testing the output", BioSimClientTestSettings.areTheseInnerMapsEqual(expected, actual));
+	}
+
+	@Test
+	public void invalidArgumentsCompleteTheFutureExceptionally() throws Exception {
+		CompletableFuture<LinkedHashMap<String, Object>> future = client.generateWeatherAsync(2000, 2001, BioSimStubServer.getPlots(1, 45), null, null, 
+				Arrays.asList(new String[] {"DegreeDay_Annual"}), 0, 1, null, executor);
+		Assert.assertTrue("Testing that the future failed", future.isCompletedExceptionally());
+		try {
+			future.join();
+			Assert.fail("Should have thrown a CompletionException instance");
+		} catch (CompletionException e) {
+			Assert.assertTrue("Testing the cause", e.getCause() instanceof InvalidParameterException);
+		}
+	}
+
+	@Test
+	public void asyncWeatherGenerationUsesTheObservedWeatherCache() throws Exception {
+		BioSimStubServer otherServer = new BioSimStubServer(0, 100, 100);
+		try {
+			List<String> modelNames = Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Monthly"});
+			BioSimClientInstance cachingClient = otherServer.getClientBuilder()
+					.enableObservedWeatherCache(1000, 10 * 1024 * 1024, modelNames)
+					.build();
+			List<BioSimPlot> plots = BioSimStubServer.getPlots(5, 45);
+			LinkedHashMap<String, Object> expected = cachingClient.generateWeatherAsync(2020, 2027, plots, null, null, modelNames, 1, 1, null, executor).get();
+			Assert.assertEquals("Testing the first request", Arrays.asList(new Integer[] {2020}), otherServer.getRequestedFromYears());
+			otherServer.resetCounters();
+			LinkedHashMap<String, Object> actual = cachingClient.generateWeatherAsync(2020, 2027, plots, null, null, modelNames, 1, 1, null, executor).get();
+			Assert.assertEquals("Testing that only the simulated years and the last observed year were requested", 
+					Arrays.asList(new Integer[] {BioSimStubServer.LastDailyDate}), 
+					otherServer.getRequestedFromYears());
+			for (String model : modelNames) {
+				Assert.assertEquals("Testing the output of model " + model, 
+						((LinkedHashMap<?,?>) expected.get(model)).keySet(), 
+						((LinkedHashMap<?,?>) actual.get(model)).keySet());
+			}
+		} finally {
+			otherServer.stop();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Checks that the locations of a request are split into batches that are sent in parallel
+ * and merged in the original order.
+ * @author agent - October 2026
+ */
+public class BioSimClientBatchTest {
+
+	private static final long DELAY_MS = 200;
+
+	private BioSimStubServer server;
+	private BioSimClientInstance client;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(DELAY_MS, 100, 100);
+		client = server.getClientBuilder().build();
+		client.isClientSupported();
+	}
+
+	@After
+	public void finalizeTest() {
+		server.stop();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void weatherBatchesAreSentInParallelAndMergedInOrder() throws Exception {
+		server.resetCounters();
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(450, 45);
+		LinkedHashMap<String, Object> output = client.generateWeather(2000, 2002, plots, null, null, 
+				Arrays.asList(new String[] {"DegreeDay_Annual"}), null);
+		Assert.assertEquals("Testing the number of batches", 5, server.getBatchSizes().size());
+		Assert.assertTrue("Testing that the batches overlapped", server.getMaximumNbRequestsInFlight() > 1);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> innerMap = (LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("DegreeDay_Annual");
+		Assert.assertEquals("Testing the number of plots", plots.size(), innerMap.size());
+		Iterator<BioSimPlot> iter = innerMap.keySet().iterator();
+		for (BioSimPlot plot : plots) {
+			BioSimPlot outputPlot = iter.next();
+			Assert.assertSame("Testing the plot order", plot, outputPlot);
+			BioSimDataSet ds = innerMap.get(outputPlot);
+			Assert.assertEquals("Testing the number of years", 3, ds.getNumberOfObservations());
+			double dd = (Double) ds.getObservations().get(0).values.get(2);
+			Assert.assertEquals("Testing the degree-days", BioSimStubServer.getDegreeDays(plot.getLatitudeDeg(), 2000), dd, 1E-2);
+		}
+	}
+
+	@Test
+	public void normalsBatchesAreSentInParallelAndMergedInOrder() throws Exception {
+		server.resetCounters();
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(250, 45);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> output = client.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+		Assert.assertEquals("Testing the batch sizes", Arrays.asList(new Integer[] {50, 100, 100}), server.getBatchSizes().stream().sorted().collect(Collectors.toList()));
+		Assert.assertTrue("Testing that the batches overlapped", server.getMaximumNbRequestsInFlight() > 1);
+		Assert.assertEquals("Testing the plot order", plots, new ArrayList<BioSimPlot>(output.keySet()));
+		for (BioSimPlot plot : plots) {
+			BioSimDataSet ds = output.get(plot);
+			Assert.assertEquals("Testing the field names", Arrays.asList(new String[] {"Month", "TMIN_MN", "TMAX_MN", "PRCP_TT"}), ds.getFieldNames());
+			double tmin = (Double) ds.getObservations().get(6).values.get(1);
+			Assert.assertEquals("Testing the July minimum temperature", BioSimStubServer.getTemperature(plot.getLatitudeDeg(), 7) - 5, tmin, 1E-2);
+		}
+	}
+
+	@Test
+	public void parallelBatchesAreCappedByTheConfiguredLimit() throws Exception {
+		BioSimClientInstance cappedClient = client.toBuilder().setMaximumNbParallelBatches(1).build();
+		server.resetCounters();
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(250, 45);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> output = cappedClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+		Assert.assertEquals("Testing the number of plots", plots.size(), output.size());
+		Assert.assertEquals("Testing the batch sizes", Arrays.asList(new Integer[] {50, 100, 100}), server.getBatchSizes().stream().sorted().collect(Collectors.toList()));
+		Assert.assertEquals("Testing that a single batch was in flight", 1, server.getMaximumNbRequestsInFlight());
+	}
+
+	@Test
+	public void resultsAreStreamedToTheConsumer() throws Exception {
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(450, 45);
+		Map<String, Map<BioSimPlot, Double>> received = new HashMap<String, Map<BioSimPlot, Double>>();
+		client.generateWeather(2000, 2002, plots, null, null, 
+				Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Monthly"}), 1, 1, null, null, null, 
+				(modelName, location, dataSet) -> {
+					if (!received.containsKey(modelName)) {
+						received.put(modelName, new HashMap<BioSimPlot, Double>());
+					}
+					Assert.assertNull("Testing that each plot is received once", received.get(modelName).put(location, dataSet.getDouble(0, dataSet.getFieldNames().indexOf(modelName.equals("DegreeDay_Annual") ? "DD" : "MeanTair"))));
+					Assert.assertEquals("Testing the number of observations", modelName.equals("DegreeDay_Annual") ? 3 : 36, dataSet.getNumberOfObservations());
+				});
+		Assert.assertEquals("Testing the number of models", 2, received.size());
+		for (BioSimPlot plot : plots) {
+			Assert.assertEquals("Testing the degree-days", BioSimStubServer.getDegreeDays(plot.getLatitudeDeg(), 2000), received.get("DegreeDay_Annual").get(plot), 1E-2);
+			Assert.assertEquals("Testing the January temperature", BioSimStubServer.getTemperature(plot.getLatitudeDeg(), 1), received.get("Climatic_Monthly").get(plot), 1E-2);
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Checks that the normals cache, the persistent cache and the observed weather cache
+ * spare the requests they are meant to spare.
+ * @author agent - October 2026
+ */
+public class BioSimClientCacheTest {
+
+	private BioSimStubServer server;
+	private BioSimClientInstance client;
+	private File directory;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(0, 100, 100);
+		client = server.getClientBuilder().build();
+		directory = BioSimStubServer.createCacheDirectory();
+	}
+
+	@After
+	public void finalizeTest() {
+		server.stop();
+		BioSimStubServer.deleteCacheDirectory(directory);
+	}
+
+	@Test
+	public void normalsCacheMissesAreSentInASingleRequest() throws Exception {
+		BioSimClientInstance cachingClient = client.toBuilder().enableNormalsCache(1000, 10 * 1024 * 1024).build();
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(5, 45);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> firstOutput = cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+		firstOutput.get(plots.get(0)).removeField(1);	// must not affect the cache
+		server.resetCounters();
+		List<BioSimPlot> morePlots = new ArrayList<BioSimPlot>(plots);
+		morePlots.addAll(BioSimStubServer.getPlots(3, 46));
+		LinkedHashMap<BioSimPlot, BioSimDataSet> secondOutput = cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, morePlots, null, null);
+		Assert.assertEquals("Testing that the misses were sent together", Arrays.asList(new Integer[] {3}), server.getBatchSizes());
+		Assert.assertEquals("Testing the plot order", morePlots, new ArrayList<BioSimPlot>(secondOutput.keySet()));
+		for (BioSimPlot plot : morePlots) {
+			BioSimDataSet ds = secondOutput.get(plot);
+			Assert.assertEquals("Testing the field names", Arrays.asList(new String[] {"Month", "TMIN_MN", "TMAX_MN", "PRCP_TT"}), ds.getFieldNames());
+			Assert.assertEquals("Testing the July minimum temperature", BioSimStubServer.getTemperature(plot.getLatitudeDeg(), 7) - 5, ds.getDouble(6, 1), 1E-2);
+		}
+		cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, morePlots, null, null);
+		Assert.assertEquals("Testing that no other request was sent", 1, server.getBatchSizes().size());
+		cachingClient.getAnnualNormals(Period.FromNormals1991_2020, plots, null, null);
+		Assert.assertEquals("Testing that the annual normals are not confused with the monthly ones", 2, server.getBatchSizes().size());
+		BioSimCacheStatistics stats = cachingClient.getNormalsCacheStatistics();
+		Assert.assertEquals("Testing the number of hits", 13, stats.getHitCount());
+		Assert.assertEquals("Testing the number of misses", 13, stats.getMissCount());
+		Assert.assertEquals("Testing the number of entries", 13, stats.getNbEntries());
+		
+		cachingClient = cachingClient.toBuilder().enableNormalsCache(4, 10 * 1024 * 1024).build();
+		cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, morePlots, null, null);
+		stats = cachingClient.getNormalsCacheStatistics();
+		Assert.assertEquals("Testing the number of entries after eviction", 4, stats.getNbEntries());
+		Assert.assertEquals("Testing the number of evictions", 4, stats.getEvictionCount());
+		
+		long weightPerPlot = stats.getWeight() / 4;
+		cachingClient = cachingClient.toBuilder().enableNormalsCache(1000, weightPerPlot * 2).build();
+		cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, morePlots, null, null);
+		Assert.assertEquals("Testing the number of entries when the weight is limited", 2, cachingClient.getNormalsCacheStatistics().getNbEntries());
+	}
+
+	@Test
+	public void persistentCacheIsReusedAcrossClientConfigurations() throws Exception {
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(5, 45);
+		BioSimClientInstance cachingClient = client.toBuilder().enablePersistentCache(directory, 10 * 1024 * 1024).build();
+		server.resetCounters();
+		LinkedHashMap<BioSimPlot, BioSimDataSet> firstOutput = cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+		Assert.assertEquals("Testing that a single request was sent", 1, server.getNbRequests("BioSimNormals"));
+		BioSimClientInstance otherClient = server.getClientBuilder()	// as if it were another JVM
+				.enablePersistentCache(directory, 10 * 1024 * 1024)
+				.build();
+		otherClient.isClientSupported();	// the status is read from the snapshot
+		long nbHitsBefore = otherClient.getPersistentCacheStatistics().getHitCount();
+		LinkedHashMap<BioSimPlot, BioSimDataSet> secondOutput = otherClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+		Assert.assertEquals("Testing that no other request was sent", 1, server.getNbRequests("BioSimNormals"));
+		Assert.assertEquals("Testing the number of hits", 5, otherClient.getPersistentCacheStatistics().getHitCount() - nbHitsBefore);
+		Assert.assertEquals("Testing the plot order", plots, new ArrayList<BioSimPlot>(secondOutput.keySet()));
+		for (BioSimPlot plot : plots) {
+			Assert.assertTrue("Testing the data set", firstOutput.get(plot).areEqual(secondOutput.get(plot)));
+		}
+		otherClient.getAnnualNormals(Period.FromNormals1991_2020, plots, null, null);
+		Assert.assertEquals("Testing that the annual normals are not confused with the monthly ones", 2, server.getNbRequests("BioSimNormals"));
+		
+		BioSimClientInstance smallCacheClient = client.toBuilder().enablePersistentCache(directory, 1).build();
+		smallCacheClient.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(1, 46), null, null);
+		Assert.assertTrue("Testing that the entries were evicted", smallCacheClient.getPersistentCacheStatistics().getEvictionCount() > 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void assertSameOutputs(LinkedHashMap<String, Object> expected, LinkedHashMap<String, Object> actual, List<BioSimPlot> plots) {
+		Assert.assertEquals("Testing the models", expected.keySet(), actual.keySet());
+		for (String modelName : expected.keySet()) {
+			LinkedHashMap<BioSimPlot, BioSimDataSet> expectedMap = (LinkedHashMap<BioSimPlot, BioSimDataSet>) expected.get(modelName);
+			LinkedHashMap<BioSimPlot, BioSimDataSet> actualMap = (LinkedHashMap<BioSimPlot, BioSimDataSet>) actual.get(modelName);
+			Assert.assertEquals("Testing the plot order", plots, new ArrayList<BioSimPlot>(actualMap.keySet()));
+			for (BioSimPlot plot : plots) {
+				Assert.assertTrue("Testing the data set of model " + modelName, expectedMap.get(plot).areEqual(actualMap.get(plot)));
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void onlyTheMissingYearsOfTheObservedWeatherAreRequested() throws Exception {
+		List<String> modelNames = Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Monthly"});
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(5, 45);
+		List<BioSimPlot> morePlots = new ArrayList<BioSimPlot>(plots);
+		morePlots.addAll(BioSimStubServer.getPlots(2, 46));
+		LinkedHashMap<String, Object> expectedOutput = client.generateWeather(2020, 2027, morePlots, null, null, modelNames, 1, 1, null);
+		BioSimClientInstance cachingClient = client.toBuilder()
+				.enableObservedWeatherCache(10000, 10 * 1024 * 1024, modelNames)
+				.enablePersistentCache(directory, 10 * 1024 * 1024)
+				.build();
+		server.resetCounters();
+		assertSameOutputs(expectedOutput, cachingClient.generateWeather(2020, 2027, plots, null, null, modelNames, 1, 1, null), plots);
+		Assert.assertEquals("Testing the first request", Arrays.asList(new Integer[] {2020}), server.getRequestedFromYears());
+		
+		server.resetCounters();
+		LinkedHashMap<String, Object> output = cachingClient.generateWeather(2020, 2027, plots, null, null, modelNames, 1, 1, null);
+		assertSameOutputs(expectedOutput, output, plots);
+		Assert.assertEquals("Testing that only the simulated years and the last observed year were requested", Arrays.asList(new Integer[] {BioSimStubServer.LastDailyDate}), server.getRequestedFromYears());
+		((LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("DegreeDay_Annual")).get(plots.get(0)).removeField(1);	// must not affect the cache
+
+		server.resetCounters();
+		assertSameOutputs(expectedOutput, cachingClient.generateWeather(2020, 2027, morePlots, null, null, modelNames, 1, 1, null), morePlots);
+		Assert.assertEquals("Testing that the new plots were requested apart", 
+				Arrays.asList(new Integer[] {2020, BioSimStubServer.LastDailyDate}), 
+				server.getRequestedFromYears().stream().sorted().collect(Collectors.toList()));
+		
+		server.resetCounters();
+		cachingClient.generateWeather(2021, 2023, plots, null, null, modelNames, 1, 1, null);
+		Assert.assertTrue("Testing that no request was sent for observed years", server.getRequestedFromYears().isEmpty());
+		cachingClient.generateWeather(2020, 2027, plots, null, null, modelNames, 2, 1, null);
+		Assert.assertEquals("Testing that the replicates are not cached", Arrays.asList(new Integer[] {2020}), server.getRequestedFromYears());
+		server.resetCounters();
+		cachingClient.generateWeather(2021, 2023, plots, null, null, Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Daily"}), 1, 1, null);
+		Assert.assertEquals("Testing that the models that are not allowed bypass the cache", Arrays.asList(new Integer[] {2021}), server.getRequestedFromYears());
+
+		server.setLastDailyDate(BioSimStubServer.LastDailyDate + 1);
+		cachingClient = cachingClient.toBuilder()	// the status is retrieved again
+				.setServerAddress(server.getAddress(), BioSimStubServer.RoutingString)
+				.build();
+		server.resetCounters();
+		output = cachingClient.generateWeather(2020, 2027, plots, null, null, modelNames, 1, 1, null);
+		Assert.assertEquals("Testing that the formerly incomplete year was requested again", Arrays.asList(new Integer[] {BioSimStubServer.LastDailyDate}), server.getRequestedFromYears());
+		BioSimDataSet dataSet = ((LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("Climatic_Monthly")).get(plots.get(0));
+		Assert.assertEquals("Testing the number of observations", 96, dataSet.getNumberOfObservations());
+		Assert.assertEquals("Testing that the new observed year is retrieved", "Real_Data", dataSet.getString(72, dataSet.getFieldNames().indexOf("DataType")));
+	}
+
+}
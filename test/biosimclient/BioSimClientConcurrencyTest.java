@@ -0,0 +1,177 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Checks that requests issued by different threads overlap on the wire up to the 
+ * configured limits. The tests run against a local stub and count the requests in 
+ * flight instead of measuring the elapsed time.
+ * @author agent - October 2026
+ */
+public class BioSimClientConcurrencyTest {
+
+	private static final long DELAY_MS = 200;
+
+	private BioSimStubServer server;
+	private BioSimClientInstance client;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(DELAY_MS, 100, 100);
+		client = server.getClientBuilder().build();
+		client.isClientSupported();
+	}
+
+	@After
+	public void finalizeTest() {
+		server.stop();
+	}
+
+	/**
+	 * Have each thread retrieve the normals of a single plot.
+	 * @param client the BioSimClientInstance instance that sends the requests
+	 * @param nbThreads the number of threads
+	 */
+	private static void runSimultaneousRequests(BioSimClientInstance client, int nbThreads) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		CountDownLatch latch = new CountDownLatch(nbThreads);
+		for (int i = 0; i < nbThreads; i++) {
+			final List<BioSimPlot> plots = BioSimStubServer.getPlots(1, 45 + i);
+			tasks.add(() -> {
+				latch.countDown();
+				latch.await();	// the requests are sent once all the threads are ready
+				return client.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null).size();
+			});
+		}
+		for (Future<Integer> f : executor.invokeAll(tasks)) {
+			Assert.assertEquals("Testing the number of plots in the reply", 1, f.get().intValue());
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	public void requestsOverlapUpToTheConfiguredLimit() throws Exception {
+		for (int nbThreads = 1; nbThreads <= client.getMaximumNbConcurrentRequests(); nbThreads++) {
+			server.resetCounters();
+			runSimultaneousRequests(client, nbThreads);
+			Assert.assertEquals("Testing the number of requests", nbThreads, server.getNbRequests("BioSimNormals"));
+			Assert.assertEquals("Testing that the requests of " + nbThreads + " threads overlapped", nbThreads, server.getMaximumNbRequestsInFlight());
+		}
+	}
+
+	@Test
+	public void requestsInFlightAreCappedByTheConfiguredLimit() throws Exception {
+		BioSimClientInstance cappedClient = client.toBuilder().setMaximumNbConcurrentRequests(2).build();
+		server.resetCounters();
+		runSimultaneousRequests(cappedClient, 8);
+		Assert.assertEquals("Testing the number of requests", 8, server.getNbRequests("BioSimNormals"));
+		Assert.assertEquals("Testing that no more than two requests were in flight", 2, server.getMaximumNbRequestsInFlight());
+	}
+
+	@Test
+	public void independentlyConfiguredInstancesRunConcurrently() throws Exception {
+		BioSimStubServer otherServer = new BioSimStubServer(DELAY_MS, 100, 100);
+		try {
+			BioSimClientInstance serialClient = client.toBuilder()
+					.setServerAddress(otherServer.getAddress(), BioSimStubServer.RoutingString)
+					.setMaximumNbConcurrentRequests(1)
+					.setNbNearestNeighbours(10)
+					.build();
+			BioSimClientInstance parallelClient = server.getClientBuilder()
+					.setMaximumNbConcurrentRequests(4)
+					.enableNormalsCache(100, 10 * 1024 * 1024)
+					.build();
+			server.resetCounters();
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 4; i++) {
+				List<BioSimPlot> plots = BioSimStubServer.getPlots(1, 45 + i);
+				futures.add(executor.submit(() -> serialClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null).size()));
+				futures.add(executor.submit(() -> parallelClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null).size()));
+			}
+			for (Future<Integer> f : futures) {
+				Assert.assertEquals("Testing the number of plots in the reply", 1, f.get().intValue());
+			}
+			executor.shutdown();
+			Assert.assertEquals("Testing that the serial client sent its requests one at a time", 1, otherServer.getMaximumNbRequestsInFlight());
+			Assert.assertTrue("Testing that the parallel client sent its requests at the same time", server.getMaximumNbRequestsInFlight() > 1);
+			Assert.assertEquals("Testing the requests of the serial client", 4, otherServer.getNbRequests("BioSimNormals"));
+			Assert.assertEquals("Testing the requests of the parallel client", 4, server.getNbRequests("BioSimNormals"));
+			Assert.assertEquals("Testing the entries of the normals cache", 4, parallelClient.getNormalsCacheStatistics().getNbEntries());
+			Assert.assertNull("Testing that the serial client has no normals cache", serialClient.getNormalsCacheStatistics());
+			Assert.assertEquals("Testing the nearest neighbours of the serial client", 10, serialClient.getNbNearestNeighbours());
+			Assert.assertEquals("Testing that the source instance is not affected", 4, client.getNbNearestNeighbours());
+			Assert.assertEquals("Testing that the source instance is not affected", BioSimHttpTransport.getMaximumNbIdleConnections(), client.getMaximumNbConcurrentRequests());
+		} finally {
+			otherServer.stop();
+		}
+	}
+
+	@Test
+	public void derivedInstancesKeepTheirOwnStateAndCaches() throws Exception {
+		BioSimStubServer otherServer = new BioSimStubServer(DELAY_MS / 10, 100, 100);
+		try {
+			BioSimClientInstance cachingClient = client.toBuilder()
+					.enableNormalsCache(100, 10 * 1024 * 1024)
+					.build();
+			BioSimClientInstance derivedClient = cachingClient.toBuilder()
+					.setServerAddress(otherServer.getAddress(), BioSimStubServer.RoutingString)
+					.build();
+			cachingClient.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(2, 45), null, null);
+			Assert.assertEquals("Testing the entries of the normals cache", 2, cachingClient.getNormalsCacheStatistics().getNbEntries());
+			
+			cachingClient.generateWeather(2000, 2000, BioSimStubServer.getPlots(1, 45), null, null, Arrays.asList(new String[] {"DegreeDay_Annual"}), null);
+			Assert.assertTrue("Testing the duration of the request", cachingClient.getLastServerRequestDuration() > 0d);
+			Assert.assertEquals("Testing that the duration of the other instance is not affected", 0d, derivedClient.getLastServerRequestDuration(), 0d);
+			derivedClient.generateWeather(2000, 2000, BioSimStubServer.getPlots(1, 45), null, null, Arrays.asList(new String[] {"DegreeDay_Annual"}), null);
+			Assert.assertTrue("Testing that the duration of the first instance was not reset", cachingClient.getLastServerRequestDuration() > 0d);
+			
+			derivedClient.toBuilder()	// as the BioSimClient.setServerAddress method does
+					.setServerAddress(server.getAddress(), BioSimStubServer.RoutingString)
+					.build();
+			Assert.assertEquals("Testing that changing the server of a derived instance does not clear the shared cache", 
+					2, cachingClient.getNormalsCacheStatistics().getNbEntries());
+		} finally {
+			otherServer.stop();
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import biosimclient.BioSimEnums.LoadBalancingPolicy;
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Checks that the requests are spread over the replicas of the server, that the replicas 
+ * that fail are ejected and that the timeouts are enforced.
+ * @author agent - October 2026
+ */
+public class BioSimClientEndpointTest {
+
+	private static final long DELAY_MS = 200;
+
+	private BioSimStubServer server;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(DELAY_MS, 100, 100);
+	}
+
+	@After
+	public void finalizeTest() {
+		server.stop();
+	}
+
+	@Test
+	public void batchesAreSpreadOverTheReplicas() throws Exception {
+		BioSimStubServer secondReplica = new BioSimStubServer(DELAY_MS, 100, 100);
+		BioSimStubServer thirdReplica = new BioSimStubServer(DELAY_MS, 100, 100);
+		try {
+			BioSimClientInstance client = new BioSimClientInstance.Builder()
+					.setServerAddresses(Arrays.asList(server.getAddress(), secondReplica.getAddress(), thirdReplica.getAddress()), BioSimStubServer.RoutingString)
+					.build();
+			client.isClientSupported();
+			List<BioSimPlot> plots = BioSimStubServer.getPlots(300, 45);
+			LinkedHashMap<BioSimPlot, BioSimDataSet> output = client.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+			Assert.assertEquals("Testing the plot order", plots, new ArrayList<BioSimPlot>(output.keySet()));
+			for (BioSimStubServer replica : new BioSimStubServer[] {server, secondReplica, thirdReplica}) {
+				Assert.assertEquals("Testing that each replica received a batch", 1, replica.getNbRequests("BioSimNormals"));
+			}
+		} finally {
+			secondReplica.stop();
+			thirdReplica.stop();
+		}
+	}
+
+	@Test
+	public void slowReplicasReceiveFewerRequests() throws Exception {
+		BioSimStubServer fastReplica = new BioSimStubServer(DELAY_MS / 10, 100, 100);
+		try {
+			BioSimClientInstance client = new BioSimClientInstance.Builder()
+					.setServerAddresses(Arrays.asList(server.getAddress(), fastReplica.getAddress()), BioSimStubServer.RoutingString)
+					.setLoadBalancingPolicy(LoadBalancingPolicy.EwmaLatency)
+					.build();
+			for (int i = 0; i < 10; i++) {
+				Assert.assertEquals("Testing the number of plots", 1, client.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(1, 45 + i), null, null).size());
+			}
+			Assert.assertEquals("Testing that the slow replica received a single request", 1, server.getNbRequests("BioSimNormals"));
+			Assert.assertEquals("Testing that the fast replica received the others", 9, fastReplica.getNbRequests("BioSimNormals"));
+		} finally {
+			fastReplica.stop();
+		}
+	}
+
+	@Test
+	public void unreachableReplicasAreEjected() throws Exception {
+		BioSimStubServer stoppedReplica = new BioSimStubServer(DELAY_MS, 100, 100);
+		stoppedReplica.stop();
+		BioSimClientInstance client = new BioSimClientInstance.Builder()
+				.setServerAddresses(Arrays.asList(stoppedReplica.getAddress(), server.getAddress()), BioSimStubServer.RoutingString)
+				.build();
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals("Testing the number of plots", 1, client.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(1, 45 + i), null, null).size());
+		}
+		Assert.assertEquals("Testing that the requests were sent to the other replica", 10, server.getNbRequests("BioSimNormals"));
+		Assert.assertEquals("Testing that the unreachable replica was ejected", 1, client.getNbEjectedEndpoints());
+		
+		BioSimClientInstance clientWithoutReplica = new BioSimClientInstance.Builder()
+				.setServerAddresses(Arrays.asList(stoppedReplica.getAddress()), BioSimStubServer.RoutingString)
+				.build();
+		try {
+			clientWithoutReplica.isClientSupported();
+			Assert.fail("Should have thrown a BioSimClientException instance");
+		} catch (BioSimClientException e) {
+			Assert.assertEquals("Testing the message", "Unable to connect to the server!", e.getMessage());
+		}
+	}
+
+	@Test
+	public void replicasThatTimeOutOnConnectAreEjected() throws Exception {
+		BioSimStubServer silentReplica = new BioSimStubServer(DELAY_MS, 100, 100);
+		try {
+			int silentPort = silentReplica.getAddress().getPort();
+			BioSimTransport httpTransport = new BioSimHttpTransport(true);
+			BioSimTransport transport = (url, connectTimeoutMs, readTimeoutMs) -> {
+				if (url.getPort() == silentPort) {	// as if the SYN packets were dropped
+					throw new SocketTimeoutException("connect timed out");
+				}
+				return httpTransport.send(url, connectTimeoutMs, readTimeoutMs);
+			};
+			BioSimClientInstance client = new BioSimClientInstance.Builder()
+					.setServerAddresses(Arrays.asList(silentReplica.getAddress(), server.getAddress()), BioSimStubServer.RoutingString)
+					.setTransport(transport)
+					.build();
+			for (int i = 0; i < 5; i++) {
+				Assert.assertEquals("Testing the number of plots", 1, client.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(1, 45 + i), null, null).size());
+			}
+			Assert.assertEquals("Testing that the requests were sent to the other replica", 5, server.getNbRequests("BioSimNormals"));
+			Assert.assertEquals("Testing that the silent replica was ejected", 1, client.getNbEjectedEndpoints());
+			Assert.assertEquals("Testing that the silent replica received nothing", 0, silentReplica.getNbRequests("BioSimNormals"));
+		} finally {
+			silentReplica.stop();
+		}
+	}
+
+	@Test
+	public void readTimeoutIsEnforced() throws Exception {
+		BioSimClientInstance client = server.getClientBuilder().build();
+		client.isClientSupported();
+		BioSimClientInstance impatientClient = client.toBuilder().setTimeouts(1000, (int) DELAY_MS / 4).build();
+		try {
+			impatientClient.getMonthlyNormals(Period.FromNormals1991_2020, BioSimStubServer.getPlots(1, 45), null, null);
+			Assert.fail("Should have thrown a BioSimClientException instance");
+		} catch (BioSimClientException e) {
+			Assert.assertTrue("Testing the message", e.getMessage().startsWith("The server did not reply in time"));
+		}
+	}
+
+}
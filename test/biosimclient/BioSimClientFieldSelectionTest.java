@@ -0,0 +1,121 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Checks that only the selected fields and the rows that pass the filter are kept from
+ * the server replies.
+ * @author agent - October 2026
+ */
+public class BioSimClientFieldSelectionTest {
+
+	private BioSimStubServer server;
+	private BioSimClientInstance client;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(0, 100, 100);
+		client = server.getClientBuilder().build();
+	}
+
+	@After
+	public void finalizeTest() {
+		server.stop();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void onlyTheSelectedFieldsAreRetrieved() throws Exception {
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(3, 45);
+		LinkedHashMap<String, Object> output = client.generateWeather(2000, 2001, plots, null, null, 
+				Arrays.asList(new String[] {"Climatic_Monthly", "DegreeDay_Annual"}), 1, 1, null, 
+				Arrays.asList(new String[] {"Year", "MeanTair", "DD"}));
+		LinkedHashMap<BioSimPlot, BioSimDataSet> monthly = (LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("Climatic_Monthly");
+		LinkedHashMap<BioSimPlot, BioSimDataSet> annual = (LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("DegreeDay_Annual");
+		for (BioSimPlot plot : plots) {
+			BioSimDataSet ds = monthly.get(plot);
+			Assert.assertEquals("Testing the selected fields", Arrays.asList(new String[] {"Year", "MeanTair"}), ds.getFieldNames());
+			Assert.assertEquals("Testing the number of observations", 24, ds.getNumberOfObservations());
+			Assert.assertEquals("Testing the field types", Arrays.asList(new Class<?>[] {Integer.class, Double.class}), ds.fieldTypes);
+			Assert.assertEquals("Testing the July temperature", BioSimStubServer.getTemperature(plot.getLatitudeDeg(), 7) + .01, ds.getDouble(18, 1), 1E-2);
+			ds = annual.get(plot);
+			Assert.assertEquals("Testing the selected fields", Arrays.asList(new String[] {"Year", "DD"}), ds.getFieldNames());
+			Assert.assertEquals("Testing the degree-days", BioSimStubServer.getDegreeDays(plot.getLatitudeDeg(), 2001), ds.getDouble(1, 1), 1E-2);
+		}
+	}
+
+	@Test
+	public void onlyTheSelectedFieldsOfTheNormalsAreRetrieved() throws Exception {
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(3, 45);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> monthly = client.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null, 
+				Arrays.asList(new String[] {"PRCP_TT", "TDEX_MN"}));
+		LinkedHashMap<BioSimPlot, BioSimDataSet> annual = client.getNormals(Period.FromNormals1991_2020, plots, null, null, BioSimClient.AllMonths,
+				Arrays.asList(new String[] {"TMAX_MN", "PRCP_TT"}));
+		LinkedHashMap<BioSimPlot, BioSimDataSet> expectedAnnual = client.getAnnualNormals(Period.FromNormals1991_2020, plots, null, null);
+		for (BioSimPlot plot : plots) {
+			BioSimDataSet ds = monthly.get(plot);
+			Assert.assertEquals("Testing the selected fields", Arrays.asList(new String[] {"Month", "PRCP_TT", "TDEX_MN"}), ds.getFieldNames());
+			Assert.assertEquals("Testing the number of observations", 12, ds.getNumberOfObservations());
+			ds = annual.get(plot);
+			Assert.assertEquals("Testing the averaged fields", Arrays.asList(new String[] {"TX", "P"}), ds.getFieldNames());
+			BioSimDataSet expectedDs = expectedAnnual.get(plot);
+			Assert.assertEquals("Testing the maximum temperature", expectedDs.getDouble(0, 1), ds.getDouble(0, 0), 1E-8);
+			Assert.assertEquals("Testing the precipitation", expectedDs.getDouble(0, 2), ds.getDouble(0, 1), 1E-8);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void onlyTheRowsThatPassTheFilterAreRetrieved() throws Exception {
+		List<BioSimPlot> plots = BioSimStubServer.getPlots(3, 45);
+		BioSimRowFilter filter = BioSimRowFilter.between("Year", 2024, 2026)
+				.and(BioSimRowFilter.between("Month", 5, 9))
+				.and(BioSimRowFilter.equalTo("DataType", "Real_Data"));
+		LinkedHashMap<String, Object> output = client.generateWeather(2000, 2030, plots, null, null, 
+				Arrays.asList(new String[] {"Climatic_Monthly", "DegreeDay_Annual"}), 1, 1, null, 
+				Arrays.asList(new String[] {"Month", "MeanTair", "DD"}), filter);
+		LinkedHashMap<BioSimPlot, BioSimDataSet> monthly = (LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("Climatic_Monthly");
+		LinkedHashMap<BioSimPlot, BioSimDataSet> annual = (LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("DegreeDay_Annual");
+		for (BioSimPlot plot : plots) {
+			BioSimDataSet ds = monthly.get(plot);
+			Assert.assertEquals("Testing the selected fields", Arrays.asList(new String[] {"Month", "MeanTair"}), ds.getFieldNames());
+			Assert.assertEquals("Testing the number of observations", 10, ds.getNumberOfObservations());	// 2024 and 2025 since 2026 is simulated
+			Assert.assertEquals("Testing the first month", 5, ds.getInt(0, 0));
+			Assert.assertEquals("Testing the last month", 9, ds.getInt(9, 0));
+			ds = annual.get(plot);
+			Assert.assertEquals("Testing the number of years", 3, ds.getNumberOfObservations());	// the conditions on Month and DataType are ignored
+			Assert.assertEquals("Testing the degree-days", BioSimStubServer.getDegreeDays(plot.getLatitudeDeg(), 2024), ds.getDouble(0, 0), 1E-2);
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the weather requests that are slower than the configured percentile are 
+ * duplicated to another replica within the hedge budget.
+ * @author agent - October 2026
+ */
+public class BioSimClientHedgingTest {
+
+	private static final long DELAY_MS = 20;
+
+	private BioSimStubServer firstReplica;
+	private BioSimStubServer secondReplica;
+
+	@Before
+	public void initializeTest() throws Exception {
+		firstReplica = new BioSimStubServer(DELAY_MS, 100, 100);
+		secondReplica = new BioSimStubServer(DELAY_MS, 100, 100);
+	}
+
+	@After
+	public void finalizeTest() {
+		firstReplica.stop();
+		secondReplica.stop();
+	}
+
+	private BioSimClientInstance.Builder getBuilder() {
+		return new BioSimClientInstance.Builder()
+				.setServerAddresses(Arrays.asList(firstReplica.getAddress(), secondReplica.getAddress()), BioSimStubServer.RoutingString)
+				.enableRequestHedging(90);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static void sendWeatherRequests(BioSimClientInstance client, int nbRequests) throws Exception {
+		List<String> modelNames = Arrays.asList(new String[] {"DegreeDay_Annual"});
+		for (int i = 0; i < nbRequests; i++) {
+			List<BioSimPlot> plots = BioSimStubServer.getPlots(1, 45 + i % 10);
+			LinkedHashMap<String, Object> output = client.generateWeather(2000, 2000, plots, null, null, modelNames, null);
+			BioSimDataSet ds = ((LinkedHashMap<BioSimPlot, BioSimDataSet>) output.get("DegreeDay_Annual")).get(plots.get(0));
+			double dd = (Double) ds.getObservations().get(0).values.get(2);
+			Assert.assertEquals("Testing the degree-days", BioSimStubServer.getDegreeDays(plots.get(0).getLatitudeDeg(), 2000), dd, 1E-2);
+		}
+	}
+	
+	@Test
+	public void slowWeatherRequestsAreHedged() throws Exception {
+		BioSimClientInstance client = getBuilder().build();
+		sendWeatherRequests(client, BioSimRequestHedger.MINIMUM_NB_LATENCIES);	// the latencies of the first requests are recorded
+		Assert.assertEquals("Testing that no request has been hedged yet", 0, client.getHedgingStatistics().getNbHedgesSent());
+		firstReplica.setDelayMs(DELAY_MS * 50);
+		sendWeatherRequests(client, 12);
+		BioSimHedgingStatistics statistics = client.getHedgingStatistics();
+		Assert.assertEquals("Testing the number of requests", 32, statistics.getNbRequests());
+		Assert.assertTrue("Testing that some requests were hedged", statistics.getNbHedgesSent() >= 1);
+		Assert.assertTrue("Testing that the hedge budget was not exceeded", statistics.getNbHedgesSent() <= 3);
+		Assert.assertTrue("Testing that the hedges won", statistics.getNbHedgesWon() >= 1);
+		Assert.assertNull("Testing that the hedging is disabled by default", new BioSimClientInstance.Builder().build().getHedgingStatistics());
+	}
+
+	@Test
+	public void hedgesDoNotWaitForAPermit() throws Exception {
+		BioSimClientInstance client = getBuilder().setMaximumNbConcurrentRequests(1).build();
+		sendWeatherRequests(client, BioSimRequestHedger.MINIMUM_NB_LATENCIES);
+		firstReplica.setDelayMs(DELAY_MS * 20);
+		sendWeatherRequests(client, 4);
+		Assert.assertEquals("Testing that no hedge was sent since the only permit was in use", 0, client.getHedgingStatistics().getNbHedgesSent());
+	}
+
+}
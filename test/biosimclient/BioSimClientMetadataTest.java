@@ -0,0 +1,186 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the status of the server and the model catalog are retrieved once and
+ * then read from memory or from the snapshot in the persistent cache until they expire.
+ * @author agent - October 2026
+ */
+public class BioSimClientMetadataTest {
+
+	private static final long DELAY_MS = 50;
+
+	private BioSimStubServer server;
+	private File directory;
+
+	@Before
+	public void initializeTest() throws Exception {
+		server = new BioSimStubServer(DELAY_MS, 100, 100);
+		directory = BioSimStubServer.createCacheDirectory();
+	}
+
+	@After
+	public void finalizeTest() {
+		server.stop();
+		BioSimStubServer.deleteCacheDirectory(directory);
+	}
+
+	@Test
+	public void modelCatalogIsRetrievedOnceUntilItExpires() throws Exception {
+		BioSimClientInstance client = server.getClientBuilder().setModelCatalogTimeToLive(3600 * 1000L).build();
+		client.loadModelCatalog();
+		Assert.assertEquals("Testing the number of model list requests", 1, server.getNbRequests("BioSimModelList"));
+		Assert.assertEquals("Testing the number of help requests", BioSimStubServer.ModelList.size(), server.getNbRequests("BioSimModelHelp"));
+		Assert.assertEquals("Testing the number of parameter requests", BioSimStubServer.ModelList.size(), server.getNbRequests("BioSimModelDefaultParameters"));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < 8; t++) {
+			futures.add(executor.submit(() -> {
+				int nbFailures = 0;
+				for (int i = 0; i < 100; i++) {
+					for (String modelName : client.getModelList()) {
+						BioSimParameterMap parameters = client.getModelDefaultParameters(modelName);
+						if (!parameters.toString().equals("LowerThreshold:5*UpperThreshold:30") || !client.getModelHelp(modelName).equals("Help for " + modelName)) {
+							nbFailures++;
+						}
+						parameters.addParameter("LowerThreshold", 6);	// must not affect the catalog
+					}
+				}
+				return nbFailures;
+			}));
+		}
+		for (Future<Integer> f : futures) {
+			Assert.assertEquals("Testing the catalog", 0, f.get().intValue());
+		}
+		executor.shutdown();
+		Assert.assertEquals("Testing that no other model list request was sent", 1, server.getNbRequests("BioSimModelList"));
+		Assert.assertEquals("Testing that no other help request was sent", BioSimStubServer.ModelList.size(), server.getNbRequests("BioSimModelHelp"));
+		Assert.assertEquals("Testing that no other parameter request was sent", BioSimStubServer.ModelList.size(), server.getNbRequests("BioSimModelDefaultParameters"));
+		
+		long timeToLiveMs = 50;
+		BioSimClientInstance expiringClient = client.toBuilder().setModelCatalogTimeToLive(timeToLiveMs).build();
+		expiringClient.getModelHelp("DegreeDay_Annual");
+		long retrievalTimeNanos = System.nanoTime();	// the catalog was created before this point
+		Assert.assertEquals("Testing that the catalog of the new instance was retrieved", 2, server.getNbRequests("BioSimModelList"));
+		while ((System.nanoTime() - retrievalTimeNanos) / 1000000 <= timeToLiveMs) {
+			Thread.sleep(1);
+		}
+		expiringClient.getModelHelp("DegreeDay_Annual");
+		Assert.assertEquals("Testing that the model list was retrieved anew", 3, server.getNbRequests("BioSimModelList"));
+		Assert.assertEquals("Testing that the help was retrieved anew", BioSimStubServer.ModelList.size() + 2, server.getNbRequests("BioSimModelHelp"));
+		client.getModelHelp("DegreeDay_Annual");
+		Assert.assertEquals("Testing that the catalog of the first instance is not affected", 3, server.getNbRequests("BioSimModelList"));
+	}
+
+	@Test
+	public void metadataSnapshotSparesTheStatusRequestsOfANewJVM() throws Exception {
+		server.getClientBuilder().enablePersistentCache(directory, 10 * 1024 * 1024).build().warmUp();
+		long snapshotTimeMs = System.currentTimeMillis();	// the snapshot was stored before this point
+		Assert.assertEquals("Testing the number of status requests", 1, server.getNbRequests("BioSimStatus"));
+		Assert.assertEquals("Testing the number of model list requests", 1, server.getNbRequests("BioSimModelList"));
+		
+		BioSimClientInstance client = server.getClientBuilder().enablePersistentCache(directory, 10 * 1024 * 1024).build();	// as if it were another JVM
+		client.warmUp();
+		Assert.assertEquals("Testing that the status was read from the snapshot", 1, server.getNbRequests("BioSimStatus"));
+		Assert.assertEquals("Testing that the model list was read from the snapshot", 1, server.getNbRequests("BioSimModelList"));
+		Assert.assertEquals("Testing the last daily date", BioSimStubServer.LastDailyDate, client.getLastDailyDateYr());
+		Assert.assertEquals("Testing the model list", BioSimStubServer.ModelList, client.getModelList());
+		LinkedHashMap<String, Object> output = client.generateWeather(2000, 2001, BioSimStubServer.getPlots(150, 45), null, null, Arrays.asList(new String[] {"DegreeDay_Annual"}), null);
+		Assert.assertEquals("Testing the number of plots", 150, ((Map<?,?>) output.get("DegreeDay_Annual")).size());
+		Assert.assertEquals("Testing the batch sizes", Arrays.asList(new Integer[] {50, 100}), server.getBatchSizes().stream().sorted().collect(Collectors.toList()));
+		
+		long timeToLiveMs = 1;
+		while (System.currentTimeMillis() - snapshotTimeMs <= timeToLiveMs) {
+			Thread.sleep(1);
+		}
+		server.getClientBuilder().enablePersistentCache(directory, 10 * 1024 * 1024).setMetadataSnapshotTimeToLive(timeToLiveMs).build().warmUp();
+		Assert.assertEquals("Testing that the expired status was retrieved anew", 2, server.getNbRequests("BioSimStatus"));
+		Assert.assertEquals("Testing that the expired model list was retrieved anew", 2, server.getNbRequests("BioSimModelList"));
+	}
+
+	@Test
+	public void catalogReadFromTheSnapshotExpiresWithTheSnapshot() throws Exception {
+		server.getClientBuilder().enablePersistentCache(directory, 10 * 1024 * 1024).build().warmUp();
+		long snapshotTimeMs = System.currentTimeMillis();	// the snapshot was stored before this point
+		Assert.assertEquals("Testing the number of model list requests", 1, server.getNbRequests("BioSimModelList"));
+		
+		long timeToLiveMs = 400;
+		while (System.currentTimeMillis() - snapshotTimeMs <= timeToLiveMs / 2) {
+			Thread.sleep(1);
+		}
+		BioSimClientInstance client = server.getClientBuilder().enablePersistentCache(directory, 10 * 1024 * 1024).setModelCatalogTimeToLive(timeToLiveMs).build();
+		Assert.assertEquals("Testing the model list", BioSimStubServer.ModelList, client.getModelList());
+		Assert.assertEquals("Testing that the model list was read from the snapshot", 1, server.getNbRequests("BioSimModelList"));
+		
+		while (System.currentTimeMillis() - snapshotTimeMs <= timeToLiveMs) {
+			Thread.sleep(1);
+		}
+		Assert.assertEquals("Testing the model list", BioSimStubServer.ModelList, client.getModelList());
+		Assert.assertEquals("Testing that the catalog expired with the snapshot", 2, server.getNbRequests("BioSimModelList"));
+		client.getModelList();
+		Assert.assertEquals("Testing that the new catalog is not expired", 2, server.getNbRequests("BioSimModelList"));
+	}
+
+	@Test
+	public void statusIsRetrievedOnceByConcurrentThreads() throws Exception {
+		BioSimClientInstance client = server.getClientBuilder().build();
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch latch = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < 16; t++) {
+			futures.add(executor.submit(() -> {
+				latch.await();
+				int lastDailyDate = 0;
+				for (int i = 0; i < 1000; i++) {
+					client.isClientSupported();
+					lastDailyDate = client.getLastDailyDateYr();
+				}
+				return lastDailyDate;
+			}));
+		}
+		latch.countDown();
+		for (Future<Integer> f : futures) {
+			Assert.assertEquals("Testing the last daily date", BioSimStubServer.LastDailyDate, f.get().intValue());
+		}
+		executor.shutdown();
+		Assert.assertEquals("Testing that the status was retrieved once", 1, server.getNbRequests("BioSimStatus"));
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compare the memory footprint of the columnar BioSimDataSet class with that of
+ * the former row-wise layout, that is a list of ArrayList instances of boxed values. <br>
+ * <br>
+ * The data mimic a daily weather reply with 100 replicates. The footprint is estimated 
+ * from the used heap after garbage collection. 
+ * @author agent - October 2026
+ */
+public class BioSimDataSetMemoryBenchmark {
+
+	private static final String[] FieldNames = new String[] {"Rep", "Year", "Month", "Day", "Tmin", "Tmax", "Prcp", "DataType"};
+
+	private static List<String> generateRows(int nbRows) {
+		Random rnd = new Random(1234);
+		List<String> rows = new ArrayList<String>(nbRows);
+		for (int i = 0; i < nbRows; i++) {
+			int day = i % 365;
+			rows.add(String.format(Locale.ROOT, "%d,%d,%d,%d,%.2f,%.2f,%.1f,%s", 
+					i / 36500, 2000 + (i / 365) % 100, day / 31 + 1, day % 31 + 1, rnd.nextGaussian() * 10, rnd.nextGaussian() * 10 + 8, rnd.nextDouble() * 20,
+					(i / 365) % 100 < 25 ? "Real_Data" : "Simulated"));
+		}
+		return rows;
+	}
+
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	/**
+	 * The former layout.
+	 */
+	private static List<List<Object>> parseIntoRows(List<String> rows) {
+		List<List<Object>> dataSet = new ArrayList<List<Object>>();
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		for (String row : rows) {
+			tokenizer.tokenize(row);
+			List<Object> values = new ArrayList<Object>();
+			for (int j = 0; j < tokenizer.getNumberOfFields(); j++) {
+				values.add(BioSimValueParser.parse(row, tokenizer.getStart(j), tokenizer.getEnd(j)));
+			}
+			dataSet.add(values);
+		}
+		return dataSet;
+	}
+
+	private static BioSimDataSet parseIntoColumns(List<String> rows) {
+		BioSimDataSet dataSet = new BioSimDataSet(Arrays.asList(FieldNames));
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		for (String row : rows) {
+			tokenizer.tokenize(row);
+			dataSet.addObservation(tokenizer);
+		}
+		dataSet.indexFieldType();
+		return dataSet;
+	}
+	
+	public static void main(String[] args) {
+		int nbRows = args.length > 0 ? Integer.parseInt(args[0]) : 365 * 100 * 20;	// 100 years x 20 replicates
+		List<String> rows = generateRows(nbRows);
+		long nbCells = (long) nbRows * FieldNames.length;
+		
+		long initialMemory = getUsedMemory();
+		List<List<Object>> rowWise = parseIntoRows(rows);
+		long rowWiseMemory = getUsedMemory() - initialMemory;
+		System.out.println("Row-wise layout: " + rowWise.size() + " rows; " + String.format(Locale.ROOT, "%.1f", (double) rowWiseMemory / nbCells) + " bytes/cell");
+		rowWise = null;
+
+		initialMemory = getUsedMemory();
+		BioSimDataSet columnar = parseIntoColumns(rows);
+		long columnarMemory = getUsedMemory() - initialMemory;
+		System.out.println("Columnar layout: " + columnar.getNumberOfObservations() + " rows; " + String.format(Locale.ROOT, "%.1f", (double) columnarMemory / nbCells) + " bytes/cell");
+	}
+}
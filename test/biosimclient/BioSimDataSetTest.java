@@ -21,7 +21,22 @@
  */
 package biosimclient;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -38,4 +53,277 @@ public class BioSimDataSetTest {
 		Assert.assertEquals("Checking first value", -1E-7, (Double) dataSet.getObservations().get(0).values.get(1), 1E-15);
 		Assert.assertEquals("Checking second value", 1E7, (Double) dataSet.getObservations().get(1).values.get(1), 1E-8);
 	}
+
+	/**
+	 * The former implementation of the parsing, which serves as reference.
+	 */
+	private static Object parseTheFormerWay(String valueStr) {
+		if (valueStr.contains(".") || valueStr.contains("e") || valueStr.contains("E")) {
+			try {
+				return Double.parseDouble(valueStr);
+			} catch (NumberFormatException e2) {
+				return valueStr;
+			}
+		} else {
+			try {
+				return Integer.parseInt(valueStr);
+			} catch (NumberFormatException e2) {
+				return valueStr;
+			}
+		}
+	}
+	
+	private static void checkParsing(String valueStr) {
+		Object expected = parseTheFormerWay(valueStr);
+		Object actual = BioSimValueParser.parse(valueStr);
+		Assert.assertEquals("Testing the class of " + valueStr, expected.getClass(), actual.getClass());
+		if (expected instanceof Double) {
+			Assert.assertEquals("Testing the bits of " + valueStr, 
+					Double.doubleToRawLongBits((Double) expected), 
+					Double.doubleToRawLongBits((Double) actual));
+		} else {
+			Assert.assertEquals("Testing the value of " + valueStr, expected, actual);
+		}
+		String line = "a," + valueStr + ",b";
+		Assert.assertEquals("Testing the parsing within a line", actual, BioSimValueParser.parse(line, 2, 2 + valueStr.length()));
+	}
+	
+	@Test
+	public void parsingWithoutExceptionsYieldsTheSameValuesOnUnusualStrings() {
+		String[] values = new String[] {"", "0", "-0", "+5", "-0.0", "0.000", ".5", "-.5", "5.", ".", "-", "+", "e5", "1e", "1e+", "1e5", 
+				"1.25e-3", "1E+7", "-1e-7", "12.3400", "0.0012", "2147483647", "2147483648", "-2147483648", "-2147483649", 
+				"00000000000012", "12345678901234567890", "1.2345678901234567890123", "4.9e-324", "1e-400", "1.7976931348623157e308", "1e309", 
+				"0e500", "9007199254740993", "9007199254740993.0", "123456789012345.6", "1.5f", "1.5d", " 1.5", "1.5 ", " 12", "0x1p3", 
+				"NaN", "Infinity", "-Infinity", "Real_Data", "Simulated", "2020-01-01", "12:30", "1.2.3", "1e5e", "1e5-3", "12abc", 
+				"-abc", "\u0661\u0662", "1\u0663", "DegreeDay_Annual"};
+		for (String value : values) {
+			checkParsing(value);
+		}
+	}
+
+	@Test
+	public void parsingWithoutExceptionsYieldsTheSameValuesOnRandomNumbers() {
+		Random rnd = new Random(2026);
+		for (int i = 0; i < 100000; i++) {
+			double value = (rnd.nextDouble() - .5) * Math.pow(10, rnd.nextInt(20) - 10);
+			checkParsing(Double.toString(value));
+			checkParsing(String.format(Locale.ROOT, "%." + rnd.nextInt(8) + "f", value));
+			checkParsing(String.format(Locale.ROOT, "%." + rnd.nextInt(8) + "e", value));
+			checkParsing(Integer.toString(rnd.nextInt()));
+		}
+	}
+	
+	@Test
+	public void parsingWithoutExceptionsYieldsTheSameValuesOnReferenceData() throws Exception {
+		File testData = new File(BioSimClientTestSettings.ProjectRootPath + File.separator + "testData");
+		Pattern numberPattern = Pattern.compile(":(-?[0-9][0-9.eE+-]*)");
+		List<String> values = new ArrayList<String>();
+		for (File f : testData.listFiles()) {
+			if (f.getName().endsWith(".json")) {
+				Matcher m = numberPattern.matcher(new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8));
+				while (m.find()) {
+					values.add(m.group(1));
+				}
+			}
+		}
+		Assert.assertTrue("Testing that numbers were found in the reference data", values.size() > 1000);
+		for (String value : values) {
+			checkParsing(value);
+			if (value.contains(".")) {
+				checkParsing(value + "0");	// the server may pad the values with zeros
+			}
+		}
+	}
+
+	@Test
+	public void observationsCanBeSetAndSorted() {
+		BioSimDataSet dataSet = new BioSimDataSet(Arrays.asList(new String[] {"Year", "DD", "DataType"}));
+		dataSet.addObservation(new Object[] {"2002", "1200.5", "Simulated"});
+		dataSet.addObservation(new Object[] {"2000", "1000.5", "Real_Data"});
+		dataSet.addObservation(new Object[] {"2001", "1100", "Real_Data"});
+		dataSet.indexFieldType();
+		Collections.sort(dataSet.getObservations());	// no comparable field, the order is unchanged
+		Assert.assertEquals("Testing the first year", 2002, dataSet.getObservations().get(0).values.get(0));
+		
+		dataSet.getObservations().sort((o1, o2) -> ((Integer) o1.values.get(0)).compareTo((Integer) o2.values.get(0)));
+		for (int i = 0; i < 3; i++) {
+			Observation obs = dataSet.getObservations().get(i);
+			Assert.assertEquals("Testing the year", 2000 + i, obs.values.get(0));
+			Assert.assertEquals("Testing the degree-days", 1000.5 + i * 100 - (i == 1 ? .5 : 0), (Double) obs.values.get(1), 1E-8);
+		}
+		Assert.assertEquals("Testing the data type of the last row", "Simulated", dataSet.getObservations().get(2).values.get(2));
+		
+		Observation formerObservation = dataSet.getObservations().set(0, dataSet.getObservations().get(2));
+		Assert.assertEquals("Testing the former observation", 2000, formerObservation.values.get(0));
+		Assert.assertEquals("Testing the copied year", 2002, dataSet.getObservations().get(0).values.get(0));
+		Assert.assertEquals("Testing that the source row is unchanged", 2002, dataSet.getObservations().get(2).values.get(0));
+	}
+
+	@Test
+	public void observationsAreViewsOfTheRows() throws Exception {
+		BioSimDataSet dataSet = new BioSimDataSet(Arrays.asList(new String[] {"Year", "DD"}));
+		dataSet.addObservation(new Object[] {"2001", "1100.5"});
+		dataSet.addObservation(new Object[] {"2000", "1000.5"});
+		Observation obs = dataSet.getObservations().get(0);
+		obs.values.set(1, 1150.5);
+		Assert.assertEquals("Testing that the data set is changed through the observation", 1150.5, dataSet.getDouble(0, 1), 1E-8);
+		dataSet.getObservations().set(0, dataSet.getObservations().get(1));
+		Assert.assertEquals("Testing that the observation reflects the changes of its row", 2000, obs.values.get(0));
+		
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(obs);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+		Observation deserializedObs = (Observation) ois.readObject();
+		ois.close();
+		Assert.assertEquals("Testing that the values were serialized without the data set", ArrayList.class, deserializedObs.values.getClass());
+		Assert.assertTrue("Testing the deserialized values", obs.isEqualToThisObservation(deserializedObs));
+		
+		Object[] copy = obs.toArray();
+		dataSet.getObservations().remove(1);
+		try {
+			obs.values.get(0);
+			Assert.fail("Should have thrown a ConcurrentModificationException instance");
+		} catch (ConcurrentModificationException e) {}
+		Assert.assertEquals("Testing that the copy is not affected", 2000, copy[0]);
+		Observation newObs = dataSet.getObservations().get(0);
+		dataSet.getObservations().sort((o1, o2) -> 0);
+		try {
+			newObs.values.set(0, 1999);
+			Assert.fail("Should have thrown a ConcurrentModificationException instance");
+		} catch (ConcurrentModificationException e) {}
+		Assert.assertEquals("Testing that the data set was not changed by the invalid view", 2000, dataSet.getInt(0, 0));
+	}
+
+	@Test
+	public void fieldTypesAreInferredAsTheObservationsAreAdded() {
+		BioSimDataSet dataSet = new BioSimDataSet(Arrays.asList(new String[] {"Int", "IntAndDouble", "NumberAndString", "String"}));
+		dataSet.addObservation(new Object[] {"1", "2", "3.5", "Real_Data"});
+		dataSet.addObservation(new Object[] {"4", "5.5", "Simulated", "Simulated"});
+		dataSet.addObservation(new Object[] {"7", "8", "9", "Real_Data"});
+		dataSet.indexFieldType();
+		Assert.assertEquals("Testing the field types", 
+				Arrays.asList(new Class<?>[] {Integer.class, Double.class, String.class, String.class}), 
+				dataSet.fieldTypes);
+		Assert.assertEquals("Testing an integer", 7, dataSet.getObservations().get(2).values.get(0));
+		Assert.assertEquals("Testing an integer converted into a double", 8d, dataSet.getObservations().get(2).values.get(1));
+		Assert.assertEquals("Testing a double converted into a string", "3.5", dataSet.getObservations().get(0).values.get(2));
+		Assert.assertEquals("Testing an integer converted into a string", "9", dataSet.getObservations().get(2).values.get(2));
+		
+		dataSet.getObservations().remove(1);	// the types are inferred anew since the list was changed outside the data set
+		dataSet.indexFieldType();
+		Assert.assertEquals("Testing the field types after removing an observation", 
+				Arrays.asList(new Class<?>[] {Integer.class, Double.class, String.class, String.class}), 
+				dataSet.fieldTypes);
+		
+		dataSet.addField("NewField", new Object[] {"1.5", "2"});
+		Assert.assertEquals("Testing the type of the new field", Double.class, dataSet.fieldTypes.get(4));
+		Assert.assertEquals("Testing an integer converted into a double in the new field", 2d, dataSet.getObservations().get(1).values.get(4));
+		dataSet.removeField(1);
+		dataSet.addObservation(new Object[] {"10", "11", "Real_Data", "13"});
+		dataSet.indexFieldType();
+		Assert.assertEquals("Testing the field types after removing a field", 
+				Arrays.asList(new Class<?>[] {Integer.class, String.class, String.class, Double.class}), 
+				dataSet.fieldTypes);
+		Assert.assertEquals("Testing an integer converted into a string after removing a field", "11", dataSet.getObservations().get(2).values.get(1));
+		Assert.assertEquals("Testing an integer converted into a double after removing a field", 13d, dataSet.getObservations().get(2).values.get(3));
+	}
+
+	@Test
+	public void columnarStorageProvidesPrimitiveAccessorsAndSurvivesSerialization() throws Exception {
+		BioSimDataSet dataSet = new BioSimDataSet(Arrays.asList(new String[] {"Year", "Tmin", "DataType"}));
+		for (int i = 0; i < 1000; i++) {
+			dataSet.addObservation(new Object[] {"" + (2000 + i), i % 2 == 0 ? "" + i : (i + .5) + "", i < 500 ? "Real_Data" : "Simulated"});
+		}
+		dataSet.indexFieldType();
+		Assert.assertEquals("Testing the field types", 
+				Arrays.asList(new Class<?>[] {Integer.class, Double.class, String.class}), 
+				dataSet.fieldTypes);
+		Assert.assertEquals("Testing an int", 2010, dataSet.getInt(10, 0));
+		Assert.assertEquals("Testing a double", 11.5, dataSet.getDouble(11, 1), 1E-12);
+		Assert.assertEquals("Testing an integer converted into a double", 10d, dataSet.getObservations().get(10).values.get(1));
+		Assert.assertEquals("Testing a string", "Simulated", dataSet.getString(999, 2));
+		
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(dataSet);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+		BioSimDataSet deserializedDataSet = (BioSimDataSet) ois.readObject();
+		ois.close();
+		Assert.assertTrue("Testing the deserialized data set", dataSet.areEqual(deserializedDataSet));
+		Assert.assertTrue("Testing the clone", dataSet.areEqual(dataSet.clone()));
+	}
+
+	@Test
+	public void dataSetsWithTheSameFieldsShareTheirSchema() throws Exception {
+		BioSimDataSet dataSet1 = new BioSimDataSet(Arrays.asList(new String[] {"Year", "DD", "DD", "DD"}));
+		BioSimDataSet dataSet2 = new BioSimDataSet(BioSimSchema.getSchema("Year,DD,DD,DD"));
+		Assert.assertSame("Testing that the schema is shared", dataSet1.getSchema(), dataSet2.getSchema());
+		Assert.assertEquals("Testing the duplicate field names", Arrays.asList(new String[] {"Year", "DD", "DD0", "DD1"}), dataSet1.getFieldNames());
+		Assert.assertEquals("Testing the index of a field", 2, dataSet1.getSchema().getIndex("DD0"));
+		
+		dataSet1.addObservation(new Object[] {"2000", "1", "2", "3"});
+		dataSet2.addObservation(new Object[] {"2000", "1.5", "2", "3"});
+		dataSet1.indexFieldType();
+		dataSet2.indexFieldType();
+		Assert.assertNotSame("Testing that the field types differ", dataSet1.fieldTypes, dataSet2.fieldTypes);
+		dataSet2.removeField(1);
+		Assert.assertEquals("Testing that the field types are interned", dataSet1.fieldTypes.subList(0, 3), dataSet2.fieldTypes);
+		Assert.assertEquals("Testing that the other data set is not affected", 4, dataSet1.getFieldNames().size());
+		dataSet1.removeField(1);
+		Assert.assertSame("Testing that the schemas are shared again", dataSet1.getSchema(), dataSet2.getSchema());
+		Assert.assertSame("Testing that the field types are shared again", dataSet1.fieldTypes, dataSet2.fieldTypes);
+		
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(dataSet1);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+		BioSimDataSet deserializedDataSet = (BioSimDataSet) ois.readObject();
+		ois.close();
+		Assert.assertSame("Testing that the deserialized schema is interned", dataSet1.getSchema(), deserializedDataSet.getSchema());
+	}
+
+	private static BioSimDataSet parseLines(String[] lines, List<Class<?>> expectedFieldTypes) {
+		BioSimDataSet dataSet = new BioSimDataSet(BioSimSchema.getSchema(lines[0]), expectedFieldTypes, 2);
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		for (int i = 1; i < lines.length; i++) {
+			tokenizer.tokenize(lines[i]);
+			dataSet.addObservation(tokenizer);
+		}
+		dataSet.indexFieldType();
+		return dataSet;
+	}
+	
+	@Test
+	public void typedColumnsYieldTheSameDataSetAsInference() {
+		String[] lines = new String[] {"Year,Tmin,Mixed,DataType,Empty,Unusual", 
+				"2000,-5.25,3,Real_Data,,0x10", 
+				"2001,-4,4.5,Real_Data,,1f", 
+				"2002,1e-2,Simulated,Simulated,, 5"};
+		BioSimDataSet reference = parseLines(lines, null);
+		Assert.assertEquals("Testing the inferred types", 
+				Arrays.asList(new Class<?>[] {Integer.class, Double.class, String.class, String.class, String.class, String.class}), 
+				reference.fieldTypes);
+		List<List<Class<?>>> hints = new ArrayList<List<Class<?>>>();
+		hints.add(reference.fieldTypes);
+		for (Class<?> clazz : new Class<?>[] {Integer.class, Double.class, String.class}) {
+			hints.add(Arrays.asList(new Class<?>[] {clazz, clazz, clazz, clazz, clazz, clazz}));
+		}
+		hints.add(Arrays.asList(new Class<?>[] {Double.class}));	// fewer types than fields
+		for (List<Class<?>> hint : hints) {
+			BioSimDataSet dataSet = parseLines(lines, hint);
+			Assert.assertSame("Testing the field types with hint " + hint, reference.fieldTypes, dataSet.fieldTypes);
+			Assert.assertTrue("Testing the values with hint " + hint, reference.areEqual(dataSet));
+			for (int i = 0; i < reference.getNumberOfObservations(); i++) {
+				for (int j = 0; j < reference.getFieldNames().size(); j++) {
+					Assert.assertEquals("Testing the class of the value with hint " + hint, 
+							reference.getValueAt(i, j).getClass(), 
+							dataSet.getValueAt(i, j).getClass());
+				}
+			}
+		}
+	}
 }
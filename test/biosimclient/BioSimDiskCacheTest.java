@@ -0,0 +1,166 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BioSimDiskCacheTest {
+
+	private File directory;
+	
+	@Before
+	public void createDirectory() throws Exception {
+		directory = Files.createTempDirectory("biosimcache").toFile();
+	}
+	
+	@After
+	public void deleteDirectory() {
+		delete(directory);
+	}
+	
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+	
+	private static BioSimDataSet createDataSet(int year) {
+		BioSimDataSet dataSet = new BioSimDataSet(Arrays.asList(new String[] {"Year", "DD"}));
+		dataSet.addObservation(new Object[] {"" + year, "1234.5"});
+		dataSet.indexFieldType();
+		return dataSet;
+	}
+	
+	@Test
+	public void entriesAreSharedByTheInstancesOfTheSameDirectory() throws Exception {
+		BioSimDiskCache cache = new BioSimDiskCache(directory, 1024 * 1024);
+		Assert.assertNull("Testing a missing entry", cache.get("2000", BioSimDataSet.class));
+		cache.put("2000", createDataSet(2000));
+		BioSimDiskCache otherCache = new BioSimDiskCache(directory, 1024 * 1024);	// as if it were another process
+		BioSimDataSet dataSet = otherCache.get("2000", BioSimDataSet.class);
+		Assert.assertTrue("Testing the entry", createDataSet(2000).areEqual(dataSet));
+		Assert.assertEquals("Testing the number of entries", 1, otherCache.getStatistics().getNbEntries());
+		Assert.assertEquals("Testing the number of hits", 1, otherCache.getStatistics().getHitCount());
+		Assert.assertEquals("Testing the number of misses", 1, cache.getStatistics().getMissCount());
+		Assert.assertTrue("Testing the version subdirectory", new File(directory, "v" + BioSimDiskCache.FORMAT_VERSION).isDirectory());
+	}
+
+	@Test
+	public void corruptedEntriesAreIgnored() throws Exception {
+		BioSimDiskCache cache = new BioSimDiskCache(directory, 1024 * 1024);
+		cache.put("2000", createDataSet(2000));
+		File[] entries = cache.getDirectory().listFiles((dir, name) -> name.endsWith(".entry"));
+		Assert.assertEquals("Testing the number of files", 1, entries.length);
+		FileOutputStream fos = new FileOutputStream(entries[0]);
+		fos.write(new byte[] {1, 2, 3});
+		fos.close();
+		Assert.assertNull("Testing a corrupted entry", cache.get("2000", BioSimDataSet.class));
+		Assert.assertNull("Testing an entry of another class", new BioSimDiskCache(directory, 1024 * 1024).get("2000", String.class));
+	}
+
+	@Test
+	public void entriesWithClassesThatAreNotAllowedAreIgnored() throws Exception {
+		BioSimDiskCache cache = new BioSimDiskCache(directory, 1024 * 1024);
+		cache.put("date", new Date());
+		ArrayList<Object> list = new ArrayList<Object>();
+		list.add("2000");
+		list.add(new Date());	// nested in an allowed class
+		cache.put("list", list);
+		Assert.assertEquals("Testing the number of entries", 2, cache.getStatistics().getNbEntries());
+		Assert.assertNull("Testing an entry whose class is not allowed", cache.get("date", Date.class));
+		Assert.assertNull("Testing an entry that contains a class that is not allowed", cache.get("list", ArrayList.class));
+		Assert.assertEquals("Testing the number of misses", 2, cache.getStatistics().getMissCount());
+		ArrayList<Object> otherList = new ArrayList<Object>();
+		otherList.add("2000");
+		otherList.add(new int[] {1, 2});
+		otherList.add(createDataSet(2000));
+		cache.put("list", otherList);
+		Assert.assertNotNull("Testing an entry whose classes are all allowed", cache.get("list", ArrayList.class));
+	}
+	
+	@Test
+	public void leastRecentlyUsedEntriesAreEvicted() throws Exception {
+		BioSimDiskCache cache = new BioSimDiskCache(directory, 1024 * 1024);
+		cache.put("0", createDataSet(0));
+		long entrySize = cache.getStatistics().getWeight();
+		cache = new BioSimDiskCache(directory, entrySize * 10);
+		for (int i = 1; i < 10; i++) {
+			cache.put("" + i, createDataSet(i));
+		}
+		Assert.assertEquals("Testing that nothing was evicted so far", 10, cache.getStatistics().getNbEntries());
+		File firstEntry = cache.getDirectory().listFiles((dir, name) -> name.endsWith(".entry"))[0];
+		for (File file : cache.getDirectory().listFiles((dir, name) -> name.endsWith(".entry"))) {
+			file.setLastModified(System.currentTimeMillis() - 60000);	// the time resolution of some file systems is coarse
+		}
+		Assert.assertNotNull("Testing that the first entry is there", cache.get("0", BioSimDataSet.class));	// becomes the most recently used
+		firstEntry.setLastModified(System.currentTimeMillis() - 120000);	// becomes the least recently used, whatever key it holds
+		cache.put("10", createDataSet(10));
+		Assert.assertTrue("Testing that some entries were evicted", cache.getStatistics().getEvictionCount() > 0);
+		Assert.assertTrue("Testing the size after eviction", cache.getStatistics().getWeight() <= entrySize * 10);
+		Assert.assertFalse("Testing that the least recently used entry was evicted", firstEntry.exists());
+		Assert.assertNotNull("Testing that the last entry was kept", cache.get("10", BioSimDataSet.class));
+	}
+	
+	@Test
+	public void concurrentWritersNeverExposePartialEntries() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < 8; t++) {
+			BioSimDiskCache cache = new BioSimDiskCache(directory, 1024 * 1024);	// one instance per thread as if there were several processes
+			futures.add(executor.submit(() -> {
+				int nbFailures = 0;
+				for (int i = 0; i < 200; i++) {
+					String key = "" + (i % 5);
+					cache.put(key, createDataSet(i % 5));
+					BioSimDataSet dataSet = cache.get(key, BioSimDataSet.class);
+					if (dataSet == null || !createDataSet(i % 5).areEqual(dataSet)) {
+						nbFailures++;
+					}
+				}
+				return nbFailures;
+			}));
+		}
+		for (Future<Integer> f : futures) {
+			Assert.assertEquals("Testing that all the reads succeeded", 0, f.get().intValue());
+		}
+		executor.shutdown();
+		Assert.assertEquals("Testing that no temporary file was left", 5, new File(directory, "v" + BioSimDiskCache.FORMAT_VERSION).listFiles().length);
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class BioSimHttpTransportTest {
+
+	private static final byte[] Line = "1234.5,2000,45.0,-74.0\n".getBytes(StandardCharsets.US_ASCII);
+	
+	private HttpServer server;
+	private ExecutorService executor;
+	private final List<Integer> remotePorts = Collections.synchronizedList(new ArrayList<Integer>());
+	private volatile CountDownLatch burstLatch;
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+		server.createContext("/short", exchange -> reply(exchange, 10));
+		server.createContext("/endless", exchange -> reply(exchange, Integer.MAX_VALUE));
+		server.createContext("/burst", exchange -> {
+			CountDownLatch latch = burstLatch;
+			latch.countDown();
+			try {
+				latch.await(5, TimeUnit.SECONDS);	// the requests of a burst are in progress at the same time
+			} catch (InterruptedException e) {}
+			reply(exchange, 10);
+		});
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.start();
+	}
+	
+	@After
+	public void stopServer() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+	
+	private void reply(HttpExchange exchange, int nbLines) throws IOException {
+		remotePorts.add(exchange.getRemoteAddress().getPort());
+		exchange.sendResponseHeaders(200, nbLines == Integer.MAX_VALUE ? 0 : nbLines * Line.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			for (int i = 0; i < nbLines; i++) {
+				os.write(Line);		// fails once the client has closed the connection
+			}
+		} catch (IOException e) {}
+	}
+	
+	private String readFirstLine(BioSimTransport transport, String path) throws IOException {
+		BioSimTransport.Reply reply = transport.send(new URL("http://localhost:" + server.getAddress().getPort() + path), 1000, 5000);
+		try {
+			Assert.assertEquals("Testing the response code", 200, reply.getResponseCode());
+			return new BufferedReader(new InputStreamReader(reply.getInputStream())).readLine();
+		} finally {
+			reply.close();
+		}
+	}
+
+	@Test
+	public void smallRemaindersAreDrainedAndTheConnectionIsReused() throws Exception {
+		BioSimTransport transport = new BioSimHttpTransport(true);
+		Assert.assertEquals("Testing the first line", "1234.5,2000,45.0,-74.0", readFirstLine(transport, "/short"));
+		readFirstLine(transport, "/short");
+		Assert.assertEquals("Testing the number of requests", 2, remotePorts.size());
+		Assert.assertEquals("Testing that the connection was reused", remotePorts.get(0), remotePorts.get(1));
+	}
+
+	@Test(timeout = 30000)
+	public void unfinishedRepliesAreDisconnected() throws Exception {
+		BioSimTransport transport = new BioSimHttpTransport(true);
+		Assert.assertEquals("Testing the first line", "1234.5,2000,45.0,-74.0", readFirstLine(transport, "/endless"));	// would never return if the body were drained
+		readFirstLine(transport, "/short");
+		Assert.assertEquals("Testing the number of requests", 2, remotePorts.size());
+		Assert.assertNotEquals("Testing that the connection was not reused", remotePorts.get(0), remotePorts.get(1));
+	}
+
+	private List<Integer> sendBurst(BioSimTransport transport, int nbRequests) throws Exception {
+		remotePorts.clear();
+		burstLatch = new CountDownLatch(nbRequests);
+		ExecutorService clientExecutor = Executors.newFixedThreadPool(nbRequests);
+		List<Callable<String>> requests = new ArrayList<Callable<String>>();
+		for (int i = 0; i < nbRequests; i++) {
+			requests.add(() -> readFirstLine(transport, "/burst"));
+		}
+		for (Future<String> f : clientExecutor.invokeAll(requests)) {
+			Assert.assertEquals("Testing the first line", "1234.5,2000,45.0,-74.0", f.get());
+		}
+		clientExecutor.shutdown();
+		return new ArrayList<Integer>(remotePorts);
+	}
+	
+	@Test
+	public void connectionsOfTheDefaultConcurrencyAreAllKeptAlive() throws Exception {
+		int nbConcurrentRequests = new BioSimClientInstance.Builder().build().getMaximumNbConcurrentRequests();
+		Assert.assertEquals("Testing that the default concurrency matches the idle connections of the JVM", 
+				BioSimHttpTransport.getMaximumNbIdleConnections(), nbConcurrentRequests);
+		BioSimTransport transport = new BioSimHttpTransport(true);
+		List<Integer> firstPorts = sendBurst(transport, nbConcurrentRequests);
+		Assert.assertEquals("Testing that the first burst opened a connection per request", nbConcurrentRequests, new HashSet<Integer>(firstPorts).size());
+		List<Integer> secondPorts = sendBurst(transport, nbConcurrentRequests);
+		Assert.assertEquals("Testing that the second burst reused all the connections", new HashSet<Integer>(firstPorts), new HashSet<Integer>(secondPorts));
+	}
+}
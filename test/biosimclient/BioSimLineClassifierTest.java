@@ -0,0 +1,60 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2024 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import biosimclient.BioSimLineClassifier.LineType;
+
+public class BioSimLineClassifierTest {
+
+	private static final BioSimLineClassifier Classifier = new BioSimLineClassifier(
+			Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Monthly"}))), 
+			"rep");
+	
+	@Test
+	public void classifyLines() {
+		Assert.assertEquals("Testing a data row", LineType.Data, Classifier.classify("0,2000,2101.50"));
+		Assert.assertEquals("Testing a negative data row", LineType.Data, Classifier.classify("-1.5,2000,2101.50"));
+		Assert.assertEquals("Testing a data row starting with a letter", LineType.Data, Classifier.classify("Real_Data,2000"));
+		Assert.assertEquals("Testing an empty line", LineType.Data, Classifier.classify(""));
+		Assert.assertEquals("Testing a model name", LineType.ModelName, Classifier.classify("DegreeDay_Annual"));
+		Assert.assertEquals("Testing a model name with white spaces", LineType.ModelName, Classifier.classify(" Climatic_Monthly\t"));
+		Assert.assertEquals("Testing a header", LineType.Header, Classifier.classify("Rep,Year,DD"));
+		Assert.assertEquals("Testing an error", LineType.Error, Classifier.classify("ERROR: the server failed"));
+		Assert.assertEquals("Testing an error in lower case", LineType.Error, Classifier.classify("error: the server failed"));
+	}
+
+	@Test
+	public void classifyLinesWithAModelNameThatStartsWithADigit() {
+		BioSimLineClassifier classifier = new BioSimLineClassifier(Collections.singleton("3PG"), "month");
+		Assert.assertEquals("Testing a model name", LineType.ModelName, classifier.classify("3PG"));
+		Assert.assertEquals("Testing a data row", LineType.Data, classifier.classify("1,-12.5,-3.2"));
+		Assert.assertEquals("Testing a header", LineType.Header, classifier.classify("Month,TMIN_MN"));
+	}
+	
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compare the parsing of the data rows with String.split and with the BioSimLineTokenizer 
+ * class. <br>
+ * <br>
+ * The rows mimic a daily weather reply. They are parsed into BioSimDataSet instances of one
+ * year each.
+ * @author agent - October 2026
+ */
+public class BioSimLineTokenizerBenchmark {
+
+	private static final String[] FieldNames = new String[] {"Rep", "Year", "Month", "Day", "Tmin", "Tmax", "Prcp", "DataType"};
+	
+	private static List<String> generateRows(int nbRows) {
+		Random rnd = new Random(1234);
+		List<String> rows = new ArrayList<String>(nbRows);
+		for (int i = 0; i < nbRows; i++) {
+			int day = i % 365;
+			rows.add(String.format(Locale.ROOT, "0,%d,%d,%d,%.2f,%.2f,%.1f,Real_Data", 
+					2000 + i / 365, day / 31 + 1, day % 31 + 1, rnd.nextGaussian() * 10, rnd.nextGaussian() * 10 + 8, rnd.nextDouble() * 20));
+		}
+		return rows;
+	}
+
+	private static long parseWithSplit(List<String> rows) {
+		long initTime = System.nanoTime();
+		BioSimDataSet dataSet = null;
+		for (int i = 0; i < rows.size(); i++) {
+			if (i % 365 == 0) {
+				dataSet = new BioSimDataSet(Arrays.asList(FieldNames));
+			}
+			Object[] fields = Arrays.asList(rows.get(i).split(BioSimClient.FieldSeparator)).toArray(new Object[]{});
+			dataSet.addObservation(fields);
+		}
+		return System.nanoTime() - initTime;
+	}
+
+	private static long parseWithTokenizer(List<String> rows) {
+		long initTime = System.nanoTime();
+		BioSimDataSet dataSet = null;
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		for (int i = 0; i < rows.size(); i++) {
+			if (i % 365 == 0) {
+				dataSet = new BioSimDataSet(Arrays.asList(FieldNames));
+			}
+			tokenizer.tokenize(rows.get(i));
+			dataSet.addObservation(tokenizer);
+		}
+		return System.nanoTime() - initTime;
+	}
+
+	private static long splitOnly(List<String> rows) {
+		long initTime = System.nanoTime();
+		int nbFields = 0;
+		for (String row : rows) {
+			nbFields += Arrays.asList(row.split(BioSimClient.FieldSeparator)).toArray(new Object[]{}).length;
+		}
+		if (nbFields == 0) {
+			System.out.println("No field!");
+		}
+		return System.nanoTime() - initTime;
+	}
+
+	private static long tokenizeOnly(List<String> rows) {
+		long initTime = System.nanoTime();
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		int nbFields = 0;
+		for (String row : rows) {
+			nbFields += tokenizer.tokenize(row);
+		}
+		if (nbFields == 0) {
+			System.out.println("No field!");
+		}
+		return System.nanoTime() - initTime;
+	}
+	
+	public static void main(String[] args) {
+		int nbRows = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		List<String> rows = generateRows(nbRows);
+		for (int run = 0; run < 5; run++) {	// the first runs are warm-ups
+			System.out.println("Run " + run + ": split = " + splitOnly(rows) / 1000000 + " ms; tokenizer = " + tokenizeOnly(rows) / 1000000 + " ms; " + 
+					"split + parsing = " + parseWithSplit(rows) / 1000000 + " ms; tokenizer + parsing = " + parseWithTokenizer(rows) / 1000000 + " ms");
+		}
+	}
+}
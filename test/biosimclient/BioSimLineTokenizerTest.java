@@ -0,0 +1,52 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2024 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BioSimLineTokenizerTest {
+
+	@Test
+	public void tokenizerYieldsTheSameFieldsAsStringSplit() {
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		String[] lines = new String[] {"0,2000,1,-12.35,Real_Data", "", ",", "a,,b", ",a", "a,b,,", "single", 
+				"1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20"};
+		for (String line : lines) {
+			String[] expected = line.split(BioSimClient.FieldSeparator);
+			Assert.assertEquals("Testing the number of fields in \"" + line + "\"", expected.length, tokenizer.tokenize(line));
+			for (int i = 0; i < expected.length; i++) {
+				Assert.assertEquals("Testing field " + i + " in \"" + line + "\"", expected[i], tokenizer.getField(i));
+			}
+		}
+	}
+
+	@Test
+	public void tokenizerStopsAfterTheLeadingFields() {
+		BioSimLineTokenizer tokenizer = new BioSimLineTokenizer();
+		Assert.assertEquals("Testing the number of fields", 2, tokenizer.tokenize("0,2000,1,-12.35,Real_Data", 2));
+		Assert.assertEquals("Testing the last field", "2000", tokenizer.getField(1));
+		Assert.assertEquals("Testing the number of fields in a short line", 3, tokenizer.tokenize("0,2000,1", 4));
+		Assert.assertEquals("Testing the number of fields when none is needed", 0, tokenizer.tokenize("0,2000,1", 0));
+	}
+	
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compare the memory retained by a daily weather request from 1950 to 2100 with and
+ * without a row filter. <br>
+ * <br>
+ * The requests are sent to a local stub of the Web API. The filter keeps the growing 
+ * season (May to September) of the years 2020 to 2050. The retained memory is estimated 
+ * from the used heap after garbage collection.
+ * @author agent - October 2026
+ */
+public class BioSimRowFilterBenchmark {
+
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static int countObservations(LinkedHashMap<String, Object> output) {
+		int nbObservations = 0;
+		for (Object o : output.values()) {
+			for (Object ds : ((LinkedHashMap<?,?>) o).values()) {
+				nbObservations += ((BioSimDataSet) ds).getNumberOfObservations();
+			}
+		}
+		return nbObservations;
+	}
+	
+	public static void main(String[] args) throws Exception {
+		int nbPlots = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		BioSimStubServer server = new BioSimStubServer(0, 100, 100);
+		BioSimClient.setServerAddress(server.getAddress(), BioSimStubServer.RoutingString);
+		List<BioSimPlot> plots = new ArrayList<BioSimPlot>();
+		for (int i = 0; i < nbPlots; i++) {
+			plots.add(new BioSimPlotImpl(45 + i * .01, -70, 300));
+		}
+		List<String> models = Arrays.asList(new String[] {"Climatic_Daily"});
+		BioSimRowFilter filter = BioSimRowFilter.between("Year", 2020, 2050).and(BioSimRowFilter.between("Month", 5, 9));
+		try {
+			BioSimClient.isClientSupported();
+			for (int run = 0; run < 3; run++) {	// the first run is a warm-up
+				long initialMemory = getUsedMemory();
+				long initTime = System.currentTimeMillis();
+				LinkedHashMap<String, Object> output = BioSimClient.generateWeather(1950, 2100, plots, null, null, models, 1, 1, null, null, null);
+				long elapsedTime = System.currentTimeMillis() - initTime;
+				long unfilteredMemory = getUsedMemory() - initialMemory;
+				int nbUnfiltered = countObservations(output);
+				output = null;
+
+				initialMemory = getUsedMemory();
+				initTime = System.currentTimeMillis();
+				output = BioSimClient.generateWeather(1950, 2100, plots, null, null, models, 1, 1, null, null, filter);
+				long filteredElapsedTime = System.currentTimeMillis() - initTime;
+				long filteredMemory = getUsedMemory() - initialMemory;
+				int nbFiltered = countObservations(output);
+				output = null;
+				System.out.println("Run " + run + ": unfiltered = " + nbUnfiltered + " rows, " + String.format(Locale.ROOT, "%.1f", unfilteredMemory / 1048576d) + " MB, " + elapsedTime + " ms; " +
+						"filtered = " + nbFiltered + " rows, " + String.format(Locale.ROOT, "%.1f", filteredMemory / 1048576d) + " MB, " + filteredElapsedTime + " ms");
+			}
+		} finally {
+			BioSimClient.setServerAddress(null, null);
+			BioSimClient.resetClientConfiguration();
+			server.stop();
+		}
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local stub of the BioSIM Web API for tests that must not depend on the
+ * production server. <br>
+ * <br>
+ * The stub supports the status, model list, normals and weather routes. The values it
+ * returns are deterministic functions of the coordinates and the year so that the
+ * order of the plots in the client output can be checked.
+ * @author agent - October 2026
+ */
+class BioSimStubServer {
+
+	static final String RoutingString = "/BioSIM/";
+	static final List<String> ModelList = Collections.unmodifiableList(Arrays.asList(new String[] {"DegreeDay_Annual", "Climatic_Monthly", "Climatic_Daily"}));
+	static final int LastDailyDate = 2025;
+
+	static {
+		System.setProperty("sun.net.httpserver.nodelay", "true");	// otherwise Nagle's algorithm delays the replies on kept-alive connections
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final int nbMaxCoordinatesNormals;
+	private final int nbMaxCoordinatesWG;
+
+	private volatile long delayMs;
+	private volatile int lastDailyDate = LastDailyDate;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final Map<String, AtomicInteger> nbRequestsPerApi = new HashMap<String, AtomicInteger>();
+	private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+	private final List<Integer> requestedFromYears = Collections.synchronizedList(new ArrayList<Integer>());
+
+	/**
+	 * Constructor. The server is started on a free port of the loopback interface.
+	 * @param delayMs the delay (ms) before replying to a normals or weather request
+	 * @param nbMaxCoordinatesNormals the maximum number of locations per normals request
+	 * @param nbMaxCoordinatesWG the maximum number of locations per weather request
+	 * @throws IOException if the server cannot be started
+	 */
+	BioSimStubServer(long delayMs, int nbMaxCoordinatesNormals, int nbMaxCoordinatesWG) throws IOException {
+		this.delayMs = delayMs;
+		this.nbMaxCoordinatesNormals = nbMaxCoordinatesNormals;
+		this.nbMaxCoordinatesWG = nbMaxCoordinatesWG;
+		for (String api : new String[] {"BioSimStatus", "BioSimModelList", "BioSimNormals", "BioSimWeather", "BioSimModelHelp", "BioSimModelDefaultParameters"}) {
+			nbRequestsPerApi.put(api, new AtomicInteger());
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+		server.createContext(RoutingString, new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				processRequest(exchange);
+			}
+		});
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * Provide the address of the stub in the format expected by the BioSimClient class.
+	 * @return an InetSocketAddress instance
+	 */
+	InetSocketAddress getAddress() {
+		return InetSocketAddress.createUnresolved("http://localhost", server.getAddress().getPort());
+	}
+
+	/**
+	 * Provide a builder of client instances that send their requests to this stub.
+	 * @return a BioSimClientInstance.Builder instance
+	 */
+	BioSimClientInstance.Builder getClientBuilder() {
+		return new BioSimClientInstance.Builder().setServerAddress(getAddress(), RoutingString);
+	}
+
+	void setDelayMs(long delayMs) {this.delayMs = delayMs;}
+
+	void setLastDailyDate(int lastDailyDate) {this.lastDailyDate = lastDailyDate;}
+
+	int getMaximumNbRequestsInFlight() {return maxInFlight.get();}
+
+	int getNbRequests(String api) {return nbRequestsPerApi.get(api).get();}
+
+	List<Integer> getBatchSizes() {
+		synchronized(batchSizes) {
+			return new ArrayList<Integer>(batchSizes);
+		}
+	}
+
+	List<Integer> getRequestedFromYears() {
+		synchronized(requestedFromYears) {
+			return new ArrayList<Integer>(requestedFromYears);
+		}
+	}
+
+	void resetCounters() {
+		maxInFlight.set(0);
+		for (AtomicInteger counter : nbRequestsPerApi.values()) {
+			counter.set(0);
+		}
+		batchSizes.clear();
+		requestedFromYears.clear();
+	}
+
+	void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void processRequest(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		String api = path.substring(path.lastIndexOf("/") + 1);
+		Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+		if (nbRequestsPerApi.containsKey(api)) {
+			nbRequestsPerApi.get(api).incrementAndGet();
+		}
+		String reply;
+		int code = 200;
+		int current = inFlight.incrementAndGet();
+		try {
+			int max;
+			while ((max = maxInFlight.get()) < current && !maxInFlight.compareAndSet(max, current)) {}
+			if (api.equals("BioSimStatus")) {
+				reply = "{\"IsInitCompleted\":true,\"settings\":{\"NbMaxCoordinatesNormals\":" + nbMaxCoordinatesNormals +
+						",\"NbMaxCoordinatesWG\":" + nbMaxCoordinatesWG +
+						",\"IsClientSupported\":true,\"ClientMessage\":\"\",\"LastDailyDate\":" + lastDailyDate + "}}";
+			} else if (api.equals("BioSimModelList")) {
+				reply = String.join("\n", ModelList);
+			} else if ((api.equals("BioSimNormals") || api.equals("BioSimWeather")) && query.get("lat").contains("NaN")) {
+				code = 400;
+				reply = "Error: argument lat could not be parsed to a NaN";
+			} else if (api.equals("BioSimNormals")) {
+				pause();
+				reply = getNormalsReply(query);
+			} else if (api.equals("BioSimWeather")) {
+				pause();
+				reply = getWeatherReply(query);
+			} else if (api.equals("BioSimModelHelp") || api.equals("BioSimModelDefaultParameters")) {
+				String model = query.get("model");
+				if (ModelList.contains(model)) {
+					reply = api.equals("BioSimModelHelp") ? "Help for " + model : "LowerThreshold:5*UpperThreshold:30";
+				} else {
+					code = 400;
+					reply = "Error: Model " + model + " does not exist";
+				}
+			} else {
+				code = 404;
+				reply = "Error: unknown route " + api;
+			}
+		} finally {
+			inFlight.decrementAndGet();	// before replying, otherwise the client may send its next request while this one is still counted
+		}
+		byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(code, bytes.length);
+		OutputStream os = exchange.getResponseBody();
+		os.write(bytes);
+		os.close();
+	}
+
+	private void pause() {
+		if (delayMs > 0) {
+			try {
+				Thread.sleep(delayMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+		Map<String, String> query = new HashMap<String, String>();
+		if (rawQuery != null) {
+			for (String pair : rawQuery.split("&")) {
+				int index = pair.indexOf("=");
+				if (index > 0) {
+					query.put(pair.substring(0, index), URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+				}
+			}
+		}
+		return query;
+	}
+
+	private static List<double[]> getCoordinates(Map<String, String> query) {
+		String[] latitudes = query.get("lat").split(" ");
+		String[] longitudes = query.get("long").split(" ");
+		List<double[]> coordinates = new ArrayList<double[]>();
+		for (int i = 0; i < latitudes.length; i++) {
+			coordinates.add(new double[] {Double.parseDouble(latitudes[i]), Double.parseDouble(longitudes[i])});
+		}
+		return coordinates;
+	}
+
+	private String getNormalsReply(Map<String, String> query) {
+		List<double[]> coordinates = getCoordinates(query);
+		batchSizes.add(coordinates.size());
+		StringBuilder sb = new StringBuilder();
+		for (double[] coord : coordinates) {
+			sb.append("Month,TMIN_MN,TMAX_MN,PRCP_TT,TDEX_MN\n");
+			for (int m = 1; m <= 12; m++) {
+				sb.append(m).append(",");
+				sb.append(format(getTemperature(coord[0], m) - 5)).append(",");
+				sb.append(format(getTemperature(coord[0], m) + 5)).append(",");
+				sb.append(format(50 + coord[1] * -.1 + m)).append(",");
+				sb.append(format(getTemperature(coord[0], m) - 7)).append("\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	private String getWeatherReply(Map<String, String> query) {
+		List<double[]> coordinates = getCoordinates(query);
+		batchSizes.add(coordinates.size());
+		int fromYr = Integer.parseInt(query.get("from"));
+		int toYr = Integer.parseInt(query.get("to"));
+		requestedFromYears.add(fromYr);
+		StringBuilder sb = new StringBuilder();
+		for (String model : query.get("model").split(" ")) {
+			sb.append(model).append("\n");
+			for (double[] coord : coordinates) {
+				if (model.equals("DegreeDay_Annual")) {
+					sb.append("Rep,Year,DD\n");
+					for (int yr = fromYr; yr <= toYr; yr++) {
+						sb.append("0,").append(yr).append(",").append(format(getDegreeDays(coord[0], yr))).append("\n");
+					}
+				} else if (model.equals("Climatic_Daily")) {
+					sb.append("Rep,Year,Month,Day,MinTair,MaxTair,TotalPrcp,DataType\n");
+					for (int yr = fromYr; yr <= toYr; yr++) {
+						String dataType = yr <= lastDailyDate ? "Real_Data" : "Simulated";
+						for (int doy = 0; doy < 365; doy++) {
+							int m = doy / 31 + 1;
+							sb.append("0,").append(yr).append(",").append(m).append(",").append(doy % 31 + 1).append(",");
+							sb.append(format(getTemperature(coord[0], m) - 5)).append(",");
+							sb.append(format(getTemperature(coord[0], m) + 5)).append(",");
+							sb.append(format((doy % 7) * .5)).append(",");
+							sb.append(dataType).append("\n");
+						}
+					}
+				} else {
+					sb.append("Rep,Year,Month,MeanTair,TotalPrcp,DataType\n");
+					for (int yr = fromYr; yr <= toYr; yr++) {
+						String dataType = yr <= lastDailyDate ? "Real_Data" : "Simulated";
+						for (int m = 1; m <= 12; m++) {
+							sb.append("0,").append(yr).append(",").append(m).append(",");
+							sb.append(format(getTemperature(coord[0], m) + (yr - 2000) * .01)).append(",");
+							sb.append(format(50 + coord[1] * -.1 + m)).append(",");
+							sb.append(dataType).append("\n");
+						}
+					}
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	static double getTemperature(double latitudeDeg, int month) {
+		return 30 - latitudeDeg * .5 - Math.abs(month - 7) * 3;
+	}
+
+	static double getDegreeDays(double latitudeDeg, int year) {
+		return 3000 - latitudeDeg * 20 + (year - 2000) * 2.5;
+	}
+
+	/**
+	 * Provide plots whose latitudes are 0.01 degree apart.
+	 * @param nbPlots the number of plots
+	 * @param firstLatitude the latitude of the first plot
+	 * @return a List of BioSimPlot instances
+	 */
+	static List<BioSimPlot> getPlots(int nbPlots, double firstLatitude) {
+		List<BioSimPlot> plots = new ArrayList<BioSimPlot>();
+		for (int i = 0; i < nbPlots; i++) {
+			plots.add(new BioSimPlotImpl(firstLatitude + i * .01, -70, 300));
+		}
+		return plots;
+	}
+
+	/**
+	 * Create a temporary directory for the persistent cache.
+	 * @return a File instance
+	 */
+	static File createCacheDirectory() throws IOException {
+		return Files.createTempDirectory("biosimcache").toFile();
+	}
+
+	/**
+	 * Delete a directory created by the createCacheDirectory method along with the entries 
+	 * of the persistent cache.
+	 * @param directory a File instance
+	 */
+	static void deleteCacheDirectory(File directory) {
+		File subdirectory = new File(directory, "v" + BioSimDiskCache.FORMAT_VERSION);
+		if (subdirectory.isDirectory()) {
+			for (File file : subdirectory.listFiles()) {
+				file.delete();
+			}
+			subdirectory.delete();
+		}
+		directory.delete();
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.2f", value);
+	}
+
+}
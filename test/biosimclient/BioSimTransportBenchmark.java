@@ -0,0 +1,68 @@
+/*
+ * This file is part of the biosimclient library
+ *
+ * Author agent <agent@local>
+ * Copyright (C) 2026 His Majesty the King in right of Canada
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package biosimclient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import biosimclient.BioSimEnums.Period;
+
+/**
+ * Compare the per-request latency with and without keep-alive connections. <br>
+ * <br>
+ * The requests are sent to a local stub of the Web API that replies without delay so 
+ * that the connection setup accounts for most of the latency.
+ * @author agent - October 2026
+ */
+public class BioSimTransportBenchmark {
+
+	private static double measureMeanLatencyMs(int nbRequests) throws Exception {
+		List<BioSimPlot> plots = new ArrayList<BioSimPlot>();
+		plots.add(new BioSimPlotImpl(46, -71, 300));
+		long initTime = System.nanoTime();
+		for (int i = 0; i < nbRequests; i++) {
+			BioSimClient.getMonthlyNormals(Period.FromNormals1991_2020, plots, null, null);
+		}
+		return (System.nanoTime() - initTime) * 1E-6 / nbRequests;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int nbRequests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		BioSimStubServer server = new BioSimStubServer(0, 100, 100);
+		BioSimClient.setServerAddress(server.getAddress(), BioSimStubServer.RoutingString);
+		try {
+			BioSimClient.isClientSupported();
+			BioSimTransport unpooled = new BioSimHttpTransport(false);
+			for (int run = 0; run < 3; run++) {	// the first run is a warm-up
+				BioSimClient.setTransport(unpooled);
+				double unpooledLatency = measureMeanLatencyMs(nbRequests);
+				BioSimClient.setTransport(null);
+				double pooledLatency = measureMeanLatencyMs(nbRequests);
+				System.out.println("Run " + run + ": unpooled = " + unpooledLatency + " ms/request; pooled = " + pooledLatency + " ms/request");
+			}
+		} finally {
+			BioSimClient.setServerAddress(null, null);
+			BioSimClient.resetClientConfiguration();
+			server.stop();
+		}
+	}
+}